@@ -0,0 +1,24 @@
+package gameoflife.bench;
+
+import java.util.Random;
+
+import gameoflife.BitGrid;
+
+// Seeded random boards, so every run and every fork benchmarks the same cells
+final class BenchmarkBoards {
+    private BenchmarkBoards() {
+    }
+
+    static BitGrid randomGrid(int gridSize, double density, long seed) {
+	BitGrid whichGrid = new BitGrid(gridSize);
+	Random random = new Random(seed);
+
+	for (int row = 0; row < gridSize; row++) {
+	    for (int col = 0; col < gridSize; col++) {
+		if (random.nextDouble() < density) { whichGrid.set(row, col, true); }
+	    }
+	}
+
+	return whichGrid;
+    }
+}
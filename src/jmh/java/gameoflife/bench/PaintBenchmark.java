@@ -0,0 +1,96 @@
+package gameoflife.bench;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gameoflife.BitGrid;
+import gameoflife.GameOfLife;
+import gameoflife.LifeRule;
+import gameoflife.Viewport;
+
+/* Painting the main grid into an offscreen image, with no window needed: the 720 pixel view at 2 pixels per cell
+ * shows all of the default 360 x 360 board, or its top left corner on a bigger board.
+ * paintFromThisGrid repaints an unchanged board, paintNextGeneration alternates between a board & the generation after it.
+ * paintZoomedOut alternates too, with the view zoomed out until it shows the whole board.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class PaintBenchmark {
+    @Param({ "0.05", "0.3" })
+    public double density;
+
+    @Param({ "bw", "grey", "color" })
+    public String displayMode;
+
+    @Param({ "360", "16384" })
+    public int boardSize;
+
+    private GameOfLife gameOfLife;
+    private BitGrid board, nextBoard;
+    private Viewport cornerView, wholeBoardView;
+    private boolean showNext;
+    private BufferedImage image;
+    private Graphics2D g2d;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+	gameOfLife = new GameOfLife();
+	board = BenchmarkBoards.randomGrid(boardSize, density, 42);
+	nextBoard = new BitGrid(boardSize);
+	nextBoard.step(board, false, LifeRule.standard);
+
+	cornerView = new Viewport(boardSize, 720, 2);
+	wholeBoardView = cornerView;
+	while (wholeBoardView.visibleCells() < boardSize) { wholeBoardView = wholeBoardView.zoomedOut(0, 0); }
+	image = new BufferedImage(720, 720, BufferedImage.TYPE_INT_RGB);
+	g2d = image.createGraphics();
+	GameOfLife.selectDisplayMode(displayMode);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+	g2d.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paintFromThisGrid() {
+	GameOfLife.selectViewport(cornerView);
+	gameOfLife.paintFromThisGrid(board, g2d);
+	return image;
+    }
+
+    @Benchmark
+    public BufferedImage paintNextGeneration() {
+	GameOfLife.selectViewport(cornerView);
+	showNext = !showNext;
+	gameOfLife.paintFromThisGrid(showNext ? nextBoard : board, g2d);
+	return image;
+    }
+
+    @Benchmark
+    public BufferedImage paintZoomedOut() {
+	GameOfLife.selectViewport(wholeBoardView);
+	showNext = !showNext;
+	gameOfLife.paintFromThisGrid(showNext ? nextBoard : board, g2d);
+	return image;
+    }
+}
@@ -0,0 +1,70 @@
+package gameoflife.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gameoflife.BitGrid;
+
+/* Block copies behind the drawing modes, at the default pattern grid size (1/3 of the main grid):
+ * stampFullGrid / stampGrid copy the pattern grid onto the board, copyFullGrid / copyGrid copy the board into it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StampBenchmark {
+    @Param({ "360", "1024", "4096" })
+    public int gridSize;
+
+    @Param({ "0.3" })
+    public double density;
+
+    private BitGrid board, patternGrid;
+    private int blockRow, blockCol;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+	board = BenchmarkBoards.randomGrid(gridSize, density, 42);
+	patternGrid = BenchmarkBoards.randomGrid(gridSize / 3, density, 7);
+	blockRow = gridSize / 3;
+	blockCol = gridSize / 3;
+    }
+
+    @Benchmark
+    public BitGrid stampFullGrid() {
+	board.copyBlock(patternGrid, 0, 0, blockRow, blockCol, patternGrid.size(), false);
+	return board;
+    }
+
+    @Benchmark
+    public BitGrid stampGrid() {
+	board.copyBlock(patternGrid, 0, 0, blockRow, blockCol, patternGrid.size(), true);
+	return board;
+    }
+
+    @Benchmark
+    public BitGrid copyFullGrid() {
+	patternGrid.copyBlock(board, blockRow, blockCol, 0, 0, patternGrid.size(), false);
+	return patternGrid;
+    }
+
+    @Benchmark
+    public BitGrid copyGrid() {
+	patternGrid.copyBlock(board, blockRow, blockCol, 0, 0, patternGrid.size(), true);
+	return patternGrid;
+    }
+}
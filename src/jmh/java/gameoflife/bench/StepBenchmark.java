@@ -0,0 +1,86 @@
+package gameoflife.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gameoflife.BitGrid;
+import gameoflife.LifeRule;
+import gameoflife.ParallelStepper;
+
+/* One generation of the main grid, as run by the simulation thread for each nextFrame.
+ * Display mode matters to stepping: grey & color modes keep cells outside the min/max range alive.
+ * The fork adds jdk.incubator.vector so the scalar & vector kernels can be compared side by side.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules=jdk.incubator.vector" })
+@State(Scope.Thread)
+public class StepBenchmark {
+    @Param({ "360", "1024", "4096" })
+    public int gridSize;
+
+    @Param({ "0.05", "0.3", "0.5" })
+    public double density;
+
+    @Param({ "false", "true" })
+    public boolean wrapAround;
+
+    @Param({ "bw", "color" })
+    public String displayMode;
+
+    @Param({ "1" })
+    public int threads;
+
+    @Param({ "scalar", "vector" })
+    public String kernel;
+
+    private BitGrid currentGrid, nextGrid;
+    private ParallelStepper stepper;
+    private LifeRule rule;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+	// Default rule panel settings: min. on / max. off 2, max. on / min. off 3, no wildcards
+	rule = LifeRule.fromSettings(2, 3, false, new boolean[9], new boolean[9], displayMode.equals("bw"));
+	stepper = new ParallelStepper(threads);
+	stepper.setVectorized(kernel.equals("vector"));
+    }
+
+    // Start each iteration from the same board, before it settles down
+    @Setup(Level.Iteration)
+    public void resetBoard() {
+	currentGrid = BenchmarkBoards.randomGrid(gridSize, density, 42);
+	nextGrid = new BitGrid(gridSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+	stepper.shutdown();
+    }
+
+    @Benchmark
+    public BitGrid nextFrame() {
+	stepper.step(currentGrid, nextGrid, wrapAround, rule);
+
+	BitGrid swapGrid = currentGrid;
+	currentGrid = nextGrid;
+	nextGrid = swapGrid;
+
+	return currentGrid;
+    }
+}
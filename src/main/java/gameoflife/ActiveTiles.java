@@ -0,0 +1,93 @@
+package gameoflife;
+
+import java.util.Arrays;
+
+/* Tracks which parts of the board can still change, so stable regions are skipped when stepping:
+ * 1. The board is split into tiles of 64 rows by one 64-cell word
+ * 2. A tile is stepped only if a cell in it or in one of its 8 neighboring tiles changed in the last generation
+ * 3. A skipped tile is left alone in both grids: it didn't change last time, so both already hold its next value
+ * Anything that changes the board outside of stepping (edits, rule changes) must call markAll before the next step.
+ */
+public class ActiveTiles {
+    static final int tileRowShift = 6;
+
+    private final int gridSize, tileRows, tileCols;
+    private boolean[] activeTiles, nextActiveTiles;
+    private int activeCount;
+
+    public ActiveTiles(int gridSize) {
+	this.gridSize = gridSize;
+	this.tileRows = (gridSize + (1 << tileRowShift) - 1) >>> tileRowShift;
+	this.tileCols = (gridSize + 63) >>> 6;
+	this.activeTiles = new boolean[tileRows * tileCols];
+	this.nextActiveTiles = new boolean[tileRows * tileCols];
+	markAll();
+    }
+
+    public int gridSize() {
+	return gridSize;
+    }
+
+    // Tiles that will be stepped in the next generation
+    public int activeCount() {
+	return activeCount;
+    }
+
+    public int tileCount() {
+	return activeTiles.length;
+    }
+
+    public void markAll() {
+	Arrays.fill(activeTiles, true);
+	activeCount = activeTiles.length;
+    }
+
+    boolean isActive(int row, int word) {
+	return activeTiles[((row >>> tileRowShift) * tileCols) + word];
+    }
+
+    // Whether any tile across the band of 64 rows holding this row is active
+    boolean isBandActive(int row) {
+	int firstTile = (row >>> tileRowShift) * tileCols;
+
+	for (int tile = firstTile; tile < firstTile + tileCols; tile++) {
+	    if (activeTiles[tile]) { return true; }
+	}
+
+	return false;
+    }
+
+    // A cell in this word changed: its tile & the tiles around it must be stepped next generation
+    void markChanged(int row, int word, boolean wrapAround) {
+	int tileRow = row >>> tileRowShift;
+
+	for (int rowOffset = -1; rowOffset <= 1; rowOffset++) {
+	    int neighborRow = tileRow + rowOffset;
+
+	    if (wrapAround) { neighborRow = (neighborRow + tileRows) % tileRows; }
+	    else if ((neighborRow < 0) || (neighborRow >= tileRows)) { continue; }
+
+	    for (int colOffset = -1; colOffset <= 1; colOffset++) {
+		int neighborCol = word + colOffset;
+
+		if (wrapAround) { neighborCol = (neighborCol + tileCols) % tileCols; }
+		else if ((neighborCol < 0) || (neighborCol >= tileCols)) { continue; }
+
+		nextActiveTiles[(neighborRow * tileCols) + neighborCol] = true;
+	    }
+	}
+    }
+
+    // Called once all rows of a generation are done: the tiles marked during it become the active set
+    void nextGeneration() {
+	boolean[] swapTiles = activeTiles;
+	activeTiles = nextActiveTiles;
+	nextActiveTiles = swapTiles;
+	Arrays.fill(nextActiveTiles, false);
+
+	activeCount = 0;
+	for (int tile = 0; tile < activeTiles.length; tile++) {
+	    if (activeTiles[tile]) { activeCount++; }
+	}
+    }
+}
@@ -0,0 +1,362 @@
+package gameoflife;
+
+import java.util.Arrays;
+
+/* Bit-packed square grid used for the main and pattern grids:
+ * 1. Each cell is a single bit, 64 cells per long, each row padded to a whole number of words
+ * 2. Row index matches the first index of the old int[][] grids, column index the second
+ * 3. Padding bits past the last column are always kept clear
+ * 4. The rows sit inside a halo: an extra row above & below, an extra word left & right of each row
+ *    The halo is empty, except while a wrapped step runs, when it holds copies of the opposite edges
+ */
+public class BitGrid implements LifeBoard {
+    private final int size, wordsPerRow, rowStride, lastBit;
+    private final long lastWordMask;
+    private final long[] words;
+
+    public BitGrid(int size) {
+	this.size = size;
+	this.wordsPerRow = (size + 63) >>> 6;
+	this.rowStride = wordsPerRow + 2;
+	this.lastBit = (size - 1) & 63;
+	this.lastWordMask = ((size & 63) == 0) ? -1L : (1L << (size & 63)) - 1;
+	this.words = new long[(size + 2) * rowStride];
+    }
+
+    public int size() {
+	return size;
+    }
+
+    public boolean get(int row, int col) {
+	return (words[rowBase(row) + (col >>> 6)] & (1L << col)) != 0;
+    }
+
+    public void set(int row, int col, boolean alive) {
+	int index = rowBase(row) + (col >>> 6);
+
+	if (alive) { words[index] |= (1L << col); }
+	else { words[index] &= ~(1L << col); }
+    }
+
+    public void clear() {
+	Arrays.fill(words, 0L);
+    }
+
+    // Both grids must be the same size
+    public void copyFrom(BitGrid otherGrid) {
+	System.arraycopy(otherGrid.words, 0, words, 0, words.length);
+    }
+
+    public BitGrid copy() {
+	BitGrid copyGrid = new BitGrid(size);
+	copyGrid.copyFrom(this);
+	return copyGrid;
+    }
+
+    public BitGrid copy(LifeBoard spareBoard) {
+	if (!(spareBoard instanceof BitGrid) || (((BitGrid) spareBoard).size != size)) { return copy(); }
+
+	BitGrid copyGrid = (BitGrid) spareBoard;
+	copyGrid.copyFrom(this);
+	return copyGrid;
+    }
+
+    // Index of the first word of a row, past the halo
+    int rowBase(int row) {
+	return ((row + 1) * rowStride) + 1;
+    }
+
+    // Layout access for VectorKernel, which steps the same words several at a time
+    long[] words() {
+	return words;
+    }
+
+    int wordsPerRow() {
+	return wordsPerRow;
+    }
+
+    int rowStride() {
+	return rowStride;
+    }
+
+    long lastWordMask() {
+	return lastWordMask;
+    }
+
+    // First & last columns where a row differs between both grids (same size), or -1 when the rows are the same
+    public int firstDifference(BitGrid otherGrid, int row) {
+	int rowBase = rowBase(row);
+	int word = Arrays.mismatch(words, rowBase, rowBase + wordsPerRow, otherGrid.words, rowBase, rowBase + wordsPerRow);
+
+	if (word < 0) { return -1; }
+	return (word << 6) + Long.numberOfTrailingZeros(words[rowBase + word] ^ otherGrid.words[rowBase + word]);
+    }
+
+    public int lastDifference(BitGrid otherGrid, int row) {
+	int rowBase = rowBase(row);
+
+	for (int word = wordsPerRow - 1; word >= 0; word--) {
+	    long difference = words[rowBase + word] ^ otherGrid.words[rowBase + word];
+	    if (difference != 0) { return (word << 6) + 63 - Long.numberOfLeadingZeros(difference); }
+	}
+
+	return -1;
+    }
+
+    // Cells between the live cells & the nearest edge: as many generations as any pattern takes to reach it (MAX_VALUE when empty)
+    public int liveMargin() {
+	int top = -1, bottom = -1, left = size, right = -1;
+
+	for (int row = 0; row < size; row++) {
+	    int rowBase = rowBase(row);
+
+	    for (int word = 0; word < wordsPerRow; word++) {
+		long cells = words[rowBase + word];
+		if (cells == 0) { continue; }
+
+		if (top < 0) { top = row; }
+		bottom = row;
+		left = Math.min(left, (word << 6) + Long.numberOfTrailingZeros(cells));
+		right = Math.max(right, (word << 6) + 63 - Long.numberOfLeadingZeros(cells));
+	    }
+	}
+
+	if (top < 0) { return Integer.MAX_VALUE; }
+	return Math.min(Math.min(top, left), Math.min(size - 1 - bottom, size - 1 - right));
+    }
+
+    public int population() {
+	int howManyAlive = 0;
+
+	for (int index = 0; index < words.length; index++) {
+	    howManyAlive += Long.bitCount(words[index]);
+	}
+
+	return howManyAlive;
+    }
+
+    // Neighbor count of a single cell, only needed for cells being drawn in grey & color modes
+    public int countNeighbors(int row, int col, boolean wrapAround) {
+	int howManyActiveNeighbors = 0;
+
+	for (int rowOffset = -1; rowOffset <= 1; rowOffset++) {
+	    for (int colOffset = -1; colOffset <= 1; colOffset++) {
+		if ((rowOffset == 0) && (colOffset == 0)) { continue; }
+
+		int neighborRow = row + rowOffset, neighborCol = col + colOffset;
+
+		if (wrapAround) {	// Wrap around to opposite grid edges
+		    neighborRow = (neighborRow + size) % size;
+		    neighborCol = (neighborCol + size) % size;
+		}
+		else if ((neighborRow < 0) || (neighborRow >= size) || (neighborCol < 0) || (neighborCol >= size)) {
+		    continue;
+		}
+
+		if (get(neighborRow, neighborCol)) { howManyActiveNeighbors++; }
+	    }
+	}
+
+	return howManyActiveNeighbors;
+    }
+
+    /* Copy a square block of cells from another grid into this one:
+     * 1. liveOnly = false: every cell of the block is copied, dead cells included
+     * 2. liveOnly = true: only live cells are copied, leaving everything else as it was
+     * Cells that would fall outside either grid are skipped.
+     */
+    public void copyBlock(BitGrid fromGrid, int fromRow, int fromCol, int toRow, int toCol, int blockSize, boolean liveOnly) {
+	int rowLimit = Math.min(blockSize, Math.min(fromGrid.size - fromRow, size - toRow));
+	int colLimit = Math.min(blockSize, Math.min(fromGrid.size - fromCol, size - toCol));
+
+	for (int currentRow = 0; currentRow < rowLimit; currentRow++) {
+	    for (int currentCol = 0; currentCol < colLimit; currentCol++) {
+		boolean alive = fromGrid.get(fromRow + currentRow, fromCol + currentCol);
+
+		if (alive || !liveOnly) { set(toRow + currentRow, toCol + currentCol, alive); }
+	    }
+	}
+    }
+
+    /* Fill this whole grid with the square of a board's cells starting at (fromRow, fromCol):
+     * cells beyond a grid's edges wrap around to the far side, or are dead without wrapping.
+     * Used to cut the visible part out of a board far bigger than the screen, with a margin for neighbor counts.
+     */
+    public void copyWindow(LifeBoard fromBoard, int fromRow, int fromCol, boolean wrapAround) {
+	for (int row = 0; row < size; row++) {
+	    int rowBase = rowBase(row);
+
+	    for (int word = 0; word < wordsPerRow; word++) {
+		words[rowBase + word] = fromBoard.cells(fromRow + row, fromCol + (word << 6), wrapAround);
+	    }
+	    words[rowBase + wordsPerRow - 1] &= lastWordMask;
+	}
+    }
+
+    public long cells(int row, int col, boolean wrapAround) {
+	int rowBase = rowBaseAt(row, wrapAround);
+	return (rowBase < 0) ? 0 : bitsAt(rowBase, col, wrapAround);
+    }
+
+    // First word of a row that may be off the grid: wrapped back on, or -1 without wrapping
+    private int rowBaseAt(int row, boolean wrapAround) {
+	if (wrapAround) { return rowBase(Math.floorMod(row, size)); }
+	return ((row < 0) || (row >= size)) ? -1 : rowBase(row);
+    }
+
+    // 64 cells of a row, from col on: cells off the grid wrap around or are dead, like those in cells
+    private long bitsAt(int rowBase, int col, boolean wrapAround) {
+	int word = col >> 6, shift = col & 63;
+
+	// Whole span inside the row's words: two words at most, the padding past the last column standing for dead cells
+	if ((col >= 0) && ((col + 64 <= size) || (!wrapAround && (col + 64 <= (wordsPerRow << 6))))) {
+	    long bits = words[rowBase + word] >>> shift;
+	    if (shift != 0) { bits |= words[rowBase + word + 1] << (64 - shift); }
+	    return bits;
+	}
+
+	long bits = 0;
+	for (int bit = 0; bit < 64; bit++) {
+	    int currentCol = col + bit;
+
+	    if (wrapAround) { currentCol = Math.floorMod(currentCol, size); }
+	    else if ((currentCol < 0) || (currentCol >= size)) { continue; }
+
+	    if ((words[rowBase + (currentCol >>> 6)] & (1L << currentCol)) != 0) { bits |= 1L << bit; }
+	}
+
+	return bits;
+    }
+
+    // Replace the contents of this grid with the generation that follows currentGrid, under the given rule
+    public void step(BitGrid currentGrid, boolean wrapAround, LifeRule rule) {
+	step(currentGrid, wrapAround, rule, null);
+    }
+
+    // Same, stepping only the tiles that can still change (activeTiles == null: step every tile)
+    public void step(BitGrid currentGrid, boolean wrapAround, LifeRule rule, ActiveTiles activeTiles) {
+	currentGrid.fillHalo(wrapAround);
+	stepRows(currentGrid, 0, size, wrapAround, rule, activeTiles);
+	currentGrid.clearHalo(wrapAround);
+	if (activeTiles != null) { activeTiles.nextGeneration(); }
+    }
+
+    /* Copy the opposite edges into the halo, so every cell sees its wrapped neighbors without any edge tests.
+     * Must be called on the current grid before stepRows, and undone with clearHalo once all rows are stepped.
+     * Without wrapping the empty halo already stands for the dead space beyond the edges.
+     */
+    public void fillHalo(boolean wrapAround) {
+	if (!wrapAround) { return; }
+
+	for (int row = 0; row < size; row++) {
+	    int rowBase = rowBase(row);
+
+	    // Last column goes to the top bit of the west halo word, first column just past the last column
+	    words[rowBase - 1] = ((words[rowBase + wordsPerRow - 1] >>> lastBit) & 1L) << 63;
+	    if (lastBit == 63) { words[rowBase + wordsPerRow] = words[rowBase] & 1L; }
+	    else { words[rowBase + wordsPerRow - 1] |= (words[rowBase] & 1L) << (lastBit + 1); }
+	}
+
+	// Whole rows, halo words included, so the corners wrap as well
+	System.arraycopy(words, rowBase(size - 1) - 1, words, 0, rowStride);
+	System.arraycopy(words, rowBase(0) - 1, words, rowBase(size) - 1, rowStride);
+    }
+
+    public void clearHalo(boolean wrapAround) {
+	if (!wrapAround) { return; }
+
+	Arrays.fill(words, 0, rowStride, 0L);
+	Arrays.fill(words, rowBase(size) - 1, words.length, 0L);
+
+	for (int row = 0; row < size; row++) {
+	    int rowBase = rowBase(row);
+
+	    words[rowBase - 1] = 0;
+	    words[rowBase + wordsPerRow - 1] &= lastWordMask;
+	    words[rowBase + wordsPerRow] = 0;
+	}
+    }
+
+    /* Compute rows firstRow (inclusive) to lastRow (exclusive) only; rows are independent of each other.
+     * With activeTiles, words in inactive tiles are skipped & changed words mark their tiles for the next generation.
+     */
+    public void stepRows(BitGrid currentGrid, int firstRow, int lastRow, boolean wrapAround, LifeRule rule, ActiveTiles activeTiles) {
+	stepRows(currentGrid, firstRow, lastRow, wrapAround, rule, activeTiles, null);
+    }
+
+    // Same, handing every word stepped to statistics as well (null: none gathered)
+    void stepRows(BitGrid currentGrid, int firstRow, int lastRow, boolean wrapAround, LifeRule rule, ActiveTiles activeTiles, GenerationStatistics statistics) {
+	for (int row = firstRow; row < lastRow; row++) {
+	    stepWords(currentGrid, row, 0, wordsPerRow, wrapAround, rule, activeTiles, statistics);
+	}
+    }
+
+    // Words firstWord (inclusive) to lastWord (exclusive) of a single row
+    void stepWords(BitGrid currentGrid, int row, int firstWord, int lastWord, boolean wrapAround, LifeRule rule, ActiveTiles activeTiles,
+	    GenerationStatistics statistics) {
+	long[] current = currentGrid.words;
+
+	// The halo rows & words make every neighbor a plain array read, edges included
+	int rowBase = rowBase(row);
+	int aboveBase = rowBase - rowStride;
+	int belowBase = rowBase + rowStride;
+
+	for (int word = firstWord; word < lastWord; word++) {
+	    if ((activeTiles != null) && !activeTiles.isActive(row, word)) { continue; }
+
+	    // Only the last word has padding bits, which may hold a wrapped copy of the first column
+	    long wordMask = (word == wordsPerRow - 1) ? lastWordMask : -1L;
+	    long alive = current[rowBase + word] & wordMask;
+	    long nextWord = nextWord(current, aboveBase + word, rowBase + word, belowBase + word, rule.terms) & wordMask;
+
+	    words[rowBase + word] = nextWord;
+
+	    if ((activeTiles != null) && (nextWord != alive)) { activeTiles.markChanged(row, word, wrapAround); }
+	    if (statistics != null) { statistics.countWord(row, word, alive, nextWord); }
+	}
+    }
+
+    // Next value of the word at middle, from the words above & below it & the words either side of all three: MappedGrid steps with it too
+    static long nextWord(long[] current, int above, int middle, int below, long[] terms) {
+	long upperLeft = (current[above] << 1) | (current[above - 1] >>> 63);
+	long upper = current[above];
+	long upperRight = (current[above] >>> 1) | (current[above + 1] << 63);
+	long left = (current[middle] << 1) | (current[middle - 1] >>> 63);
+	long right = (current[middle] >>> 1) | (current[middle + 1] << 63);
+	long lowerLeft = (current[below] << 1) | (current[below - 1] >>> 63);
+	long lower = current[below];
+	long lowerRight = (current[below] >>> 1) | (current[below + 1] << 63);
+
+	// Add up the 8 neighbor words with full & half adders into a 4 bit count per cell
+	long upperSum = upperLeft ^ upper ^ upperRight;
+	long upperCarry = (upperLeft & upper) | (upperRight & (upperLeft ^ upper));
+	long middleSum = left ^ right ^ lowerLeft;
+	long middleCarry = (left & right) | (lowerLeft & (left ^ right));
+	long lowerSum = lower ^ lowerRight;
+	long lowerCarry = lower & lowerRight;
+
+	long countBit0 = upperSum ^ middleSum ^ lowerSum;
+	long onesCarry = (upperSum & middleSum) | (lowerSum & (upperSum ^ middleSum));
+
+	long twosSum = upperCarry ^ middleCarry ^ lowerCarry;
+	long twosCarry = (upperCarry & middleCarry) | (lowerCarry & (upperCarry ^ middleCarry));
+	long countBit1 = twosSum ^ onesCarry;
+	long foursCarry = twosSum & onesCarry;
+
+	long countBit2 = twosCarry ^ foursCarry;
+	long countBit3 = twosCarry & foursCarry;
+
+	long alive = current[middle];
+	long nextWord = 0;
+
+	// One term per neighbor count that turns cells on, straight from the rule's transition table
+	for (int term = 0; term < terms.length; term += 6) {
+	    long matches = (countBit0 ^ terms[term]) & (countBit1 ^ terms[term + 1])
+		    & (countBit2 ^ terms[term + 2]) & (countBit3 ^ terms[term + 3]);
+
+	    nextWord |= matches & ((~alive & terms[term + 4]) | (alive & terms[term + 5]));
+	}
+
+	return nextWord;
+    }
+}
@@ -0,0 +1,97 @@
+package gameoflife;
+
+import java.util.Arrays;
+
+/* Hash map from chunk keys to chunks for ChunkedBoard, kept in two flat arrays:
+ * 1. Open addressing with linear probing, so there are no boxed Long keys or entry objects to allocate
+ * 2. Entries are never removed one at a time: ChunkedBoard builds a new generation into a cleared map
+ * 3. The arrays only ever grow, so once they're big enough for the live area, putting & clearing allocate nothing
+ * Walk the entries by slot: value(slot) is null for an empty slot.
+ */
+class ChunkMap {
+    private long[] keys;
+    private long[][] values;
+    private int size, mask;
+
+    ChunkMap() {
+	keys = new long[16];
+	values = new long[16][];
+	mask = 15;
+    }
+
+    int size() {
+	return size;
+    }
+
+    boolean isEmpty() {
+	return size == 0;
+    }
+
+    int capacity() {
+	return values.length;
+    }
+
+    long key(int slot) {
+	return keys[slot];
+    }
+
+    long[] value(int slot) {
+	return values[slot];
+    }
+
+    long[] get(long key) {
+	for (int slot = slot(key); values[slot] != null; slot = (slot + 1) & mask) {
+	    if (keys[slot] == key) { return values[slot]; }
+	}
+
+	return null;
+    }
+
+    boolean containsKey(long key) {
+	return get(key) != null;
+    }
+
+    // value must not be null
+    void put(long key, long[] value) {
+	int slot = slot(key);
+	for (; values[slot] != null; slot = (slot + 1) & mask) {
+	    if (keys[slot] == key) {
+		values[slot] = value;
+		return;
+	    }
+	}
+
+	keys[slot] = key;
+	values[slot] = value;
+	size++;
+
+	// At most half full keeps the probes short
+	if (size * 2 > values.length) { grow(); }
+    }
+
+    void clear() {
+	if (size == 0) { return; }
+
+	Arrays.fill(values, null);
+	size = 0;
+    }
+
+    private void grow() {
+	long[] oldKeys = keys;
+	long[][] oldValues = values;
+
+	keys = new long[oldKeys.length * 2];
+	values = new long[oldValues.length * 2][];
+	mask = values.length - 1;
+	size = 0;
+
+	for (int slot = 0; slot < oldValues.length; slot++) {
+	    if (oldValues[slot] != null) { put(oldKeys[slot], oldValues[slot]); }
+	}
+    }
+
+    // Chunk rows & columns are small, nearby numbers, so mix all of the key's bits into the slot
+    private int slot(long key) {
+	return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
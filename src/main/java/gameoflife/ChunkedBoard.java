@@ -0,0 +1,343 @@
+package gameoflife;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/* Unbounded board for the infinite plane, kept as 64 x 64 cell chunks in a hash map keyed by chunk coordinates:
+ * 1. A chunk is one long per row of 64 cells, bit n = column n of the chunk; rows & columns may be negative
+ * 2. Only chunks with live cells are kept: a step adds chunks where births can reach them and drops those that die out,
+ *    so memory follows the live area, not its bounding box
+ * 3. Each chunk is stepped by BitGrid's word stepping, laid out in a 64 x 64 BitGrid with its neighbors' edges in the halo
+ * Empty space away from every live cell is never stepped, so rules with births on 0 neighbors don't fill the plane.
+ */
+public class ChunkedBoard implements LifeBoard {
+    static final int chunkShift = 6, chunkSize = 1 << chunkShift;
+    private static final int chunkMask = chunkSize - 1;
+
+    private final ChunkMap chunks = new ChunkMap();
+
+    /* Pooled for stepping, which allocates nothing once they've grown to fit the live area:
+     * chunks dropped by the last step or copy, used again before new ones are allocated,
+     * and the missing neighbors already stepped this generation
+     */
+    private final ArrayList<long[]> spareChunks = new ArrayList<long[]>();
+    private final ChunkMap steppedNeighbors = new ChunkMap();
+    private static final long[] stepped = new long[0];
+
+    // Stepping one chunk at a time: the chunk & its halo, and its next generation
+    private final BitGrid chunkGrid = new BitGrid(chunkSize), nextChunkGrid = new BitGrid(chunkSize);
+
+    /* countBlocks looks only at chunks in use, as zoomed out views can span thousands of empty chunks:
+     * the columns of the chunks in each chunk row, sorted, built when first needed after a change,
+     * and the last chunk row counted, as countBlocks is called for each of its 64 rows in turn:
+     * its chunks across the counted columns, and the words (counted 64 cells at a time) that can hold live cells
+     */
+    private HashMap<Integer, int[]> chunkColumns;
+    private long[][] countedChunks;
+    private int[] countedWords;
+    private int countedChunkRow, countedCol, countedCount;
+
+    static long chunkKey(int chunkRow, int chunkCol) {
+	return ((long) chunkRow << 32) | (chunkCol & 0xFFFFFFFFL);
+    }
+
+    static int chunkRow(long key) {
+	return (int) (key >> 32);
+    }
+
+    static int chunkCol(long key) {
+	return (int) key;
+    }
+
+    // Chunks in use, each 64 x 64 cells
+    public int chunkCount() {
+	return chunks.size();
+    }
+
+    // Chunk holding a cell's chunk coordinates, or null when it holds no live cells
+    long[] chunk(int chunkRow, int chunkCol) {
+	return chunks.get(chunkKey(chunkRow, chunkCol));
+    }
+
+    ChunkMap chunks() {
+	return chunks;
+    }
+
+    // Chunk put in at the given chunk coordinates for the caller to fill in whole, when loading a saved plane
+    long[] putChunk(int chunkRow, int chunkCol) {
+	long[] chunk = newChunk();
+	chunks.put(chunkKey(chunkRow, chunkCol), chunk);
+	changed();
+	return chunk;
+    }
+
+    public boolean get(int row, int col) {
+	long[] chunk = chunk(row >> chunkShift, col >> chunkShift);
+	return (chunk != null) && ((chunk[row & chunkMask] & (1L << col)) != 0);
+    }
+
+    public void set(int row, int col, boolean alive) {
+	long key = chunkKey(row >> chunkShift, col >> chunkShift);
+	long[] chunk = chunks.get(key);
+
+	if (chunk == null) {
+	    if (!alive) { return; }
+
+	    chunk = newChunk();
+	    Arrays.fill(chunk, 0L);
+	    chunks.put(key, chunk);
+	}
+
+	if (alive) { chunk[row & chunkMask] |= (1L << col); }
+	else { chunk[row & chunkMask] &= ~(1L << col); }
+	changed();
+    }
+
+    public void clear() {
+	dropChunks();
+    }
+
+    private void changed() {
+	chunkColumns = null;
+	countedWords = null;
+    }
+
+    public long population() {
+	long howManyAlive = 0;
+
+	for (int slot = 0; slot < chunks.capacity(); slot++) {
+	    long[] chunk = chunks.value(slot);
+	    if (chunk == null) { continue; }
+
+	    for (long word : chunk) { howManyAlive += Long.bitCount(word); }
+	}
+
+	return howManyAlive;
+    }
+
+    // The plane has no edges, so there's never anything to wrap
+    public long cells(int row, int col, boolean wrapAround) {
+	int chunkRow = row >> chunkShift, chunkCol = col >> chunkShift, shift = col & chunkMask;
+
+	long bits = word(chunk(chunkRow, chunkCol), row);
+	if (shift != 0) { bits = (bits >>> shift) | (word(chunk(chunkRow, chunkCol + 1), row) << (64 - shift)); }
+	return bits;
+    }
+
+    private static long word(long[] chunk, int row) {
+	return (chunk == null) ? 0 : chunk[row & chunkMask];
+    }
+
+    // Same as the default, but only words next to chunks in use are counted, and each chunk is looked up once per chunk row
+    @Override
+    public void countBlocks(int row, int col, int count, int blockSize, int[] blockCounts) {
+	int chunkRow = row >> chunkShift;
+
+	if ((countedWords == null) || (countedChunkRow != chunkRow) || (countedCol != col) || (countedCount != count)) {
+	    countChunkRow(chunkRow, col, count);
+	}
+
+	int lastCol = col + count, blockShift = Integer.numberOfTrailingZeros(blockSize), shift = col & chunkMask;
+	long blockMask = (blockSize >= 64) ? -1L : (1L << blockSize) - 1;
+
+	for (int word : countedWords) {
+	    int currentCol = col + (word << chunkShift);
+
+	    long bits = word(countedChunks[word], row);
+	    if (shift != 0) { bits = (bits >>> shift) | (word(countedChunks[word + 1], row) << (64 - shift)); }
+	    if (lastCol - currentCol < 64) { bits &= (1L << (lastCol - currentCol)) - 1; }
+
+	    for (int block = (currentCol - col) >>> blockShift; bits != 0; block++) {
+		blockCounts[block] += Long.bitCount(bits & blockMask);
+		bits = (blockSize >= 64) ? 0 : bits >>> blockSize;
+	    }
+	}
+    }
+
+    // Word n of a counted row takes cells from chunk n, and from chunk n + 1 when col isn't on a chunk's edge
+    private void countChunkRow(int chunkRow, int col, int count) {
+	if (chunkColumns == null) {
+	    HashMap<Integer, ArrayList<Integer>> rowColumns = new HashMap<Integer, ArrayList<Integer>>();
+	    for (int slot = 0; slot < chunks.capacity(); slot++) {
+		if (chunks.value(slot) != null) { rowColumns.computeIfAbsent(chunkRow(chunks.key(slot)), newList()).add(chunkCol(chunks.key(slot))); }
+	    }
+
+	    chunkColumns = new HashMap<Integer, int[]>();
+	    for (Map.Entry<Integer, ArrayList<Integer>> entry : rowColumns.entrySet()) {
+		int[] columns = new int[entry.getValue().size()];
+		for (int index = 0; index < columns.length; index++) { columns[index] = entry.getValue().get(index); }
+		Arrays.sort(columns);
+		chunkColumns.put(entry.getKey(), columns);
+	    }
+	}
+
+	int firstChunkCol = col >> chunkShift, words = (count + chunkSize - 1) >> chunkShift;
+	if ((countedChunks == null) || (countedChunks.length != words + 1)) { countedChunks = new long[words + 1][]; }
+	else { Arrays.fill(countedChunks, null); }
+	ArrayList<Integer> wordList = new ArrayList<Integer>();
+
+	int[] columns = chunkColumns.get(chunkRow);
+	if (columns != null) {
+	    int first = Arrays.binarySearch(columns, firstChunkCol);
+	    for (int index = (first < 0) ? -first - 1 : first; (index < columns.length) && (columns[index] - firstChunkCol <= words); index++) {
+		int chunk = columns[index] - firstChunkCol;
+		countedChunks[chunk] = chunk(chunkRow, columns[index]);
+
+		if ((chunk > 0) && ((col & chunkMask) != 0) && (wordList.isEmpty() || (wordList.get(wordList.size() - 1) != chunk - 1))) {
+		    wordList.add(chunk - 1);
+		}
+		if (chunk < words) { wordList.add(chunk); }
+	    }
+	}
+
+	countedWords = new int[wordList.size()];
+	for (int index = 0; index < countedWords.length; index++) { countedWords[index] = wordList.get(index); }
+
+	countedChunkRow = chunkRow;
+	countedCol = col;
+	countedCount = count;
+    }
+
+    private static Function<Integer, ArrayList<Integer>> newList() {
+	return new Function<Integer, ArrayList<Integer>>() {
+	    public ArrayList<Integer> apply(Integer chunkRow) {
+		return new ArrayList<Integer>();
+	    }
+	};
+    }
+
+    // Whole block of the grid is stamped: the plane has room for all of it
+    public void copyBlock(BitGrid fromGrid, int fromRow, int fromCol, int toRow, int toCol, int blockSize, boolean liveOnly) {
+	int rowLimit = Math.min(blockSize, fromGrid.size() - fromRow);
+	int colLimit = Math.min(blockSize, fromGrid.size() - fromCol);
+
+	for (int currentRow = 0; currentRow < rowLimit; currentRow++) {
+	    for (int currentCol = 0; currentCol < colLimit; currentCol++) {
+		boolean alive = fromGrid.get(fromRow + currentRow, fromCol + currentCol);
+
+		if (alive || !liveOnly) { set(toRow + currentRow, toCol + currentCol, alive); }
+	    }
+	}
+    }
+
+    public ChunkedBoard copy() {
+	ChunkedBoard copyBoard = new ChunkedBoard();
+
+	copyBoard.copyFrom(this);
+	return copyBoard;
+    }
+
+    // Reuses spareBoard's map & chunks when it's another plane
+    public LifeBoard copy(LifeBoard spareBoard) {
+	if (!(spareBoard instanceof ChunkedBoard)) { return copy(); }
+
+	ChunkedBoard copyBoard = (ChunkedBoard) spareBoard;
+	copyBoard.copyFrom(this);
+	return copyBoard;
+    }
+
+    private void copyFrom(ChunkedBoard otherBoard) {
+	dropChunks();
+
+	for (int slot = 0; slot < otherBoard.chunks.capacity(); slot++) {
+	    long[] chunk = otherBoard.chunks.value(slot);
+	    if (chunk == null) { continue; }
+
+	    long[] copyChunk = newChunk();
+	    System.arraycopy(chunk, 0, copyChunk, 0, chunkSize);
+	    chunks.put(otherBoard.chunks.key(slot), copyChunk);
+	}
+    }
+
+    // Empty the board, keeping its chunks for the next step or copy to fill
+    private void dropChunks() {
+	for (int slot = 0; slot < chunks.capacity(); slot++) {
+	    if (chunks.value(slot) != null) { spareChunks.add(chunks.value(slot)); }
+	}
+
+	chunks.clear();
+	changed();
+    }
+
+    /* Replace this board with the generation that follows currentBoard (another ChunkedBoard), under the given rule:
+     * 1. Every chunk of the current board is stepped
+     * 2. So is each missing neighbor next to a live cell on the current chunk's edge, as only there can cells be born
+     * 3. Chunks that come out empty are not kept
+     */
+    public void step(ChunkedBoard currentBoard, LifeRule rule) {
+	dropChunks();
+	steppedNeighbors.clear();
+
+	ChunkMap currentChunks = currentBoard.chunks;
+	for (int slot = 0; slot < currentChunks.capacity(); slot++) {
+	    long[] chunk = currentChunks.value(slot);
+	    if (chunk == null) { continue; }
+
+	    int chunkRow = chunkRow(currentChunks.key(slot)), chunkCol = chunkCol(currentChunks.key(slot));
+	    stepChunk(currentBoard, chunkRow, chunkCol, rule);
+
+	    // Edges of the chunk: top & bottom rows, and the first & last columns of every row
+	    long firstColumn = 0, lastColumn = 0;
+	    for (long word : chunk) {
+		firstColumn |= word & 1L;
+		lastColumn |= word >>> 63;
+	    }
+
+	    for (int rowOffset = -1; rowOffset <= 1; rowOffset++) {
+		for (int colOffset = -1; colOffset <= 1; colOffset++) {
+		    long edge = (rowOffset < 0) ? chunk[0] : (rowOffset > 0) ? chunk[chunkMask] : -1L;
+		    if (colOffset < 0) { edge &= (rowOffset == 0) ? firstColumn : 1L; }
+		    else if (colOffset > 0) { edge &= (rowOffset == 0) ? lastColumn : (1L << 63); }
+
+		    long neighborKey = chunkKey(chunkRow + rowOffset, chunkCol + colOffset);
+		    if ((edge == 0) || currentChunks.containsKey(neighborKey) || steppedNeighbors.containsKey(neighborKey)) { continue; }
+
+		    steppedNeighbors.put(neighborKey, stepped);
+		    stepChunk(currentBoard, chunkRow + rowOffset, chunkCol + colOffset, rule);
+		}
+	    }
+	}
+    }
+
+    private void stepChunk(ChunkedBoard currentBoard, int chunkRow, int chunkCol, LifeRule rule) {
+	long[] words = chunkGrid.words();
+
+	// Rows -1 to 64 of the chunk, each with the words either side of it: the halo holds the 8 neighbors' edges
+	for (int rowOffset = -1; rowOffset <= 1; rowOffset++) {
+	    long[] west = currentBoard.chunk(chunkRow + rowOffset, chunkCol - 1);
+	    long[] middle = currentBoard.chunk(chunkRow + rowOffset, chunkCol);
+	    long[] east = currentBoard.chunk(chunkRow + rowOffset, chunkCol + 1);
+
+	    int firstRow = (rowOffset < 0) ? -1 : (rowOffset > 0) ? chunkSize : 0;
+	    int lastRow = (rowOffset == 0) ? chunkSize - 1 : firstRow;
+
+	    for (int row = firstRow; row <= lastRow; row++) {
+		int rowBase = chunkGrid.rowBase(row), chunkIndex = row & chunkMask;
+
+		words[rowBase - 1] = (west == null) ? 0 : west[chunkIndex];
+		words[rowBase] = (middle == null) ? 0 : middle[chunkIndex];
+		words[rowBase + 1] = (east == null) ? 0 : east[chunkIndex];
+	    }
+	}
+
+	nextChunkGrid.stepRows(chunkGrid, 0, chunkSize, false, rule, null);
+
+	long[] nextWords = nextChunkGrid.words();
+	long anyAlive = 0;
+	for (int row = 0; row < chunkSize; row++) { anyAlive |= nextWords[nextChunkGrid.rowBase(row)]; }
+	if (anyAlive == 0) { return; }
+
+	long[] nextChunk = newChunk();
+	for (int row = 0; row < chunkSize; row++) { nextChunk[row] = nextWords[nextChunkGrid.rowBase(row)]; }
+	chunks.put(chunkKey(chunkRow, chunkCol), nextChunk);
+    }
+
+    // Spare chunks still hold old cells: only for chunks that are about to be filled in whole, or cleared first
+    private long[] newChunk() {
+	if (spareChunks.isEmpty()) { return new long[chunkSize]; }
+	return spareChunks.remove(spareChunks.size() - 1);
+    }
+}
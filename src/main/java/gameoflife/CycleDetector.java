@@ -0,0 +1,132 @@
+package gameoflife;
+
+import java.util.Arrays;
+
+/* Notices when a BitGrid board has settled into a still life or a cycle, from a rolling hash of the board:
+ * 1. The hash is the XOR of a mixed value for every word, from its index & bits (Zobrist hashing, a word at a time),
+ *    so a word that changes is taken out & put back in with two XORs
+ * 2. After a step only the tiles ActiveTiles marked can have changed, so only their words are compared:
+ *    the cost follows the changed area, not the board size
+ * 3. Each generation's hash goes into a small table of hash -> generation; finding the same hash again means the board
+ *    is back to an earlier state & will repeat from there, with a period of the generations in between (1 = still life)
+ * The table is direct-mapped, so a slot may be taken over before a long cycle comes round again:
+ * it's then found on a later lap, & the first generation reported is the earliest one still in the table.
+ * 64-bit hashes make a false match between different boards vanishingly unlikely, but boards aren't compared to rule it out.
+ */
+class CycleDetector {
+    private static final int tableBits = 14;
+
+    private final long[] tableHashes = new long[1 << tableBits], tableGenerations = new long[1 << tableBits];
+    private long hash;
+    private boolean hashed = false;
+    private long period = 0, firstGeneration = -1;
+
+    CycleDetector() {
+	Arrays.fill(tableGenerations, -1L);
+    }
+
+    // Generations between repeats of the board, 1 for a still life, or 0 while none has been found
+    long period() {
+	return period;
+    }
+
+    // First generation seen of the states that repeat, or -1 while none has been found
+    long firstGeneration() {
+	return firstGeneration;
+    }
+
+    // Forget every generation seen, for a board or rules that have changed outside of stepping
+    void reset() {
+	Arrays.fill(tableGenerations, -1L);
+	hashed = false;
+	period = 0;
+	firstGeneration = -1;
+    }
+
+    // Before stepping & after anything but a step: carry on if the board is the same as after the last generation, otherwise start again
+    void sync(BitGrid board, long generation) {
+	long boardHash = hash(board);
+
+	if (!hashed || (boardHash != hash)) {
+	    reset();
+	    hash = boardHash;
+	    hashed = true;
+	}
+
+	seen(generation);
+    }
+
+    /* Take in a generation stepped from previousGrid into nextGrid, with the tiles marked as the step left them.
+     * Returns true only for the generation a repeat is first found at.
+     */
+    boolean update(BitGrid previousGrid, BitGrid nextGrid, ActiveTiles activeTiles, long generation) {
+	if (hashed) { hash = updatedHash(previousGrid, nextGrid, activeTiles); }
+	else { hash = hash(nextGrid); }
+	hashed = true;
+
+	return seen(generation);
+    }
+
+    // Look the hash up, & put it in the table if it's new
+    private boolean seen(long generation) {
+	int slot = (int) (hash >>> (64 - tableBits));
+	long seenGeneration = tableGenerations[slot];
+
+	if ((seenGeneration >= 0) && (tableHashes[slot] == hash) && (seenGeneration < generation)) {
+	    if (period != 0) { return false; }
+
+	    period = generation - seenGeneration;
+	    firstGeneration = seenGeneration;
+	    return true;
+	}
+
+	tableHashes[slot] = hash;
+	tableGenerations[slot] = generation;
+	return false;
+    }
+
+    private long updatedHash(BitGrid previousGrid, BitGrid nextGrid, ActiveTiles activeTiles) {
+	long[] previousWords = previousGrid.words(), nextWords = nextGrid.words();
+	int size = nextGrid.size(), wordsPerRow = nextGrid.wordsPerRow();
+	long updatedHash = hash;
+
+	for (int tileRow = 0; tileRow < size; tileRow += (1 << ActiveTiles.tileRowShift)) {
+	    if (!activeTiles.isBandActive(tileRow)) { continue; }
+
+	    int lastRow = Math.min(size, tileRow + (1 << ActiveTiles.tileRowShift));
+	    for (int word = 0; word < wordsPerRow; word++) {
+		if (!activeTiles.isActive(tileRow, word)) { continue; }
+
+		for (int row = tileRow; row < lastRow; row++) {
+		    int index = nextGrid.rowBase(row) + word;
+		    if (previousWords[index] != nextWords[index]) {
+			updatedHash ^= mix(index, previousWords[index]) ^ mix(index, nextWords[index]);
+		    }
+		}
+	    }
+	}
+
+	return updatedHash;
+    }
+
+    // Whole board, for when there's no earlier hash to update
+    private static long hash(BitGrid board) {
+	long[] words = board.words();
+	long boardHash = 0;
+
+	for (int row = 0; row < board.size(); row++) {
+	    int rowBase = board.rowBase(row);
+	    for (int index = rowBase; index < rowBase + board.wordsPerRow(); index++) { boardHash ^= mix(index, words[index]); }
+	}
+
+	return boardHash;
+    }
+
+    // A word's part of the hash: its bits & index mixed together (SplitMix64's finaliser), so no two words' parts line up
+    private static long mix(int index, long word) {
+	long mixed = word ^ (index * 0x9E3779B97F4A7C15L);
+	mixed = (mixed ^ (mixed >>> 30)) * 0xBF58476D1CE4E5B9L;
+	mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+	return mixed ^ (mixed >>> 31);
+    }
+}
@@ -0,0 +1,1969 @@
+package gameoflife;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GridLayout;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Toolkit;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.ItemEvent;
+import java.awt.event.ItemListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseMotionAdapter;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Hashtable;
+import java.util.function.Consumer;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import javax.swing.Action;
+import javax.swing.BorderFactory;
+import javax.swing.ButtonGroup;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JCheckBoxMenuItem;
+import javax.swing.JFileChooser;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JLayeredPane;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JRadioButton;
+import javax.swing.JSlider;
+import javax.swing.JTextArea;
+import javax.swing.JTextField;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.border.EtchedBorder;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+public class GameOfLife extends JPanel implements ItemListener {
+    // Serial Version UID needed to suppress warning:
+    // "The serializable class BWGameOfLife does not declare a static final serialVersionUID field of type long"
+    private static final long serialVersionUID = 1L;
+
+    /* Inner class that defines drawing modes:
+     * 1. Free hand drawing on main grid,
+     * 2. Stamping entire area from pattern grid to main grid
+     * 3. Stamping pattern only from pattern grid to main grid
+     * 4. Screen copy entire area from main grid to pattern grid
+     * 5. Screen copy pattern only from main grid to pattern grid
+     */
+    private static class drawingMode {
+	private enum drawingModes { freeHand, patternScreenStamp, patternOnlyStamp, screenFullCopy, screenPatternCopy };
+	private static drawingModes currentDrawingMode;
+
+	public drawingMode () {
+	    drawingMode.currentDrawingMode = drawingModes.freeHand;
+	}
+
+	public boolean isFreeHand() {
+	    if (drawingMode.currentDrawingMode == drawingModes.freeHand) { return true; }
+	    else { return false; }
+	}
+
+	public void setFreeHand() {
+	    drawingMode.currentDrawingMode = drawingModes.freeHand;
+	}
+
+	public boolean isScreenFullCopy() {
+	    if (drawingMode.currentDrawingMode == drawingModes.screenFullCopy) { return true; }
+	    else { return false; }
+	}
+
+	public void setScreenFullCopy() {
+	    drawingMode.currentDrawingMode = drawingModes.screenFullCopy;
+	}
+
+	public boolean isScreenPatternCopy() {
+	    if (drawingMode.currentDrawingMode == drawingModes.screenPatternCopy) { return true; }
+	    else { return false; }
+	}
+
+	public void setScreenPatternCopy() {
+	    drawingMode.currentDrawingMode = drawingModes.screenPatternCopy;
+	}
+
+	public boolean isPatternScreenStamp() {
+	    if (drawingMode.currentDrawingMode == drawingModes.patternScreenStamp) { return true; }
+	    else { return false; }
+	}
+
+	public void setPatternScreenStamp() {
+	    drawingMode.currentDrawingMode = drawingModes.patternScreenStamp;
+	}
+
+	public boolean isPatternOnlyStamp() {
+	    if (drawingMode.currentDrawingMode == drawingModes.patternOnlyStamp) { return true; }
+	    else { return false; }
+	}
+
+	public void setPatternOnlyStamp() {
+	    drawingMode.currentDrawingMode = drawingModes.patternOnlyStamp;
+	}
+    }
+
+    /* Inner class that defines display modes:
+     * 1. Black & white
+     * 2. Grey scale (9 levels, to match the number of neighboring cells)
+     * 3. Color scale (black, brown, red, orange, yellow, green, blue purple, white)
+     * Each mode has an ARGB palette indexed by cell value (0 = off, 1 to 8 = on), built once & shared by all painting.
+     * A palette is never changed once built: loading a user palette swaps in a new array.
+     */
+    private static class displayMode {
+	private enum displayModes { blackWhite, greyScale, colorScale };
+	private static displayModes currentDisplayMode;
+
+	private static final int[] blackWhitePalette = { 0xFF000000, 0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF,
+		0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF };
+	private static final int[] greyScalePalette = greyShades();
+	private static final int[] defaultColorPalette = { Color.BLACK.getRGB(), Color.WHITE.getRGB(), Color.RED.getRGB(),
+		Color.ORANGE.getRGB(), Color.YELLOW.getRGB(), Color.GREEN.getRGB(), Color.BLUE.getRGB(),
+		0xFF660099,	// Purple
+		0xFF663300 };	// Brown
+	private static volatile int[] colorScalePalette = defaultColorPalette;
+
+	// Same Color objects for the palette entries, for the few places that still draw a single cell
+	private static volatile Color[] blackWhiteColors = colors(blackWhitePalette), greyScaleColors = colors(greyScalePalette),
+		colorScaleColors = colors(colorScalePalette);
+
+	public displayMode () {
+	    displayMode.currentDisplayMode = displayModes.blackWhite;
+	}
+
+	public boolean isBlackWhite() {
+	    if (displayMode.currentDisplayMode == displayModes.blackWhite) { return true; }
+	    else { return false; }
+	}
+
+	public void setBlackWhite() {
+	    displayMode.currentDisplayMode = displayModes.blackWhite;
+	}
+
+	public boolean isGreyScale() {
+	    if (displayMode.currentDisplayMode == displayModes.greyScale) { return true; }
+	    else { return false; }
+	}
+
+	public void setGreyScale() {
+	    displayMode.currentDisplayMode = displayModes.greyScale;
+	}
+
+	public boolean isColorScale() {
+	    if (displayMode.currentDisplayMode == displayModes.colorScale) { return true; }
+	    else { return false; }
+	}
+
+	public void setColorScale() {
+	    displayMode.currentDisplayMode = displayModes.colorScale;
+	}
+
+	// As SavedGame numbers them
+	public int savedMode() {
+	    if (isBlackWhite()) { return SavedGame.blackWhite; }
+	    else if (isGreyScale()) { return SavedGame.greyScale; }
+	    else { return SavedGame.colorScale; }
+	}
+
+	public int[] palette() {
+	    if (isBlackWhite()) { return blackWhitePalette; }
+	    else if (isGreyScale()) { return greyScalePalette; }
+	    else { return colorScalePalette; }
+	}
+
+	public Color cellColor(int cellValue) {
+	    if (isBlackWhite()) { return blackWhiteColors[cellValue]; }
+	    else if (isGreyScale()) { return greyScaleColors[cellValue]; }
+	    else { return colorScaleColors[cellValue]; }
+	}
+
+	/* Replace the color scale palette with one read from a file:
+	 * 9 colors as hex RRGGBB (a leading '#' is allowed), one per line, for cell values 0 (off) through 8.
+	 * Lines starting with '!' are comments, as in pattern files.
+	 */
+	public void loadColorPalette(Path paletteFile) throws IOException {
+	    int[] palette = new int[9];
+	    int howManyColors = 0;
+
+	    for (String line : Files.readAllLines(paletteFile, StandardCharsets.UTF_8)) {
+		line = line.trim();
+		if (line.isEmpty() || line.startsWith("!")) { continue; }
+		if (howManyColors == palette.length) { throw new IOException("More than 9 colors in " + paletteFile); }
+
+		if (line.startsWith("#")) { line = line.substring(1); }
+		try {
+		    if (line.length() != 6) { throw new NumberFormatException(); }
+		    palette[howManyColors++] = 0xFF000000 | Integer.parseInt(line, 16);
+		}
+		catch (NumberFormatException nfe) {
+		    throw new IOException("Not a RRGGBB color: " + line);
+		}
+	    }
+
+	    if (howManyColors < palette.length) { throw new IOException("Need 9 colors, found " + howManyColors + " in " + paletteFile); }
+
+	    colorScaleColors = colors(palette);
+	    colorScalePalette = palette;
+	}
+
+	// Grey shades: 255 / cell value, brightened by half when that gets too dark
+	private static int[] greyShades() {
+	    int[] palette = new int[9];
+	    palette[0] = 0xFF000000;
+
+	    for (int cellValue = 1; cellValue <= 8; cellValue++) {
+		int greyShade = 255 / cellValue;
+		if (greyShade < 170) { greyShade *= 1.5; }
+		palette[cellValue] = 0xFF000000 | (greyShade << 16) | (greyShade << 8) | greyShade;
+	    }
+
+	    return palette;
+	}
+
+	private static Color[] colors(int[] palette) {
+	    Color[] colors = new Color[palette.length];
+	    for (int cellValue = 0; cellValue < palette.length; cellValue++) { colors[cellValue] = new Color(palette[cellValue]); }
+	    return colors;
+	}
+    }
+
+    // Window sections
+    private static JFrame gridFrame;
+    private static JPanel gridPanel, patternPanel, gridToolPanel, rulePanel;
+
+    // Window components
+    private static JCheckBoxMenuItem[] cbmi;
+    private static JTextArea rowValue, colValue, counterValue, statisticsValue;
+    private static JLabel cycleLabel;
+    private static long shownCyclePeriod = 0, shownCycleFirstGeneration = -1;
+
+    // Metrics overlay in the board's top left corner, redrawn a few times a second while it's shown
+    private static final Rectangle metricsArea = new Rectangle(4, 4, 270, 104);
+    private static final Font metricsFont = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+    private static final long metricsRefreshNanos = 250_000_000L;
+    private static long metricsShownAt = 0;
+
+    // Counter panel numbers, set no more often than people can read them & only when they've changed
+    private static final long statisticsRefreshNanos = 100_000_000L;
+    private static long statisticsShownAt = 0, shownGeneration = -1, shownPopulation = -2, shownRate = -1;
+    // Population over the last generations recorded, drawn from values copied out of GenerationStatistics' ring
+    private static JPanel sparkline;
+    private static final long[] sparklineValues = new long[200];
+    private static long sparklineRecords = -1;
+    private static JCheckBox recordBox;
+    private static StatisticsWriter statisticsWriter;
+    private static boolean recordStatistics = false;
+    private static JButton startStopButton;
+    private static Action startStop, step, clear;
+    private static JLabel patternGridLabel;
+
+    // Controls a loaded game's settings are shown on: wildcard boxes & display mode buttons indexed as in SavedGame
+    private static JCheckBox wrapBox, infiniteBox;
+    private static JSlider minimumOnSlider, maximumOnSlider;
+    private static JButton minMaxButton;
+    private static JCheckBox[] wildcardOnBoxes, wildcardOffBoxes;
+    private static JRadioButton[] displayModeButtons;
+
+    // Scrubber over the simulation's history: set from each snapshot, with showingHistory set so that isn't taken as a seek
+    private static JSlider historySlider;
+    private static boolean showingHistory = false;
+
+    // Grid parameters
+    private static BitGrid patternGrid;
+    private static Integer gridX, gridY, startX, startY, endX, endY, pGridX, pGridY, pStartX, pStartY, pEndX, pEndY;
+    // Board size is set at startup (-Dgameoflife.boardSize=16384) & doesn't depend on the screen: the view shows part of it
+    private static Integer screenSize = 720, gridSize = Integer.getInteger("gameoflife.boardSize", 360);
+    private static Integer rectangleSize = 2;
+    private static Integer patternSize = (screenSize / 3) + 1, patternGridSize = (screenSize / rectangleSize / 3);
+    private static Integer minimumOnMaximumOff = 2, maximumOnMinimumOff = 3;
+    private static boolean[] wildcardsOn = new boolean[9];	// Use 9 values in order to access elements by actual value
+    private static boolean[] wildcardsOff = new boolean[9];	// 9 elements = 0 through 8; ignore 0, use only 1 through 8
+
+    // Timing parameters: the simulation runs on its own thread, the timer only repaints at display rate
+    private static LifeSimulation simulation;
+    private static LifeSimulation.snapshot paintedSnapshot;
+    private static Timer timer;
+    private static Integer refreshTime = 16;
+    private static Integer delayTime = 50;
+    private static Integer cpuCount = Runtime.getRuntime().availableProcessors();
+    private static ParallelStepper stepper = new ParallelStepper(cpuCount);
+
+    // Cached images for painting, one per grid shown
+    private static GridRenderer boardRenderer = new GridRenderer(), patternRenderer = new GridRenderer();
+    // What the board image was last rendered with
+    private static int[] renderedPalette;
+    private static boolean renderedShaded, renderedWrapAround;
+    private static Viewport renderedView;
+
+    // Panel the board is painted on, and the selection outline currently drawn on it (null = none)
+    private static GameOfLife lifePanel;
+    private static Rectangle selectionArea;
+    // Where the board panel sits on this panel: only changes when the board panel is moved or resized
+    private static Point boardOrigin = new Point();
+
+    // Part of the board shown: replaced whole on every zoom or pan, along with where a pan started (right mouse button)
+    private static Viewport boardView = new Viewport(gridSize, screenSize, rectangleSize);
+    private static Viewport panStartView;
+    private static Integer panStartX, panStartY;
+
+    // Settings
+    private static Boolean running = false, dragging = false, maximumSpeed = false, wrapAround = false, showGrid = false,
+	    		   wildcardsOnly = false, patternOnly = false, stopOnCycle = true, showMetrics = false;
+    private static drawingMode drawingModeCurrently = new drawingMode();
+    private static displayMode displayModeCurrently = new displayMode();
+
+	public GameOfLife() {
+	    super(new BorderLayout());
+	    lifePanel = this;
+	    resetGrids();
+
+	    // Display grid setup
+            gridPanel = new JPanel();
+            gridPanel.setPreferredSize(new Dimension(screenSize, screenSize));
+            gridPanel.setSize(screenSize, screenSize);
+            gridPanel.setBounds(0, 0, screenSize, screenSize);
+            gridPanel.setBorder(BorderFactory.createEtchedBorder(EtchedBorder.RAISED));
+
+            gridPanel.addMouseListener(new MouseAdapter() {
+        	public void mouseExited(MouseEvent msvnt) {
+        	    moveSelection(null);
+        	}
+
+        	public void mousePressed(MouseEvent msvnt) {
+        	    // The right mouse button drags the board around under the view
+        	    panStartView = boardView;
+        	    panStartX = msvnt.getX(); panStartY = msvnt.getY();
+        	}
+
+        	public void mouseClicked(MouseEvent msvnt) {
+        	    if (SwingUtilities.isRightMouseButton(msvnt)) { return; }
+
+        	    try {
+	                startX = msvnt.getX(); startY = msvnt.getY();
+
+			// Process only those clicks that occur on the visible cells
+			if (!boardView.shows(startX, startY)) { return; }
+
+			// Board cell under the pointer, however far the view is zoomed or panned
+			gridX = boardView.rowAt(startX); gridY = boardView.colAt(startY);
+
+	                if (drawingModeCurrently.isFreeHand()) {
+				// The board belongs to the simulation thread: the change shows up with its next snapshot
+				toggleCell(gridX, gridY);
+	                }
+	                // Only need to handle alternate drawing modes here
+	                else if (drawingModeCurrently.isPatternScreenStamp()) {
+	                	stampFullGrid(gridX, gridY);
+	                }
+	                else if (drawingModeCurrently.isPatternOnlyStamp()) {
+	                	stampGrid(gridX, gridY);
+	                }
+	                else if (drawingModeCurrently.isScreenFullCopy()) {
+	                	copyFullGrid(gridX, gridY);
+	                }
+	                else if (drawingModeCurrently.isScreenPatternCopy()) {
+	                	copyGrid(gridX, gridY);
+	                }
+        	    }
+        	    catch (ArrayIndexOutOfBoundsException aioobe) {
+        		// Ignore any clicks that occur outside the panel boundaries
+        	    }
+        	}
+            });
+
+            gridPanel.addMouseMotionListener(new MouseMotionAdapter() {
+        	public void mouseMoved(MouseEvent msvnt) {
+        	    int startX = msvnt.getX(); int startY = msvnt.getY();
+        	    // Board cell under the pointer: Row counts down the screen & Col across it, as before
+        	    showPointerCell(startX, startY);
+
+        	    // Update select rectangle when game is not active
+        	    if (!drawingModeCurrently.isFreeHand()) {
+        	    //if ((drawingModeCurrently.isPatternScreenStamp()) || (drawingModeCurrently.isScreenFullCopy())
+        	    //|| (drawingModeCurrently.isPatternOnlyStamp()) || (drawingModeCurrently.isScreenPatternCopy())) {
+                	moveSelection(pointerSelection(startX, startY));
+        	    }
+        	}
+
+        	public void mouseDragged(MouseEvent msvnt) {
+        	    try {
+	                startX = msvnt.getX(); startY = msvnt.getY();
+
+	                // Panning: always from where the drag started, so rounding to whole cells never adds up
+	                if (SwingUtilities.isRightMouseButton(msvnt)) {
+	                	showView(panStartView.pannedBy(startX - panStartX, startY - panStartY));
+	                	return;
+	                }
+
+                	showPointerCell(startX, startY);
+
+	                // Allow drawing only when style is free hand:
+	                // No need to handle alternate drawing modes when dragging mouse
+	                if (drawingModeCurrently.isFreeHand()) {
+				// Process only those drags that occur on the visible cells
+		                if (boardView.shows(startX, startY)) {
+					// Board cell under the pointer, however far the view is zoomed or panned
+					toggleCell(boardView.rowAt(startX), boardView.colAt(startY));
+	                	}
+		            }
+        	    }
+	            catch (ArrayIndexOutOfBoundsException aioobe) {
+	            	// Ignore any clicks that occur outside the panel boundaries
+	            }
+	    	}
+            });
+
+            // Wheel up zooms in, wheel down zooms out, around the cell under the pointer
+            gridPanel.addMouseWheelListener(new MouseWheelListener() {
+        	public void mouseWheelMoved(MouseWheelEvent mswhlvnt) {
+        	    if (mswhlvnt.getWheelRotation() < 0) { showView(boardView.zoomedIn(mswhlvnt.getX(), mswhlvnt.getY())); }
+        	    else if (mswhlvnt.getWheelRotation() > 0) { showView(boardView.zoomedOut(mswhlvnt.getX(), mswhlvnt.getY())); }
+        	}
+            });
+
+            gridPanel.addComponentListener(new ComponentAdapter() {
+        	public void componentMoved(ComponentEvent cmpnntvnt) {
+        	    boardOrigin = gridPanel.getLocation();
+        	}
+
+        	public void componentResized(ComponentEvent cmpnntvnt) {
+        	    boardOrigin = gridPanel.getLocation();
+        	}
+            });
+
+            add(gridPanel, BorderLayout.CENTER);
+
+            // Pattern grid & controls: Need inner & outer panels in order to properly position everything
+            JPanel outerSidePanel = new JPanel();
+            outerSidePanel.setLayout(new BorderLayout());
+            outerSidePanel.setBorder(BorderFactory.createEtchedBorder(EtchedBorder.RAISED));
+
+            JPanel innerSidePanel = new JPanel();
+            innerSidePanel.setLayout(new BorderLayout());
+
+            patternGridLabel = new JLabel("Pattern Grid", SwingConstants.CENTER);
+            innerSidePanel.add(patternGridLabel, BorderLayout.NORTH);
+
+            patternPanel = new JPanel();
+            patternPanel.setPreferredSize(new Dimension(patternSize, patternSize));
+            patternPanel.setSize(patternSize, patternSize);
+            // Compensate for height of label above grid
+            patternPanel.setBounds(0, patternGridLabel.getHeight(), patternGridSize * rectangleSize, patternGridSize * rectangleSize);
+            patternPanel.setBorder(BorderFactory.createEtchedBorder(EtchedBorder.RAISED));
+            patternPanel.setBackground(Color.BLACK);
+            patternPanel.setOpaque(true);
+            innerSidePanel.add(patternPanel, BorderLayout.CENTER);
+
+            patternPanel.addMouseListener(new MouseAdapter() {
+        	public void mouseClicked(MouseEvent msvnt) {
+        	    Graphics g = getGraphics();
+        	    Graphics2D g2d = (Graphics2D) g;
+        	    int pxMod = 0, pyMod = 0;
+
+        	    try {
+        		pStartX = msvnt.getX(); pStartY = msvnt.getY();
+
+        		pxMod = pStartX % rectangleSize; pyMod = pStartY % rectangleSize;
+        		if ((pxMod) != 0) { pStartX = pStartX - pxMod; }
+        		if ((pyMod) != 0) { pStartY = pStartY - pyMod; }
+
+        		// Allow for mapping of 1 grid cell to given # of screen pixels
+        		pGridX = pStartX / rectangleSize; pGridY = pStartY / rectangleSize;
+
+        		// Process only those clicks that occur inside the grid limits
+        		if (pGridX < patternGridSize && pGridY < patternGridSize) {
+        		    reverseCell(patternGrid, pGridX, pGridY);
+
+				// Same color the pattern grid is painted with
+				g2d.setColor(displayModeCurrently.cellColor(cellValue(patternGrid, pGridX, pGridY)));
+
+        		    // Limit drawing height to area between labels & controls and width to area between main.java grid and window edge
+        		    g2d.fillRect(pStartX + gridPanel.getWidth() + 2, pStartY + patternGridLabel.getHeight() + 2, rectangleSize, rectangleSize);
+                	}
+        	    }
+        	    catch (ArrayIndexOutOfBoundsException aioobe) {
+        		// Ignore any clicks that occur outside the panel boundaries
+        	    }
+        	}
+            });
+
+            patternPanel.addMouseMotionListener(new MouseMotionAdapter() {
+        	public void mouseDragged(MouseEvent msvnt) {
+        	    Graphics g = getGraphics();
+        	    Graphics2D g2d = (Graphics2D) g;
+        	    int pxMod = 0, pyMod = 0;
+
+        	    try {
+            		pStartX = msvnt.getX(); pStartY = msvnt.getY();
+
+            		pxMod = pStartX % rectangleSize; pyMod = pStartY % rectangleSize;
+	                if ((pxMod) != 0) { pStartX = pStartX - pxMod; }
+	                if ((pyMod) != 0) { pStartY = pStartY - pyMod; }
+
+			// Allow for mapping of 1 grid cell to given # of screen pixels
+                	pGridX = pStartX / rectangleSize; pGridY = pStartY / rectangleSize;
+
+			// Process only those clicks that occur inside the grid limits
+	                if (pGridX < patternGridSize && pGridY < patternGridSize) {
+	                    reverseCell(patternGrid, pGridX, pGridY);
+
+				// Same color the pattern grid is painted with
+				g2d.setColor(displayModeCurrently.cellColor(cellValue(patternGrid, pGridX, pGridY)));
+
+	                    // Limit drawing height to area between labels & controls and width to area between main.java grid and window edge
+	                    g2d.fillRect(pStartX + gridPanel.getWidth() + 2, pStartY + patternGridLabel.getHeight() + 2, rectangleSize, rectangleSize);
+
+	                    if (dragging) { patternPanel.repaint(); }
+	                }
+	            }
+	            catch (ArrayIndexOutOfBoundsException aioobe) {
+	            	// Ignore any clicks that occur outside the panel boundaries
+	            }
+	    	}
+            });
+
+            innerSidePanel.add(patternPanel, BorderLayout.CENTER);
+
+            JPanel clearButtonPanel = new JPanel();
+            JButton clearButton = new JButton("Clear");
+            clearButton.addActionListener(new ActionListener() {
+        	@Override
+        	public void actionPerformed(ActionEvent e) {
+        	    patternPanel.removeAll();
+        	    initializeGrid(patternGrid);
+        	    repaintPatternGrid();
+        	}
+            });
+            clearButtonPanel.add(clearButton, BorderLayout.CENTER);
+
+            // RLE, plaintext & Life 1.06 pattern files, into the pattern grid or straight onto the board; see PatternFile
+            JButton importButton = new JButton("Import");
+            importButton.setToolTipText("Pattern file into the pattern grid, centred: cells that don't fit are left off");
+            importButton.addActionListener(new ActionListener() {
+        	@Override
+        	public void actionPerformed(ActionEvent e) {
+        	    PatternFile pattern = choosePattern();
+        	    if (pattern == null) { return; }
+
+        	    int patternGridCells = patternGrid.size();
+        	    initializeGrid(patternGrid);
+        	    pattern.stamp(patternGrid, (patternGridCells - pattern.rows()) / 2, (patternGridCells - pattern.cols()) / 2, patternGridCells);
+        	    repaintPatternGrid();
+        	}
+            });
+            clearButtonPanel.add(importButton);
+
+            JButton importBoardButton = new JButton("Import to Board");
+            importBoardButton.setToolTipText("Pattern file onto the board, centred in the view, over the cells already there");
+            importBoardButton.addActionListener(new ActionListener() {
+        	@Override
+        	public void actionPerformed(ActionEvent e) {
+        	    final PatternFile pattern = choosePattern();
+        	    if (pattern == null) { return; }
+
+        	    final int toRow = boardView.originRow() + ((boardView.visibleCells() - pattern.rows()) / 2);
+        	    final int toCol = boardView.originCol() + ((boardView.visibleCells() - pattern.cols()) / 2);
+        	    final int boardSize = boardView.boardSize();
+        	    simulation.edit(new Consumer<LifeBoard>() {
+        		public void accept(LifeBoard board) {
+        		    pattern.stamp(board, toRow, toCol, boardSize);
+        		}
+        	    });
+        	}
+            });
+            clearButtonPanel.add(importBoardButton);
+
+            JButton exportButton = new JButton("Export");
+            exportButton.setToolTipText("Pattern grid to a .rle, .lif or .cells file, with the current rules");
+            exportButton.addActionListener(new ActionListener() {
+        	@Override
+        	public void actionPerformed(ActionEvent e) {
+        	    JFileChooser patternChooser = new JFileChooser();
+        	    if (patternChooser.showSaveDialog(gridFrame) != JFileChooser.APPROVE_OPTION) { return; }
+
+        	    try {
+        		PatternFile.write(patternChooser.getSelectedFile().toPath(), patternGrid, 0, 0, patternGrid.size(), currentRule());
+        	    }
+        	    catch (IOException ioe) {
+        		JOptionPane.showMessageDialog(gridFrame, ioe.getMessage(), "Export", JOptionPane.ERROR_MESSAGE);
+        	    }
+        	}
+            });
+            clearButtonPanel.add(exportButton);
+            innerSidePanel.add(clearButtonPanel, BorderLayout.SOUTH);
+            outerSidePanel.add(innerSidePanel, BorderLayout.NORTH);
+
+            JPanel outerButtonPanel = new JPanel();
+            JPanel innerButtonPanel = new JPanel();
+            innerButtonPanel.setLayout(new GridLayout(0, 1));
+
+            JLabel drawingStyleLabel = new JLabel("Drawing Mode", SwingConstants.CENTER);
+            drawingStyleLabel.setBorder(BorderFactory.createEtchedBorder(EtchedBorder.RAISED));
+            innerButtonPanel.add(drawingStyleLabel);
+
+            // Drawing Mode Buttons
+            ButtonGroup drawingStyleButtons = new ButtonGroup();
+            JRadioButton freeHand = new JRadioButton("Freehand in main.java Grid");
+            freeHand.setSelected(true);
+            freeHand.addActionListener(new ActionListener() {
+        	@Override
+        	public void actionPerformed(ActionEvent e) {
+        	    drawingModeCurrently.setFreeHand();
+        	}
+            });
+            drawingStyleButtons.add(freeHand);
+            innerButtonPanel.add(freeHand);
+
+            JRadioButton stampFull = new JRadioButton("Stamp Pattern Grid +BG > main.java Grid");
+            stampFull.addActionListener(new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+            	drawingModeCurrently.setPatternScreenStamp();
+                }
+            });
+            drawingStyleButtons.add(stampFull);
+            innerButtonPanel.add(stampFull);
+
+            JRadioButton stampDrawing = new JRadioButton("Stamp Pattern > main.java Grid");
+            stampDrawing.addActionListener(new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+            	drawingModeCurrently.setPatternOnlyStamp();
+                }
+            });
+            drawingStyleButtons.add(stampDrawing);
+            innerButtonPanel.add(stampDrawing);
+
+            JRadioButton copyFull = new JRadioButton("Copy main.java Grid +BG > Pattern");
+            copyFull.addActionListener(new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+            	drawingModeCurrently.setScreenFullCopy();
+                }
+            });
+            drawingStyleButtons.add(copyFull);
+            innerButtonPanel.add(copyFull);
+
+            JRadioButton copyDrawing = new JRadioButton("Copy main.java Grid > Pattern");
+            copyDrawing.addActionListener(new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+            	drawingModeCurrently.setScreenPatternCopy();
+                }
+            });
+            drawingStyleButtons.add(copyDrawing);
+            innerButtonPanel.add(copyDrawing);
+
+            JLabel displayStyleLabel = new JLabel("Display Mode", SwingConstants.CENTER);
+            displayStyleLabel.setBorder(BorderFactory.createEtchedBorder(EtchedBorder.RAISED));
+            innerButtonPanel.add(displayStyleLabel);
+
+            // Display Mode Buttons
+            ButtonGroup displayStyleButtons = new ButtonGroup();
+            JRadioButton blackAndWhite = new JRadioButton("Black and White");
+            blackAndWhite.setSelected(true);
+            blackAndWhite.addActionListener(new ActionListener() {
+        	@Override
+        	public void actionPerformed(ActionEvent e) {
+        	    displayModeCurrently.setBlackWhite();
+        	    rulesChanged();
+        	    gridFrame.repaint();
+        	}
+            });
+            displayStyleButtons.add(blackAndWhite);
+            innerButtonPanel.add(blackAndWhite);
+
+            JRadioButton greyScaling = new JRadioButton("Grey Scale");
+            greyScaling.addActionListener(new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    displayModeCurrently.setGreyScale();
+                    rulesChanged();
+        	    gridFrame.repaint();
+                }
+            });
+            displayStyleButtons.add(greyScaling);
+            innerButtonPanel.add(greyScaling);
+
+            JRadioButton colorScaling = new JRadioButton("Color Scale");
+            colorScaling.addActionListener(new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    displayModeCurrently.setColorScale();
+                    rulesChanged();
+        	    gridFrame.repaint();
+                }
+            });
+            displayStyleButtons.add(colorScaling);
+            innerButtonPanel.add(colorScaling);
+            displayModeButtons = new JRadioButton[] { blackAndWhite, greyScaling, colorScaling };
+
+            // User palette for color scale mode, see displayMode.loadColorPalette for the file format
+            JButton loadPalette = new JButton("Load Palette");
+            loadPalette.addActionListener(new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    JFileChooser paletteChooser = new JFileChooser();
+                    if (paletteChooser.showOpenDialog(gridFrame) != JFileChooser.APPROVE_OPTION) { return; }
+
+                    try {
+                	displayModeCurrently.loadColorPalette(paletteChooser.getSelectedFile().toPath());
+                	colorScaling.doClick();
+                    }
+                    catch (IOException ioe) {
+                	JOptionPane.showMessageDialog(gridFrame, ioe.getMessage(), "Load Palette", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            });
+            innerButtonPanel.add(loadPalette);
+
+            // Need filler panel to ensure that pattern panel stays at top of window
+            JPanel fillerPanel = new JPanel();
+            innerButtonPanel.add(fillerPanel);
+            outerButtonPanel.add(innerButtonPanel);
+            outerSidePanel.add(outerButtonPanel, BorderLayout.CENTER);
+
+            JPanel counterPanel = new JPanel();
+            counterPanel.setLayout(new BorderLayout());
+            counterPanel.setBorder(BorderFactory.createEtchedBorder(EtchedBorder.RAISED));
+            JLabel counterLabel = new JLabel("Generations", JLabel.CENTER);
+            counterPanel.add(counterLabel, BorderLayout.NORTH);
+            counterValue = new JTextArea(1, 6);
+            counterValue.setBorder(BorderFactory.createLineBorder(Color.BLACK, 1, false));
+            counterValue.setEditable(false);
+            counterValue.setText("0");
+            // Still life or cycle the board has settled into, if any
+            cycleLabel = new JLabel(" ", JLabel.CENTER);
+            counterPanel.add(cycleLabel, BorderLayout.CENTER);
+            // Population & generations per second, from the simulation's metrics
+            JPanel statisticsPanel = new JPanel();
+            statisticsPanel.setLayout(new BorderLayout());
+            statisticsPanel.add(counterValue, BorderLayout.NORTH);
+            statisticsValue = new JTextArea(1, 6);
+            statisticsValue.setEditable(false);
+            statisticsValue.setOpaque(false);
+            statisticsPanel.add(statisticsValue, BorderLayout.SOUTH);
+            sparkline = new JPanel() {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected void paintComponent(Graphics g) {
+		    super.paintComponent(g);
+		    if (recordStatistics) { paintSparkline(g, getWidth(), getHeight()); }
+		}
+            };
+            sparkline.setPreferredSize(new Dimension(0, 32));
+            sparkline.setToolTipText("Population over the last " + sparklineValues.length + " generations recorded");
+            statisticsPanel.add(sparkline, BorderLayout.CENTER);
+            counterPanel.add(statisticsPanel, BorderLayout.SOUTH);
+            outerSidePanel.add(counterPanel, BorderLayout.SOUTH);
+
+            add(outerSidePanel, BorderLayout.EAST);
+	}
+
+	public static JPanel createToolPanel() {
+	    gridToolPanel = new JPanel();
+
+	    JPanel buttonPanel = new JPanel();
+
+            JLabel rg = new JLabel("Cell Size", JLabel.CENTER);
+            Hashtable<Integer, JLabel> cllSz = new Hashtable<Integer, JLabel>();
+            cllSz.put(2, new JLabel("2"));
+            cllSz.put(3, new JLabel("3"));
+            cllSz.put(4, new JLabel("4"));
+            cllSz.put(5, new JLabel("5"));
+
+            JSlider dotSize = new JSlider(JSlider.HORIZONTAL, 2, 5, 2);
+            dotSize.setMajorTickSpacing(10);
+            dotSize.setMinorTickSpacing(10);
+            dotSize.setPaintTicks(true);
+            dotSize.setPaintLabels(true);
+            dotSize.setLabelTable(cllSz);
+
+            dotSize.addChangeListener(new ChangeListener() {
+				@Override
+				public void stateChanged(ChangeEvent e) {
+					rectangleSize = (Integer) ((JSlider)e.getSource()).getValue();
+				        patternSize = (screenSize / 3) + 1; patternGridSize = (screenSize / rectangleSize / 3);
+				        resetGrids();
+				        // Zoom the board to the new cell size: the board itself stays as it is
+				        showView(boardView.withCellSize(rectangleSize));
+			    		gridFrame.repaint();
+				}
+            });
+            buttonPanel.add(rg);
+            buttonPanel.add(dotSize);
+
+            startStopButton = new JButton("Start");
+            startStopButton.addActionListener(new ActionListener() {
+				@Override
+				public void actionPerformed(ActionEvent e) {
+					if (running) {
+						running = false;
+						simulation.setRunning(false);
+						((JButton) e.getSource()).setText("Start");
+					}
+					else {
+						running = true;
+						simulation.setRunning(true);
+						((JButton) e.getSource()).setText("Stop");
+					}
+				}
+            });
+            buttonPanel.add(startStopButton);
+
+            JButton stepButton = new JButton("Step");
+            stepButton.addActionListener(new ActionListener() {
+            	@Override
+		        public void actionPerformed(ActionEvent e) {
+		    		simulation.step();
+		        }
+            });
+            buttonPanel.add(stepButton);
+
+            // Back through the history one generation or edit at a time, pausing first
+            JButton backButton = new JButton("Back");
+            backButton.addActionListener(new ActionListener() {
+            	@Override
+		        public void actionPerformed(ActionEvent e) {
+		    		if (running) { startStopButton.doClick(); }
+		    		simulation.stepBack();
+		        }
+            });
+            buttonPanel.add(backButton);
+
+            historySlider = new JSlider(JSlider.HORIZONTAL, 0, 0, 0);
+            historySlider.setToolTipText("History: drag back to rewind, stepping on from there starts a new course");
+            historySlider.setEnabled(false);
+            historySlider.addChangeListener(new ChangeListener() {
+				@Override
+				public void stateChanged(ChangeEvent e) {
+					if (showingHistory) { return; }
+
+					LifeSimulation.snapshot latestSnapshot = simulation.getSnapshot();
+					if (running) { startStopButton.doClick(); }
+					simulation.seekHistory(latestSnapshot.getHistoryFirst() + historySlider.getValue());
+				}
+            });
+            buttonPanel.add(historySlider);
+
+            // Jump ahead by the given number of generations, using Hashlife when the grid doesn't wrap
+            JTextField jumpCount = new JTextField("1000000", 8);
+            jumpCount.setToolTipText("Generations to jump: the same board as stepping there, Hashlife's while the pattern is away from the edges");
+            JButton jumpButton = new JButton("Jump");
+            jumpButton.addActionListener(new ActionListener() {
+            	@Override
+		        public void actionPerformed(ActionEvent e) {
+		    		try {
+		    			long generations = Long.parseLong(jumpCount.getText().trim());
+		    			if (generations > 0) { simulation.jump(generations); }
+		    		}
+		    		catch (NumberFormatException nfe) {
+		    			Toolkit.getDefaultToolkit().beep();
+		    		}
+		        }
+            });
+            buttonPanel.add(jumpCount);
+            buttonPanel.add(jumpButton);
+
+            JButton clearButton = new JButton("Clear");
+            clearButton.addActionListener(new ActionListener() {
+				@Override
+		        public void actionPerformed(ActionEvent e) {
+		        	gridPanel.removeAll();
+
+		    		simulation.clear();
+				}
+            });
+            buttonPanel.add(clearButton);
+
+            // Whole game to & from a file: board, generation count, rule panel, wrap & display mode
+            JButton saveButton = new JButton("Save");
+            saveButton.addActionListener(new ActionListener() {
+				@Override
+		        public void actionPerformed(ActionEvent e) {
+		        	JFileChooser gameChooser = new JFileChooser();
+		        	if (gameChooser.showSaveDialog(gridFrame) != JFileChooser.APPROVE_OPTION) { return; }
+
+		        	// The timer runs on this thread too, so the snapshot's board can't be handed back & refilled while it's written
+		        	LifeSimulation.snapshot latestSnapshot = simulation.getSnapshot();
+		        	try {
+		        		new SavedGame(latestSnapshot.getBoard(), latestSnapshot.getGeneration(), wrapAround, minimumOnMaximumOff, maximumOnMinimumOff,
+		        				wildcardsOnly, wildcardsOn, wildcardsOff, displayModeCurrently.savedMode()).save(gameChooser.getSelectedFile().toPath());
+		        	}
+		        	catch (IOException ioe) {
+		        		JOptionPane.showMessageDialog(gridFrame, ioe.getMessage(), "Save", JOptionPane.ERROR_MESSAGE);
+		        	}
+				}
+            });
+            buttonPanel.add(saveButton);
+
+            JButton loadButton = new JButton("Load");
+            loadButton.setEnabled(!simulation.isMapped());
+            loadButton.addActionListener(new ActionListener() {
+				@Override
+		        public void actionPerformed(ActionEvent e) {
+		        	JFileChooser gameChooser = new JFileChooser();
+		        	if (gameChooser.showOpenDialog(gridFrame) != JFileChooser.APPROVE_OPTION) { return; }
+
+		        	try {
+		        		loadGame(SavedGame.load(gameChooser.getSelectedFile().toPath()));
+		        	}
+		        	catch (IOException ioe) {
+		        		JOptionPane.showMessageDialog(gridFrame, ioe.getMessage(), "Load", JOptionPane.ERROR_MESSAGE);
+		        	}
+				}
+            });
+            buttonPanel.add(loadButton);
+
+            JPanel rowPanel = new JPanel();
+            rowPanel.setLayout(new BorderLayout());
+            JLabel whichRow = new JLabel("Row", JLabel.CENTER);
+            rowPanel.add(whichRow, BorderLayout.NORTH);
+            rowValue = new JTextArea(1, 5);
+            rowValue.setBorder(BorderFactory.createLineBorder(Color.BLACK, 1, false));
+            rowValue.setEditable(false);
+            rowPanel.add(rowValue, BorderLayout.SOUTH);
+            buttonPanel.add(rowPanel);
+
+            JPanel colPanel = new JPanel();
+            colPanel.setLayout(new BorderLayout());
+            JLabel whichCol = new JLabel("Col", JLabel.CENTER);
+            colPanel.add(whichCol, BorderLayout.NORTH);
+            colValue = new JTextArea(1, 5);
+            colValue.setBorder(BorderFactory.createLineBorder(Color.BLACK, 1, false));
+            colValue.setEditable(false);
+            colPanel.add(colValue, BorderLayout.SOUTH);
+            buttonPanel.add(colPanel);
+
+            final JCheckBox wrap = new JCheckBox("Wrap Grid");
+            wrap.setSelected(false);
+            wrap.addActionListener(new ActionListener() {
+				@Override
+				public void actionPerformed(ActionEvent e) {
+					JCheckBox wrpCB = (JCheckBox) e.getSource();
+
+					if (wrpCB.isSelected()) { wrapAround = true; }
+					else { wrapAround = false; }
+					rulesChanged();
+				}
+            });
+            buttonPanel.add(wrap);
+            wrapBox = wrap;
+
+            // The infinite plane has no edges to wrap: the board's cells move onto it & back again
+            JCheckBox infinite = new JCheckBox("Infinite Plane");
+            infinite.setSelected(false);
+            infinite.setEnabled(!simulation.isMapped());
+            infinite.setToolTipText("Unbounded board: only the area around live cells is stored & stepped");
+            infinite.addActionListener(new ActionListener() {
+				@Override
+				public void actionPerformed(ActionEvent e) {
+					JCheckBox infntCB = (JCheckBox) e.getSource();
+
+					simulation.setInfinitePlane(infntCB.isSelected());
+					wrap.setEnabled(!infntCB.isSelected());
+					showView(boardView.resizedBoard(infntCB.isSelected() ? 0 : gridSize));
+				}
+            });
+            buttonPanel.add(infinite);
+            infiniteBox = infinite;
+
+            // Settled boards are found on the fixed grid only
+            JCheckBox stopCycle = new JCheckBox("Stop on Cycle");
+            stopCycle.setSelected(stopOnCycle);
+            stopCycle.setToolTipText("Stop running once the board settles into a still life or repeating cycle");
+            stopCycle.addActionListener(new ActionListener() {
+				@Override
+				public void actionPerformed(ActionEvent e) {
+					stopOnCycle = ((JCheckBox) e.getSource()).isSelected();
+					simulation.setPauseOnCycle(stopOnCycle);
+				}
+            });
+            simulation.setPauseOnCycle(stopOnCycle);
+            buttonPanel.add(stopCycle);
+
+            JCheckBox seeGrid = new JCheckBox("Show Grid Lines");
+            seeGrid.setSelected(false);
+            seeGrid.addChangeListener(new ChangeListener() {
+				@Override
+				public void stateChanged(ChangeEvent e) {
+					JCheckBox cGrdCB = (JCheckBox) e.getSource();
+
+					if (cGrdCB.isSelected()) {showGrid = true; }
+					else { showGrid = false; }
+
+					gridFrame.repaint();
+				}
+            });
+            buttonPanel.add(seeGrid);
+
+            // Also over JMX as gameoflife:type=SimulationMetrics, shown or not
+            JCheckBox seeMetrics = new JCheckBox("Show Metrics");
+            seeMetrics.setSelected(showMetrics);
+            seeMetrics.setToolTipText("Generations per second, step, render & paint times, population & allocation rate");
+            seeMetrics.addActionListener(new ActionListener() {
+				@Override
+				public void actionPerformed(ActionEvent e) {
+					showMetrics = ((JCheckBox) e.getSource()).isSelected();
+					lifePanel.repaint(metricsArea);
+				}
+            });
+            buttonPanel.add(seeMetrics);
+
+            // Gathered while the fixed grid is stepped, for the sparkline & the export
+            recordBox = new JCheckBox("Record Statistics");
+            recordBox.setSelected(recordStatistics);
+            recordBox.setToolTipText("Population, births, deaths, bounding box & neighbor counts of every generation stepped on the fixed grid");
+            recordBox.addActionListener(new ActionListener() {
+				@Override
+				public void actionPerformed(ActionEvent e) {
+					recordStatistics = ((JCheckBox) e.getSource()).isSelected();
+					simulation.setRecordingStatistics(recordStatistics);
+					sparkline.repaint();
+				}
+            });
+            buttonPanel.add(recordBox);
+
+            // A .csv file gets text, anything else binary: written on a thread of its own until stopped
+            final JButton exportStatisticsButton = new JButton("Export Statistics");
+            exportStatisticsButton.addActionListener(new ActionListener() {
+				@Override
+		        public void actionPerformed(ActionEvent e) {
+		        	if (statisticsWriter != null) {
+		        		try {
+		        			statisticsWriter.close();
+		        		}
+		        		catch (IOException ioe) {
+		        			JOptionPane.showMessageDialog(gridFrame, ioe.getMessage(), "Export Statistics", JOptionPane.ERROR_MESSAGE);
+		        		}
+		        		statisticsWriter = null;
+		        		exportStatisticsButton.setText("Export Statistics");
+		        		return;
+		        	}
+
+		        	JFileChooser statisticsChooser = new JFileChooser();
+		        	if (statisticsChooser.showSaveDialog(gridFrame) != JFileChooser.APPROVE_OPTION) { return; }
+
+		        	try {
+		        		statisticsWriter = new StatisticsWriter(simulation.getStatistics(), statisticsChooser.getSelectedFile().toPath());
+		        	}
+		        	catch (IOException ioe) {
+		        		JOptionPane.showMessageDialog(gridFrame, ioe.getMessage(), "Export Statistics", JOptionPane.ERROR_MESSAGE);
+		        		return;
+		        	}
+		        	exportStatisticsButton.setText("Stop Export");
+
+		        	// Nothing would be written without recording
+		        	if (!recordStatistics) { recordBox.doClick(); }
+				}
+            });
+            buttonPanel.add(exportStatisticsButton);
+            gridToolPanel.add(buttonPanel, BorderLayout.CENTER);
+
+            JLabel fps = new JLabel("Speed", JLabel.CENTER);
+            Hashtable<Integer, JLabel> frmsPrScnd = new Hashtable<Integer, JLabel>();
+            //frmsPrScnd.put(1, new JLabel("1"));	// Showing all slider settings causes crowding
+            frmsPrScnd.put(2, new JLabel("2"));
+            //frmsPrScnd.put(3, new JLabel("3"));
+            frmsPrScnd.put(4, new JLabel("4"));
+            //frmsPrScnd.put(5, new JLabel("5"));
+            frmsPrScnd.put(6, new JLabel("6"));
+            //frmsPrScnd.put(7, new JLabel("7"));
+            frmsPrScnd.put(8, new JLabel("8"));
+            //frmsPrScnd.put(9, new JLabel("9"));
+            frmsPrScnd.put(10, new JLabel("10"));
+            //frmsPrScnd.put(11, new JLabel("11"));
+            frmsPrScnd.put(12, new JLabel("12"));
+            //frmsPrScnd.put(13, new JLabel("13"));
+            frmsPrScnd.put(14, new JLabel("14"));
+            //frmsPrScnd.put(15, new JLabel("15"));
+            frmsPrScnd.put(16, new JLabel("16"));
+            //frmsPrScnd.put(17, new JLabel("17"));
+            frmsPrScnd.put(18, new JLabel("18"));
+            //frmsPrScnd.put(19, new JLabel("19"));
+            frmsPrScnd.put(20, new JLabel("20"));
+
+            JSlider framesPerSecond = new JSlider(JSlider.HORIZONTAL, 1, 20, 10);
+            framesPerSecond.setMajorTickSpacing(20);
+            framesPerSecond.setMinorTickSpacing(1);
+            framesPerSecond.setPaintTicks(true);
+            framesPerSecond.setPaintLabels(true);
+            framesPerSecond.setLabelTable(frmsPrScnd);
+
+            framesPerSecond.addChangeListener(new ChangeListener() {
+		@Override
+		public void stateChanged(ChangeEvent e) {
+			delayTime = 500 / ((JSlider)e.getSource()).getValue();
+			if (!maximumSpeed) { simulation.setTargetDelay(delayTime); }
+		}
+            });
+
+            // Run generations back to back, ignoring the speed slider
+            JCheckBox maxSpeed = new JCheckBox("Max Speed");
+            maxSpeed.setSelected(false);
+            maxSpeed.addActionListener(new ActionListener() {
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			JCheckBox mxSpdCB = (JCheckBox) e.getSource();
+
+			if (mxSpdCB.isSelected()) { maximumSpeed = true; }
+			else { maximumSpeed = false; }
+
+			simulation.setTargetDelay(maximumSpeed ? 0 : delayTime);
+			framesPerSecond.setEnabled(!maximumSpeed);
+		}
+            });
+
+            // Number of threads sharing the rows of each generation
+            JLabel thrds = new JLabel("Threads", JLabel.CENTER);
+            Hashtable<Integer, JLabel> thrdCnt = new Hashtable<Integer, JLabel>();
+            thrdCnt.put(1, new JLabel("1"));
+            thrdCnt.put(cpuCount, new JLabel(Integer.toString(cpuCount)));
+
+            JSlider threadCount = new JSlider(JSlider.HORIZONTAL, 1, cpuCount, cpuCount);
+            threadCount.setMajorTickSpacing(1);
+            threadCount.setPaintTicks(true);
+            threadCount.setPaintLabels(true);
+            threadCount.setLabelTable(thrdCnt);
+
+            threadCount.addChangeListener(new ChangeListener() {
+		@Override
+		public void stateChanged(ChangeEvent e) {
+			JSlider thrdSldr = (JSlider) e.getSource();
+
+			// Wait until the slider is released: each change replaces the worker pool, on the simulation thread
+			if (!thrdSldr.getValueIsAdjusting()) { simulation.setThreads(thrdSldr.getValue()); }
+		}
+            });
+
+            JPanel sliderPanel = new JPanel();
+            sliderPanel.add(fps);
+            sliderPanel.add(framesPerSecond);
+            sliderPanel.add(maxSpeed);
+            sliderPanel.add(thrds);
+            sliderPanel.add(threadCount);
+            gridToolPanel.add(sliderPanel);
+
+            return gridToolPanel;
+	}
+
+    public static JPanel createRulePanel() {
+        rulePanel = new JPanel();
+        rulePanel.setLayout(new BorderLayout());
+
+        JPanel groupRulePanel = new JPanel();
+        groupRulePanel.setLayout(new GridLayout(0, 1));
+
+        JLabel groupTitle = new JLabel("Neighbor Cell Settings", JLabel.CENTER);
+        groupTitle.setBorder(BorderFactory.createEtchedBorder(EtchedBorder.RAISED));
+        groupRulePanel.add(groupTitle);
+
+        JLabel mm1 = new JLabel("Basic Min. On / Max. Off", JLabel.CENTER);
+        Hashtable<Integer, JLabel> moMo1 = new Hashtable<Integer, JLabel>();
+        moMo1.put(1, new JLabel("1"));
+        moMo1.put(2, new JLabel("2"));
+        moMo1.put(3, new JLabel("3"));
+        moMo1.put(4, new JLabel("4"));
+        moMo1.put(5, new JLabel("5"));
+        moMo1.put(6, new JLabel("6"));
+        moMo1.put(7, new JLabel("7"));
+        moMo1.put(8, new JLabel("8"));
+        groupRulePanel.add(mm1);
+
+        JSlider minOnMaxOff = new JSlider(JSlider.HORIZONTAL, 1, 8, 2);
+        minOnMaxOff.setMajorTickSpacing(10);
+        minOnMaxOff.setMinorTickSpacing(10);
+        minOnMaxOff.setPaintTicks(true);
+        minOnMaxOff.setPaintLabels(true);
+        minOnMaxOff.setLabelTable(moMo1);
+
+        minOnMaxOff.addChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+        	minimumOnMaximumOff = ((JSlider)e.getSource()).getValue();
+        	rulesChanged();
+            }
+        });
+        groupRulePanel.add(minOnMaxOff);
+        minimumOnSlider = minOnMaxOff;
+
+        JLabel mm2 = new JLabel("Basic Max. On / Min. Off", JLabel.CENTER);
+        Hashtable<Integer, JLabel> moMo2 = new Hashtable<Integer, JLabel>();
+        moMo2.put(1, new JLabel("1"));
+        moMo2.put(2, new JLabel("2"));
+        moMo2.put(3, new JLabel("3"));
+        moMo2.put(4, new JLabel("4"));
+        moMo2.put(5, new JLabel("5"));
+        moMo2.put(6, new JLabel("6"));
+        moMo2.put(7, new JLabel("7"));
+        moMo2.put(8, new JLabel("8"));
+        groupRulePanel.add(mm2);
+
+        JSlider maxOnMinOff = new JSlider(JSlider.HORIZONTAL, 1, 8, 3);
+        maxOnMinOff.setMajorTickSpacing(10);
+        maxOnMinOff.setMinorTickSpacing(10);
+        maxOnMinOff.setPaintTicks(true);
+        maxOnMinOff.setPaintLabels(true);
+        maxOnMinOff.setLabelTable(moMo2);
+
+        maxOnMinOff.addChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+            	maximumOnMinimumOff = ((JSlider)e.getSource()).getValue();
+            	rulesChanged();
+            }
+        });
+        groupRulePanel.add(maxOnMinOff);
+        maximumOnSlider = maxOnMinOff;
+
+        JPanel onOffPanel = new JPanel();
+        JButton minMaxOnOff = new JButton("Disable Min/Max");
+        minMaxOnOff.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+        	if (wildcardsOnly) {
+        	    ((JButton) e.getSource()).setText("Disable Min/Max");
+        	    wildcardsOnly = false;
+        	    minOnMaxOff.setEnabled(true);
+        	    maxOnMinOff.setEnabled(true);
+        	    rulesChanged();
+        	}
+        	else {
+        	    ((JButton) e.getSource()).setText("Enable Min/Max");
+        	    wildcardsOnly = true;
+        	    minOnMaxOff.setEnabled(false);
+        	    maxOnMinOff.setEnabled(false);
+        	    rulesChanged();
+        	}
+            }
+        });
+        onOffPanel.add(minMaxOnOff);
+        minMaxButton = minMaxOnOff;
+        groupRulePanel.add(onOffPanel);
+
+        JLabel wildCardOnTitle = new JLabel("Wildcard On Settings", JLabel.CENTER);
+        wildCardOnTitle.setBorder(BorderFactory.createEtchedBorder(EtchedBorder.RAISED));
+        groupRulePanel.add(wildCardOnTitle);
+
+        JPanel wildcardOnPanel = new JPanel();
+        wildcardOnPanel.setLayout(new GridLayout(2, 8));
+
+        JCheckBox wildcardCBOn1 = new JCheckBox("1");
+        newCBInPanel(wildcardOnPanel, wildcardCBOn1, 1, wildcardsOn);
+        JCheckBox wildcardCBOn2 = new JCheckBox("2");
+        newCBInPanel(wildcardOnPanel, wildcardCBOn2, 2, wildcardsOn);
+        JCheckBox wildcardCBOn3 = new JCheckBox("3");
+        newCBInPanel(wildcardOnPanel, wildcardCBOn3, 3, wildcardsOn);
+        JCheckBox wildcardCBOn4 = new JCheckBox("4");
+        newCBInPanel(wildcardOnPanel, wildcardCBOn4, 4, wildcardsOn);
+        JCheckBox wildcardCBOn5 = new JCheckBox("5");
+        newCBInPanel(wildcardOnPanel, wildcardCBOn5, 5, wildcardsOn);
+        JCheckBox wildcardCBOn6 = new JCheckBox("6");
+        newCBInPanel(wildcardOnPanel, wildcardCBOn6, 6, wildcardsOn);
+        JCheckBox wildcardCBOn7 = new JCheckBox("7");
+        newCBInPanel(wildcardOnPanel, wildcardCBOn7, 7, wildcardsOn);
+        JCheckBox wildcardCBOn8 = new JCheckBox("8");
+        newCBInPanel(wildcardOnPanel, wildcardCBOn8, 8, wildcardsOn);
+        groupRulePanel.add(wildcardOnPanel);
+        wildcardOnBoxes = new JCheckBox[] { null, wildcardCBOn1, wildcardCBOn2, wildcardCBOn3, wildcardCBOn4,
+        	wildcardCBOn5, wildcardCBOn6, wildcardCBOn7, wildcardCBOn8 };
+
+        JLabel wildCardOffTitle = new JLabel("Wildcard Off Settings", JLabel.CENTER);
+        wildCardOffTitle.setBorder(BorderFactory.createEtchedBorder(EtchedBorder.RAISED));
+        groupRulePanel.add(wildCardOffTitle);
+
+        JPanel wildcardOffPanel = new JPanel();
+        wildcardOffPanel.setLayout(new GridLayout(2, 8));
+
+        JCheckBox wildcardCBOff1 = new JCheckBox("1");
+        newCBInPanel(wildcardOffPanel, wildcardCBOff1, 1, wildcardsOff);
+        JCheckBox wildcardCBOff2 = new JCheckBox("2");
+        newCBInPanel(wildcardOffPanel, wildcardCBOff2, 2, wildcardsOff);
+        JCheckBox wildcardCBOff3 = new JCheckBox("3");
+        newCBInPanel(wildcardOffPanel, wildcardCBOff3, 3, wildcardsOff);
+        JCheckBox wildcardCBOff4 = new JCheckBox("4");
+        newCBInPanel(wildcardOffPanel, wildcardCBOff4, 4, wildcardsOff);
+        JCheckBox wildcardCBOff5 = new JCheckBox("5");
+        newCBInPanel(wildcardOffPanel, wildcardCBOff5, 5, wildcardsOff);
+        JCheckBox wildcardCBOff6 = new JCheckBox("6");
+        newCBInPanel(wildcardOffPanel, wildcardCBOff6, 6, wildcardsOff);
+        JCheckBox wildcardCBOff7 = new JCheckBox("7");
+        newCBInPanel(wildcardOffPanel, wildcardCBOff7, 7, wildcardsOff);
+        JCheckBox wildcardCBOff8 = new JCheckBox("8");
+        newCBInPanel(wildcardOffPanel, wildcardCBOff8, 8, wildcardsOff);
+        groupRulePanel.add(wildcardOffPanel);
+        wildcardOffBoxes = new JCheckBox[] { null, wildcardCBOff1, wildcardCBOff2, wildcardCBOff3, wildcardCBOff4,
+        	wildcardCBOff5, wildcardCBOff6, wildcardCBOff7, wildcardCBOff8 };
+
+        JPanel resetPanel = new JPanel();
+        JButton reset = new JButton("Reset");
+        reset.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+        	minOnMaxOff.setValue(2);
+        	maxOnMinOff.setValue(3);
+
+        	minMaxOnOff.setText("Disable Min/Max");
+        	wildcardsOnly = false;
+        	minOnMaxOff.setEnabled(true);
+        	maxOnMinOff.setEnabled(true);
+        	rulesChanged();
+
+        	wildcardCBOn1.setSelected(false);
+        	wildcardCBOn2.setSelected(false);
+        	wildcardCBOn3.setSelected(false);
+        	wildcardCBOn4.setSelected(false);
+        	wildcardCBOn5.setSelected(false);
+        	wildcardCBOn6.setSelected(false);
+        	wildcardCBOn7.setSelected(false);
+        	wildcardCBOn8.setSelected(false);
+
+        	wildcardCBOff1.setSelected(false);
+        	wildcardCBOff2.setSelected(false);
+        	wildcardCBOff3.setSelected(false);
+        	wildcardCBOff4.setSelected(false);
+        	wildcardCBOff5.setSelected(false);
+        	wildcardCBOff6.setSelected(false);
+        	wildcardCBOff7.setSelected(false);
+        	wildcardCBOff8.setSelected(false);
+            }
+        });
+        resetPanel.add(reset);
+        groupRulePanel.add(resetPanel);
+
+        rulePanel.add(groupRulePanel, BorderLayout.NORTH);
+
+        JPanel fillerPanel = new JPanel();
+        rulePanel.add(fillerPanel, BorderLayout.SOUTH);
+
+        return rulePanel;
+    }
+
+    private static void newCBInPanel(JPanel jpnl, JCheckBox jchkbx, int whichCB, boolean[] optionList) {
+    	jchkbx.addItemListener(new ItemListener() {
+            public void itemStateChanged(ItemEvent e) {
+                if (jchkbx.isSelected()) { optionList[whichCB] = true; }
+                else { optionList[whichCB] = false; };
+                rulesChanged();
+              }
+            });
+
+    	jpnl.add(jchkbx);
+    }
+
+    private static void initializeGrid(BitGrid whichGrid) {
+	whichGrid.clear();
+    }
+
+    private static void resetGrids() {
+		// Set the pattern grid to the size for the current cell size: cleared in bulk when it's the same size, else a new grid
+		// The board keeps its own size, set at startup
+		if ((patternGrid != null) && (patternGrid.size() == patternGridSize)) { initializeGrid(patternGrid); }
+		else { patternGrid = new BitGrid(patternGridSize); }
+    }
+
+	// Neighbor count for a single cell: only used for cells being drawn, stepping counts whole words at a time
+	private static int checkCell(BitGrid currentGrid, int row, int col) {
+		return currentGrid.countNeighbors(row, col, wrapAround);
+	}
+
+	// Value shown for a cell: 0 when off, otherwise 1 in black & white mode or its neighbor count (at least 1) in grey & color modes
+	private static int cellValue(BitGrid whichGrid, int row, int col) {
+		if (!whichGrid.get(row, col)) { return 0; }
+		if (displayModeCurrently.isBlackWhite()) { return 1; }
+
+		return Math.max(1, checkCell(whichGrid, row, col));
+	}
+
+	// Compile the rule panel settings into a new LifeRule for the simulation: called only when one of them changes
+	private static void rulesChanged() {
+		if (simulation == null) { return; }
+
+		simulation.setRules(wrapAround, currentRule());
+	}
+
+	private static LifeRule currentRule() {
+		return LifeRule.fromSettings(minimumOnMaximumOff, maximumOnMinimumOff, wildcardsOnly, wildcardsOn, wildcardsOff,
+				displayModeCurrently.isBlackWhite());
+	}
+
+    /* Read a pattern file the user picks, or null when they cancel or it can't be read.
+     * A rule in the file is set on the rule panel when the panel can give it; the user is told when it can't.
+     */
+    private static PatternFile choosePattern() {
+	JFileChooser patternChooser = new JFileChooser();
+	if (patternChooser.showOpenDialog(gridFrame) != JFileChooser.APPROVE_OPTION) { return null; }
+
+	PatternFile pattern;
+	try {
+	    pattern = PatternFile.read(patternChooser.getSelectedFile().toPath());
+	}
+	catch (IOException ioe) {
+	    JOptionPane.showMessageDialog(gridFrame, ioe.getMessage(), "Import", JOptionPane.ERROR_MESSAGE);
+	    return null;
+	}
+
+	if ((pattern.getRuleText() != null) && ((pattern.getRule() == null) || !showRule(pattern.getRule()))) {
+	    JOptionPane.showMessageDialog(gridFrame, "The rule panel can't be set to the pattern's rule, " + pattern.getRuleText()
+		    + ", so the rules are left as they are", "Import", JOptionPane.WARNING_MESSAGE);
+	}
+
+	return pattern;
+    }
+
+    /* Set the rule panel to give a rule, through its controls, if some setting of them does:
+     * for each min & max (or wildcards only), the wildcards on are the births the basic rule doesn't give,
+     * the wildcards off the survivals it gives that the rule doesn't, which either works out or no setting with that min & max does.
+     */
+    private static boolean showRule(LifeRule rule) {
+	boolean blackWhite = displayModeCurrently.isBlackWhite();
+	boolean[] noWildcards = new boolean[9];
+
+	// Each min & max from 1 to 8, then wildcards only, which leaves them as they are
+	for (int setting = 0; setting <= 64; setting++) {
+	    boolean onlyWildcards = (setting == 64);
+	    int basicMinimum = onlyWildcards ? minimumOnMaximumOff : (setting >>> 3) + 1;
+	    int basicMaximum = onlyWildcards ? maximumOnMinimumOff : (setting & 7) + 1;
+
+	    boolean[] ruleOn = new boolean[9], ruleOff = new boolean[9];
+	    int basicSurvival = LifeRule.survivalRule(basicMinimum, basicMaximum, onlyWildcards, noWildcards, blackWhite);
+
+	    for (int howManyActiveNeighbors = 1; howManyActiveNeighbors <= 8; howManyActiveNeighbors++) {
+		int countBit = 1 << howManyActiveNeighbors;
+		ruleOn[howManyActiveNeighbors] = (rule.getBirthRule() & countBit) != 0;
+		ruleOff[howManyActiveNeighbors] = ((basicSurvival & countBit) != 0) && ((rule.getSurvivalRule() & countBit) == 0);
+	    }
+
+	    if (!rule.equals(LifeRule.fromSettings(basicMinimum, basicMaximum, onlyWildcards, ruleOn, ruleOff, blackWhite))) { continue; }
+
+	    minimumOnSlider.setValue(basicMinimum);
+	    maximumOnSlider.setValue(basicMaximum);
+	    if (onlyWildcards != wildcardsOnly) { minMaxButton.doClick(); }
+	    for (int howManyActiveNeighbors = 1; howManyActiveNeighbors <= 8; howManyActiveNeighbors++) {
+		wildcardOnBoxes[howManyActiveNeighbors].setSelected(ruleOn[howManyActiveNeighbors]);
+		wildcardOffBoxes[howManyActiveNeighbors].setSelected(ruleOff[howManyActiveNeighbors]);
+	    }
+	    return true;
+	}
+
+	return false;
+    }
+
+    /* Carry on from a saved game:
+     * 1. The rule panel & display mode are set through their controls, whose listeners pass the new rules on
+     * 2. Wrap & the infinite plane are set directly, as the board that's loaded already decides between grid & plane
+     * 3. The view follows the loaded board's size, then the simulation takes the board over
+     */
+    private static void loadGame(SavedGame game) {
+	minimumOnSlider.setValue(game.getMinimumOnMaximumOff());
+	maximumOnSlider.setValue(game.getMaximumOnMinimumOff());
+	if (game.isWildcardsOnly() != wildcardsOnly) { minMaxButton.doClick(); }
+
+	boolean[] loadedOn = game.getWildcardsOn(), loadedOff = game.getWildcardsOff();
+	for (int howManyActiveNeighbors = 1; howManyActiveNeighbors <= 8; howManyActiveNeighbors++) {
+	    wildcardOnBoxes[howManyActiveNeighbors].setSelected(loadedOn[howManyActiveNeighbors]);
+	    wildcardOffBoxes[howManyActiveNeighbors].setSelected(loadedOff[howManyActiveNeighbors]);
+	}
+
+	displayModeButtons[game.getDisplayMode()].doClick();
+
+	boolean infinitePlane = (game.getBoard() instanceof ChunkedBoard);
+	if (!infinitePlane) { gridSize = ((BitGrid) game.getBoard()).size(); }
+
+	wrapAround = game.isWrapAround();
+	wrapBox.setSelected(wrapAround);
+	wrapBox.setEnabled(!infinitePlane);
+	infiniteBox.setSelected(infinitePlane);
+	rulesChanged();
+
+	simulation.load(game.getBoard(), game.getGeneration());
+	showView(boardView.resizedBoard(infinitePlane ? 0 : gridSize));
+    }
+
+    // Hand a single cell toggle to the simulation thread
+    private static void toggleCell(final int row, final int col) {
+	simulation.edit(new Consumer<LifeBoard>() {
+	    public void accept(LifeBoard board) {
+		reverseCell(board, row, col);
+	    }
+	});
+    }
+
+    private static int reverseCell(LifeBoard whichGrid, int row, int col) {
+	if (!whichGrid.get(row, col)) {
+	    whichGrid.set(row, col, true);
+	    return 1;
+	}
+	else {
+	    whichGrid.set(row, col, false);
+	    return 0;
+	}
+    }
+
+    /* Separate copy and stamp methods for clarity:
+     * 1. Stamps take a copy of the pattern grid & apply it on the simulation thread
+     * 2. Copies read the board on the simulation thread, then fill the pattern grid back on the Swing thread
+     */
+    private void stampFullGrid(final int javaGridRow, final int javaGridCol) {
+	final BitGrid stamp = new BitGrid(patternGrid.size());
+	stamp.copyFrom(patternGrid);
+
+	simulation.edit(new Consumer<LifeBoard>() {
+	    public void accept(LifeBoard board) {
+		board.copyBlock(stamp, 0, 0, javaGridRow, javaGridCol, stamp.size(), false);
+	    }
+	});
+    }
+
+    private void stampGrid(final int javaGridRow, final int javaGridCol) {
+	final BitGrid stamp = new BitGrid(patternGrid.size());
+	stamp.copyFrom(patternGrid);
+
+	simulation.edit(new Consumer<LifeBoard>() {
+	    public void accept(LifeBoard board) {
+		board.copyBlock(stamp, 0, 0, javaGridRow, javaGridCol, stamp.size(), true);
+	    }
+	});
+    }
+
+    private void copyFullGrid(int javaGridRow, int javaGridCol) {
+	copyToPattern(javaGridRow, javaGridCol, false);
+    }
+
+    private void copyGrid(int javaGridRow, int javaGridCol) {
+	copyToPattern(javaGridRow, javaGridCol, true);
+    }
+
+    private void copyToPattern(final int javaGridRow, final int javaGridCol, final boolean liveOnly) {
+	final int blockSize = patternGrid.size();
+
+	simulation.edit(new Consumer<LifeBoard>() {
+	    public void accept(LifeBoard board) {
+		// Cells past the board's edges come out dead
+		final BitGrid block = new BitGrid(blockSize);
+		block.copyWindow(board, javaGridRow, javaGridCol, false);
+
+		SwingUtilities.invokeLater(new Runnable() {
+		    public void run() {
+			patternGrid.copyBlock(block, 0, 0, 0, 0, blockSize, liveOnly);
+			repaintPatternGrid();
+		    }
+		});
+	    }
+	});
+    }
+
+    private void paintGridLines(Graphics2D g2d) {
+	// Lines between cells only: none when cells are single pixels or smaller
+	int stepSize = boardView.cellSize(), shownPixels = boardView.shownPixels();
+	if (boardView.isZoomedOut() || (stepSize < 2)) { return; }
+	g2d.setColor(Color.GRAY);
+
+	// Only lines inside the area being repainted
+	Rectangle clip = g2d.getClipBounds();
+	if (clip == null) { clip = new Rectangle(0, 0, shownPixels, shownPixels); }
+	int firstRow = Math.max(0, clip.y - (clip.y % stepSize)), lastRow = Math.min(shownPixels - 2, clip.y + clip.height);
+	int firstCol = Math.max(0, clip.x - (clip.x % stepSize)), lastCol = Math.min(shownPixels - 2, clip.x + clip.width);
+
+	int left = Math.max(0, clip.x), right = Math.min(shownPixels, clip.x + clip.width);
+	int top = Math.max(0, clip.y), bottom = Math.min(shownPixels, clip.y + clip.height);
+	if ((left >= right) || (top >= bottom)) { return; }
+
+	for (int row = firstRow; row < lastRow; row = row + stepSize) {
+	    g2d.drawLine(left, row, right, row);
+	}
+
+	for (int col = firstCol; col < lastCol; col = col + stepSize) {
+	    g2d.drawLine(col, top, col, bottom);
+	}
+    }
+
+    // Render & paint in one go, as the benchmarks do: the panel itself only paints the image the timer last rendered
+    public void paintFromThisGrid(LifeBoard whichBoard, Graphics2D g2d) {
+	// Only the part of the board in view, at the view's zoom
+	boardRenderer.update(whichBoard, displayModeCurrently.palette(), !displayModeCurrently.isBlackWhite(), wrapAround, boardView);
+	boardRenderer.paint(g2d, 0, 0);
+    }
+
+    public void paintPatternGrid(Graphics2D g2d) {
+	// The pattern grid is small & edited from all over, so it's rendered whenever its area is painted
+	patternRenderer.update(patternGrid, displayModeCurrently.palette(), !displayModeCurrently.isBlackWhite(), wrapAround,
+		new Viewport(patternGrid.size(), patternGrid.size() * rectangleSize, rectangleSize));
+
+	// Limit drawing height to area between labels & controls and width to area between main grid and window edge
+	patternRenderer.paint(g2d, gridPanel.getWidth() + 2, patternGridLabel.getHeight() + 2);
+    }
+
+    /* Repainting only what changed, instead of the whole frame:
+     * 1. A new snapshot damages just the cells the board renderer found changed
+     * 2. Moving the selection damages just its old & new outlines
+     * 3. Pattern grid changes damage just the pattern grid
+     * paint() honors the clip, so each of these redraws only its own area.
+     * The board image is only rendered here, once per new snapshot or display setting, never by paint() itself.
+     */
+    private static void repaintBoard() {
+	Rectangle damagedPixels = renderBoard();
+	if (damagedPixels != null) { lifePanel.repaint(damagedPixels); }
+    }
+
+    private static Rectangle renderBoard() {
+	long renderStart = System.nanoTime();
+	renderedPalette = displayModeCurrently.palette();
+	renderedShaded = !displayModeCurrently.isBlackWhite();
+	renderedWrapAround = wrapAround;
+	renderedView = boardView;
+
+	Rectangle damagedPixels = boardRenderer.update(paintedSnapshot.getBoard(), renderedPalette, renderedShaded, renderedWrapAround, renderedView);
+	simulation.getMetrics().rendered(System.nanoTime() - renderStart);
+	return damagedPixels;
+    }
+
+    // Display mode, palette & wrap are changed all over: the timer picks the changes up rather than each of them rendering
+    private static boolean renderSettingsChanged() {
+	return (displayModeCurrently.palette() != renderedPalette) || (displayModeCurrently.isBlackWhite() == renderedShaded)
+		|| (wrapAround != renderedWrapAround) || !boardView.equals(renderedView);
+    }
+
+    // Zoomed or panned: the whole board area changes, including any of it the board no longer covers
+    private static void showView(Viewport newView) {
+	if (newView.equals(boardView)) { return; }
+
+	boardView = newView;
+	moveSelection(null);
+	if (lifePanel != null) {
+	    if (paintedSnapshot != null) { renderBoard(); }
+	    lifePanel.repaint(0, 0, screenSize, screenSize);
+	}
+    }
+
+    // Row & Col readouts for the cell under the pointer, blank off the visible cells
+    private static void showPointerCell(int x, int y) {
+	boolean onBoard = boardView.shows(x, y);
+
+	rowValue.setText(onBoard ? Integer.toString(boardView.colAt(y)) : "");
+	colValue.setText(onBoard ? Integer.toString(boardView.rowAt(x)) : "");
+    }
+
+    // View for the benchmarks: any part of any size of board, at any zoom
+    public static void selectViewport(Viewport view) {
+	boardView = view;
+    }
+
+    private static void repaintPatternGrid() {
+	lifePanel.repaint(patternGridArea());
+    }
+
+    private static Rectangle patternGridArea() {
+	int patternPixels = patternGrid.size() * rectangleSize;
+	return new Rectangle(gridPanel.getWidth() + 2, patternGridLabel.getHeight() + 2, patternPixels, patternPixels);
+    }
+
+    // Outline under the mouse pointer, from its position on the board panel, or null when off the board
+    private static Rectangle pointerSelection(int boardX, int boardY) {
+	// Pattern grid's size at the current zoom, which must fit on the visible cells
+	int outlineSize = boardView.pixelsFor(patternGridSize) + 1;
+	int focusArea = (boardView.shownPixels() - outlineSize) + 1;
+
+	int x = boardOrigin.x + boardX;
+	int y = boardOrigin.y + boardY;
+
+	if ((x <= focusArea) && (y <= focusArea) && (x > 0) && (y > 0)) { return new Rectangle(x, y, outlineSize, outlineSize); }
+	return null;
+    }
+
+    private static void moveSelection(Rectangle newSelection) {
+	Rectangle oldSelection = selectionArea;
+	if ((newSelection == null) ? (oldSelection == null) : newSelection.equals(oldSelection)) { return; }
+
+	selectionArea = newSelection;
+	if (oldSelection != null) { repaintOutline(oldSelection); }
+	if (newSelection != null) { repaintOutline(newSelection); }
+    }
+
+    // The four 1 pixel edges of an outline, painted straight away: queued repaints would be merged into the whole area
+    private static void repaintOutline(Rectangle outline) {
+	lifePanel.paintImmediately(outline.x, outline.y, outline.width + 1, 1);
+	lifePanel.paintImmediately(outline.x, outline.y + outline.height, outline.width + 1, 1);
+	lifePanel.paintImmediately(outline.x, outline.y, 1, outline.height + 1);
+	lifePanel.paintImmediately(outline.x + outline.width, outline.y, 1, outline.height + 1);
+    }
+
+    @Override
+    public void paint(Graphics g) {
+	SimulationMetrics.paintEvent paintEvent = SimulationMetrics.beginPaint();
+	long paintStart = System.nanoTime();
+
+	super.paint(g);
+	g.setColor(Color.WHITE);
+	Graphics2D g2d = (Graphics2D) g;
+
+	// Board from the snapshot the timer last picked, so damage worked out for it matches what is painted
+	if (paintedSnapshot == null) {
+	    paintedSnapshot = simulation.getSnapshot();
+	    renderBoard();
+	}
+	boardRenderer.paint(g2d, 0, 0);
+
+	// Update select rectangle
+	if (!drawingModeCurrently.isFreeHand() && (selectionArea != null)) {
+	    g2d.setColor(Color.WHITE);
+	    g2d.drawRect(selectionArea.x, selectionArea.y, selectionArea.width, selectionArea.height);
+	}
+
+	// Update grid lines
+	if (showGrid) { paintGridLines(g2d); }
+
+	Rectangle patternArea = patternGridArea();
+	if (g.hitClip(patternArea.x, patternArea.y, patternArea.width, patternArea.height)) { paintPatternGrid(g2d); }
+
+	// The overlay's own drawing is left out of the paint time
+	simulation.getMetrics().painted(paintEvent, System.nanoTime() - paintStart, paintedSnapshot.getGeneration());
+	if (showMetrics && g.hitClip(metricsArea.x, metricsArea.y, metricsArea.width, metricsArea.height)) { paintMetrics(g2d); }
+    }
+
+    private static void paintMetrics(Graphics2D g2d) {
+	SimulationMetrics metrics = simulation.getMetrics();
+	long population = metrics.getPopulation();
+	String[] lines = {
+		String.format("Generation %d  %.1f/s", metrics.getGeneration(), metrics.getGenerationsPerSecond()),
+		String.format("Step   p50 %.2f p99 %.2f max %.2f ms", metrics.getStepMillisMedian(), metrics.getStepMillis99thPercentile(),
+			metrics.getStepMillisMaximum()),
+		String.format("Render p50 %.2f p99 %.2f ms", metrics.getRenderMillisMedian(), metrics.getRenderMillis99thPercentile()),
+		String.format("Paint  p50 %.2f p99 %.2f ms", metrics.getPaintMillisMedian(), metrics.getPaintMillis99thPercentile()),
+		String.format("Cells stepped %.1fM/s", metrics.getCellsSteppedPerSecond() / 1e6),
+		(population < 0) ? "Population not counted" : String.format("Population %d", population),
+		String.format("Allocated %.1f MB/s", metrics.getAllocatedBytesPerSecond() / (1 << 20)) };
+
+	g2d.setColor(new Color(0, 0, 0, 192));
+	g2d.fillRect(metricsArea.x, metricsArea.y, metricsArea.width, metricsArea.height);
+	g2d.setColor(Color.GREEN);
+	g2d.setFont(metricsFont);
+	for (int line = 0; line < lines.length; line++) {
+	    g2d.drawString(lines[line], metricsArea.x + 6, metricsArea.y + 16 + (line * 13));
+	}
+    }
+
+    @Override
+    public void paintComponent(Graphics g) {
+    	// Board, grid lines & pattern grid are all painted by paint(), over the whole panel
+    	super.paintComponent(g);
+    }
+
+    // Display mode selection without the radio buttons, for the benchmarks: bw, grey or color
+    public static void selectDisplayMode(String modeName) {
+	switch (modeName) {
+	    case "bw":		displayModeCurrently.setBlackWhite();
+	    			break;
+	    case "grey":	displayModeCurrently.setGreyScale();
+	    			break;
+	    case "color":	displayModeCurrently.setColorScale();
+	    			break;
+	    default:		throw new IllegalArgumentException("Unknown display mode " + modeName);
+	}
+    }
+
+    @Override
+    public void itemStateChanged(ItemEvent e) {
+        JCheckBoxMenuItem mi = (JCheckBoxMenuItem)(e.getSource());
+        boolean selected = (e.getStateChange() == ItemEvent.SELECTED);
+
+        //Set the enabled state of the appropriate Action.
+        if (mi == cbmi[0]) {
+            startStop.setEnabled(selected);
+        }
+        else if (mi == cbmi[1]) {
+            step.setEnabled(selected);
+        }
+        else if (mi == cbmi[2]) {
+            clear.setEnabled(selected);
+        }
+    }
+
+    /* Generation count of the board on screen, with the population & rate the simulation thread counts in SimulationMetrics:
+     * it only adds to the counters there, so nothing Swing ever runs off this thread, and text is only set when it changes.
+     */
+    private static void showStatistics() {
+	SimulationMetrics metrics = simulation.getMetrics();
+	long generation = paintedSnapshot.getGeneration(), population = metrics.getPopulation();
+	long rate = Math.round(metrics.getGenerationsPerSecond());
+
+	if (generation != shownGeneration) {
+	    shownGeneration = generation;
+	    counterValue.setText(Long.toString(generation));
+	}
+
+	if ((population != shownPopulation) || (rate != shownRate)) {
+	    shownPopulation = population;
+	    shownRate = rate;
+	    statisticsValue.setText(((population < 0) ? "" : population + " alive, ") + rate + "/s");
+	}
+
+	long records = simulation.getStatistics().written();
+	if (recordStatistics && (records != sparklineRecords)) {
+	    sparklineRecords = records;
+	    sparkline.repaint();
+	}
+    }
+
+    // Scaled between the lowest & highest population shown, newest at the right
+    private static void paintSparkline(Graphics g, int width, int height) {
+	int count = simulation.getStatistics().recent(GenerationStatistics.populationField, sparklineValues);
+	if (count < 2) { return; }
+
+	long lowest = Long.MAX_VALUE, highest = Long.MIN_VALUE;
+	for (int value = 0; value < count; value++) {
+	    lowest = Math.min(lowest, sparklineValues[value]);
+	    highest = Math.max(highest, sparklineValues[value]);
+	}
+
+	double xScale = (width - 1) / (double) (sparklineValues.length - 1), yScale = (height - 3) / (double) Math.max(1, highest - lowest);
+	int left = (int) Math.round((sparklineValues.length - count) * xScale);
+
+	g.setColor(Color.BLUE);
+	for (int value = 1; value < count; value++) {
+	    g.drawLine(left + (int) Math.round((value - 1) * xScale), height - 2 - (int) Math.round((sparklineValues[value - 1] - lowest) * yScale),
+		    left + (int) Math.round(value * xScale), height - 2 - (int) Math.round((sparklineValues[value] - lowest) * yScale));
+	}
+    }
+
+    /* The simulation stops itself on finding a cycle when Stop on Cycle is ticked: the Start button follows it,
+     * only for a newly found cycle, as starting again carries on past one already found.
+     */
+    private static void showCycle(LifeSimulation.snapshot latestSnapshot) {
+	long period = latestSnapshot.getCyclePeriod(), firstGeneration = latestSnapshot.getCycleFirstGeneration();
+	if ((period == shownCyclePeriod) && (firstGeneration == shownCycleFirstGeneration)) { return; }
+
+	shownCyclePeriod = period;
+	shownCycleFirstGeneration = firstGeneration;
+
+	if (period == 0) { cycleLabel.setText(" "); }
+	else if (period == 1) { cycleLabel.setText("Still life from " + firstGeneration); }
+	else { cycleLabel.setText("Period " + period + " from " + firstGeneration); }
+
+	if ((period != 0) && running && stopOnCycle) {
+	    running = false;
+	    startStopButton.setText("Start");
+	}
+    }
+
+    // Scrubber range & knob from a snapshot; left alone while it's being dragged, so it doesn't jump under the mouse
+    private static void showHistory(LifeSimulation.snapshot latestSnapshot) {
+	if (historySlider.getValueIsAdjusting()) { return; }
+
+	long entries = latestSnapshot.getHistoryLast() - latestSnapshot.getHistoryFirst();
+	showingHistory = true;
+	historySlider.setEnabled(entries > 0);
+	historySlider.setMaximum((int) Math.max(0, entries));
+	historySlider.setValue((int) Math.max(0, latestSnapshot.getHistoryPosition() - latestSnapshot.getHistoryFirst()));
+	showingHistory = false;
+    }
+
+    // Create & display the GUI.
+    public static void createAndShowGUI() {
+        //Make sure we have nice window decorations.
+        JFrame.setDefaultLookAndFeelDecorated(true);
+
+        //Create and set up the window
+        gridFrame = new JFrame("Game Of Life");
+        gridFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+
+        //Set up the content & pattern panes
+        GameOfLife bwGOL = new GameOfLife();
+        gridFrame.add(bwGOL, BorderLayout.CENTER);
+
+        // Set up the controls bar
+        gridToolPanel = createToolPanel();
+        gridFrame.add(gridToolPanel, BorderLayout.NORTH);
+
+        // Set up the rules panel
+        rulePanel = createRulePanel();
+        gridFrame.add(rulePanel, BorderLayout.WEST);
+
+        //Display the window.
+        gridFrame.pack();
+        gridFrame.setVisible(true);
+    }
+
+    public static void main(String[] args) {
+        // -Dgameoflife.mappedBoard=<file>: keep the board in a memory-mapped file, made gameoflife.boardSize cells across when new
+        String mappedBoard = System.getProperty("gameoflife.mappedBoard");
+        if (mappedBoard == null) { simulation = new LifeSimulation(gridSize, stepper); }
+        else {
+            try {
+        	MappedGrid mappedGrid = MappedGrid.open(Paths.get(mappedBoard), gridSize);
+        	gridSize = mappedGrid.size();
+        	boardView = boardView.resizedBoard(gridSize);
+        	simulation = new LifeSimulation(mappedGrid, stepper);
+            }
+            catch (IOException ioe) {
+        	System.err.println("Cannot open board file " + mappedBoard + ": " + ioe.getMessage());
+        	System.exit(1);
+            }
+        }
+        simulation.setTargetDelay(delayTime);
+        rulesChanged();
+
+        // Metrics can be watched from jconsole or any JMX client, whether or not the overlay is shown
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(simulation.getMetrics(), new ObjectName(SimulationMetrics.objectName));
+        }
+        catch (JMException jme) {
+            System.err.println("Cannot register metrics with JMX: " + jme.getMessage());
+        }
+
+        createAndShowGUI();
+
+        // Sample the simulation at display rate: repaint only when a newer generation or edit has been published
+        timer = new Timer(refreshTime, new ActionListener() {
+            public void actionPerformed(ActionEvent evt) {
+        	LifeSimulation.snapshot latestSnapshot = simulation.getSnapshot();
+        	if (latestSnapshot != paintedSnapshot) {
+        	    // Nothing paints the old snapshot again, so its board can be filled in with a later generation
+        	    simulation.recycle(paintedSnapshot);
+        	    paintedSnapshot = latestSnapshot;
+        	    showHistory(latestSnapshot);
+        	    showCycle(latestSnapshot);
+        	    repaintBoard();
+        	}
+        	else if ((paintedSnapshot != null) && renderSettingsChanged()) { repaintBoard(); }
+
+        	// Rates move on even while the board stays the same
+        	long now = System.nanoTime();
+        	if (now - statisticsShownAt >= statisticsRefreshNanos) {
+        	    statisticsShownAt = now;
+        	    showStatistics();
+        	}
+
+        	if (showMetrics && (now - metricsShownAt >= metricsRefreshNanos)) {
+        	    metricsShownAt = now;
+        	    lifePanel.repaint(metricsArea);
+        	}
+
+        	simulation.requestSnapshot();
+            }
+        });
+
+        simulation.start();
+        timer.start();
+    }
+}
\ No newline at end of file
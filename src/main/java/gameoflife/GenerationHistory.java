@@ -0,0 +1,336 @@
+package gameoflife;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/* The last generations of a BitGrid board, kept so the board can be stepped back & scrubbed through:
+ * 1. Each state recorded is an entry, numbered on from the first ever recorded: its generation count & its delta,
+ *    the words that changed since the entry before, as (word index, changed bits) pairs
+ * 2. The changed bits are an XOR, so the same delta steps forward onto an entry & back off it:
+ *    rewinding or replaying costs the words that changed, not a re-run of the generations in between
+ * 3. Deltas go one after another into a ring of longs that grows to its share of the memory budget, then drops the oldest entries
+ * 4. Every keyframeInterval entries, a keyframe holds the whole board (its nonzero words), so far jumps needn't walk every delta;
+ *    keyframes have the rest of the budget, and the least recently used go first when it runs out
+ * 5. A step only changes the tiles ActiveTiles marks, so only their words are compared with the recorded board
+ * Deltas too big for the ring would start the history again every generation, copying the whole board each time:
+ * recording stops instead for a number of generations that doubles while they stay too big, so a busy board costs next to nothing.
+ * Only the simulation thread uses it, and recording allocates nothing once the ring & entry tables have grown to fit.
+ */
+class GenerationHistory {
+    private static final int keyframeInterval = 32, initialLongs = 1 << 12, maximumBackoff = 1024;
+
+    private final long deltaBudgetLongs, keyframeBudgetLongs;
+
+    // Ring of deltas, each entry's: generation, word count, then the (index, bits) pairs; positions count on & are masked on use
+    private long[] ring = new long[initialLongs];
+    private long ringTail, ringHead;
+
+    // Where each entry starts in the ring, by entry number masked
+    private long[] entryStarts = new long[256];
+    private long firstEntry = 0, lastEntry = -1, position = -1;
+
+    // Least recently used first, by entry number
+    private final LinkedHashMap<Long, long[]> keyframes = new LinkedHashMap<Long, long[]>(16, 0.75f, true);
+    private long keyframeLongs;
+
+    // The board as it is at the current position, to work out the next delta against: kept for reuse after a reset
+    private BitGrid recorded;
+    private boolean recordedCurrent = false;
+
+    // Generations to go without recording, & how many the next overflowing delta stops it for
+    private int backoffLeft = 0, backoff = 0;
+
+    GenerationHistory(long budgetBytes) {
+	long budgetLongs = Math.max(0, budgetBytes / 8);
+	deltaBudgetLongs = Long.highestOneBit(Math.max(initialLongs, (budgetLongs * 3) / 4));
+	keyframeBudgetLongs = budgetLongs / 4;
+    }
+
+    boolean isEmpty() {
+	return lastEntry < firstEntry;
+    }
+
+    long firstEntry() {
+	return firstEntry;
+    }
+
+    long lastEntry() {
+	return lastEntry;
+    }
+
+    // Entry the board is at: lastEntry, unless it has been stepped back
+    long position() {
+	return position;
+    }
+
+    // Drop everything, for a board that's been replaced; the next record starts again
+    void reset() {
+	firstEntry = lastEntry + 1;
+	position = lastEntry;
+	ringTail = ringHead;
+	keyframes.clear();
+	keyframeLongs = 0;
+	recordedCurrent = false;
+    }
+
+    /* Record the board as it is now, if it differs from the entry at the current position or has another generation count.
+     * Entries after a position that's been stepped back to are then dropped: the board has taken another course from there.
+     * Only the tiles activeTiles marks are compared (null: every tile), so they must cover every change since the last record.
+     */
+    void record(BitGrid board, long generation, ActiveTiles activeTiles) {
+	if (backoffLeft > 0) {
+	    backoffLeft--;
+	    return;
+	}
+
+	if (!recordedCurrent || (recorded.size() != board.size())) {
+	    reset();
+	    if ((recorded == null) || (recorded.size() != board.size())) { recorded = board.copy(); }
+	    else { recorded.copyFrom(board); }
+	    recordedCurrent = true;
+	    append(board, null, generation, 0);
+	    return;
+	}
+
+	int changedWords = changedWords(board, activeTiles);
+	if ((changedWords == 0) && (generation == ring[mask(entryStarts[mask(position, entryStarts)])])) { return; }
+
+	if (position < lastEntry) { truncate(); }
+
+	// A delta bigger than the whole ring can't be kept: history stops, & starts again from the board as it is once the wait is over
+	if (2 + (2L * changedWords) > deltaBudgetLongs) {
+	    reset();
+	    backoff = Math.min(maximumBackoff, Math.max(1, backoff * 2));
+	    backoffLeft = backoff;
+	    return;
+	}
+
+	backoff = 0;
+	append(board, activeTiles, generation, changedWords);
+    }
+
+    /* Set the board to an earlier or later entry, returning that entry's generation count:
+     * through the deltas between, or from a keyframe when that touches fewer words.
+     */
+    long seek(BitGrid board, long entry) {
+	long target = Math.max(firstEntry, Math.min(lastEntry, entry));
+	long[] boardWords = board.words(), recordedWords = recorded.words();
+
+	/* Only the nearest keyframes either side of the target can beat the others.
+	 * Their sizes are read while iterating, which leaves the access order alone: only the keyframe seeked from counts as used.
+	 */
+	long below = Long.MIN_VALUE, above = Long.MAX_VALUE;
+	int belowLength = 0, aboveLength = 0;
+	for (Map.Entry<Long, long[]> keyframe : keyframes.entrySet()) {
+	    long frameEntry = keyframe.getKey();
+
+	    if ((frameEntry <= target) && (frameEntry > below)) {
+		below = frameEntry;
+		belowLength = keyframe.getValue().length;
+	    }
+	    else if ((frameEntry > target) && (frameEntry < above)) {
+		above = frameEntry;
+		aboveLength = keyframe.getValue().length;
+	    }
+	}
+
+	long bestKeyframe = -1, bestCost = deltaWords(position, target);
+	if (below != Long.MIN_VALUE) {
+	    long cost = boardWords.length + belowLength + deltaWords(below, target);
+	    if (cost < bestCost) {
+		bestKeyframe = below;
+		bestCost = cost;
+	    }
+	}
+	if (above != Long.MAX_VALUE) {
+	    long cost = boardWords.length + aboveLength + deltaWords(above, target);
+	    if (cost < bestCost) {
+		bestKeyframe = above;
+		bestCost = cost;
+	    }
+	}
+
+	if (bestKeyframe >= 0) {
+	    long[] frame = keyframes.get(bestKeyframe);
+	    Arrays.fill(boardWords, 0L);
+	    for (int pair = 0; pair < frame.length; pair += 2) { boardWords[(int) frame[pair]] = frame[pair + 1]; }
+	    recorded.copyFrom(board);
+	    position = bestKeyframe;
+	}
+
+	for (; position < target; position++) { applyDelta(position + 1, boardWords, recordedWords); }
+	for (; position > target; position--) { applyDelta(position, boardWords, recordedWords); }
+
+	return ring[mask(entryStarts[mask(position, entryStarts)])];
+    }
+
+    // Words changed by the deltas between two entries, the cost of walking from one to the other
+    private long deltaWords(long fromEntry, long toEntry) {
+	long words = 0;
+
+	for (long entry = Math.min(fromEntry, toEntry) + 1; entry <= Math.max(fromEntry, toEntry); entry++) {
+	    words += ring[mask(entryStarts[mask(entry, entryStarts)] + 1)];
+	}
+
+	return words;
+    }
+
+    private void applyDelta(long entry, long[] boardWords, long[] recordedWords) {
+	long start = entryStarts[mask(entry, entryStarts)];
+	long pairs = ring[mask(start + 1)];
+
+	for (long pair = start + 2; pair < start + 2 + (pairs * 2); pair += 2) {
+	    int index = (int) ring[mask(pair)];
+	    long bits = ring[mask(pair + 1)];
+	    boardWords[index] ^= bits;
+	    recordedWords[index] ^= bits;
+	}
+    }
+
+    private int changedWords(BitGrid board, ActiveTiles activeTiles) {
+	return compare(board, activeTiles, false);
+    }
+
+    /* Words of the marked tiles that differ from the recorded board, a tile row at a time & along each row:
+     * with store, each is also put into the ring as an (index, bits) pair & copied into the recorded board.
+     */
+    private int compare(BitGrid board, ActiveTiles activeTiles, boolean store) {
+	long[] boardWords = board.words(), recordedWords = recorded.words();
+	int size = board.size(), wordsPerRow = board.wordsPerRow(), changedWords = 0;
+
+	for (int tileRow = 0; tileRow < size; tileRow += (1 << ActiveTiles.tileRowShift)) {
+	    if ((activeTiles != null) && !activeTiles.isBandActive(tileRow)) { continue; }
+
+	    int lastRow = Math.min(size, tileRow + (1 << ActiveTiles.tileRowShift));
+	    for (int row = tileRow; row < lastRow; row++) {
+		int rowBase = board.rowBase(row);
+
+		for (int word = 0; word < wordsPerRow; word++) {
+		    int index = rowBase + word;
+		    if ((boardWords[index] == recordedWords[index]) || ((activeTiles != null) && !activeTiles.isActive(tileRow, word))) { continue; }
+
+		    changedWords++;
+		    if (store) {
+			ring[mask(ringHead++)] = index;
+			ring[mask(ringHead++)] = boardWords[index] ^ recordedWords[index];
+			recordedWords[index] = boardWords[index];
+		    }
+		}
+	    }
+	}
+
+	return changedWords;
+    }
+
+    private void append(BitGrid board, ActiveTiles activeTiles, long generation, int changedWords) {
+	makeRoom(2 + (2L * changedWords));
+	if (lastEntry + 1 - firstEntry >= entryStarts.length) { growEntries(); }
+
+	long entry = ++lastEntry;
+	entryStarts[mask(entry, entryStarts)] = ringHead;
+	ring[mask(ringHead++)] = generation;
+	ring[mask(ringHead++)] = changedWords;
+
+	if (changedWords > 0) { compare(board, activeTiles, true); }
+
+	position = entry;
+	if ((entry % keyframeInterval) == 0) { addKeyframe(entry, recorded.words()); }
+    }
+
+    // Grow the ring up to its budget, then drop the oldest entries until there's room
+    private void makeRoom(long needed) {
+	while (ringHead + needed - ringTail > ring.length) {
+	    if (ring.length < deltaBudgetLongs) {
+		growRing();
+		continue;
+	    }
+
+	    // The entry before the new one is only needed for its state, which the new one's delta starts from
+	    if (firstEntry < lastEntry) {
+		firstEntry++;
+		ringTail = entryStarts[mask(firstEntry, entryStarts)];
+	    }
+	    else {
+		firstEntry = lastEntry + 1;
+		ringTail = ringHead;
+	    }
+	    keyframeLongs -= removeKeyframes(Long.MIN_VALUE, firstEntry - 1);
+	}
+    }
+
+    private void growRing() {
+	long[] newRing = new long[ring.length * 2];
+	for (long ringPosition = ringTail; ringPosition < ringHead; ringPosition++) {
+	    newRing[(int) (ringPosition & (newRing.length - 1))] = ring[mask(ringPosition)];
+	}
+	ring = newRing;
+    }
+
+    private void growEntries() {
+	long[] newStarts = new long[entryStarts.length * 2];
+	for (long entry = firstEntry; entry <= lastEntry; entry++) {
+	    newStarts[(int) (entry & (newStarts.length - 1))] = entryStarts[mask(entry, entryStarts)];
+	}
+	entryStarts = newStarts;
+    }
+
+    // Drop the entries after the current position
+    private void truncate() {
+	long start = entryStarts[mask(position, entryStarts)];
+	ringHead = start + 2 + (2 * ring[mask(start + 1)]);
+	lastEntry = position;
+	keyframeLongs -= removeKeyframes(position + 1, Long.MAX_VALUE);
+    }
+
+    private void addKeyframe(long entry, long[] words) {
+	int nonzeroWords = 0;
+	for (long word : words) {
+	    if (word != 0) { nonzeroWords++; }
+	}
+
+	if ((2L * nonzeroWords) > keyframeBudgetLongs) { return; }
+
+	long[] frame = new long[2 * nonzeroWords];
+	for (int index = 0, pair = 0; index < words.length; index++) {
+	    if (words[index] == 0) { continue; }
+
+	    frame[pair++] = index;
+	    frame[pair++] = words[index];
+	}
+
+	keyframes.put(entry, frame);
+	keyframeLongs += frame.length;
+
+	// Least recently used first: the keyframes last seeked from, or just made, are kept longest
+	Iterator<long[]> eldest = keyframes.values().iterator();
+	while (keyframeLongs > keyframeBudgetLongs) {
+	    keyframeLongs -= eldest.next().length;
+	    eldest.remove();
+	}
+    }
+
+    // Longs freed by dropping the keyframes of entries from firstDropped to lastDropped
+    private long removeKeyframes(long firstDropped, long lastDropped) {
+	long freed = 0;
+
+	for (Iterator<Map.Entry<Long, long[]>> keyframe = keyframes.entrySet().iterator(); keyframe.hasNext(); ) {
+	    Map.Entry<Long, long[]> entry = keyframe.next();
+	    if ((entry.getKey() >= firstDropped) && (entry.getKey() <= lastDropped)) {
+		freed += entry.getValue().length;
+		keyframe.remove();
+	    }
+	}
+
+	return freed;
+    }
+
+    private int mask(long ringPosition) {
+	return (int) (ringPosition & (ring.length - 1));
+    }
+
+    private static int mask(long entry, long[] starts) {
+	return (int) (entry & (starts.length - 1));
+    }
+}
@@ -0,0 +1,229 @@
+package gameoflife;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/* Per-generation statistics of a BitGrid board, gathered while it's stepped & kept in a ring for StatisticsWriter & the sparkline:
+ * 1. The scalar kernel hands over each word it steps (countWord): births, deaths, live cells & bounding box are added up per ActiveTiles tile
+ * 2. Once the whole new generation is written, its tiles just stepped are passed over again (countNeighbors) for a histogram
+ *    of neighbor counts, so every field of a record describes the same board: the new generation, the one it's recorded for
+ * 3. A tile that isn't stepped didn't change & neither did its neighbors, so its totals from the last time it was stepped still hold
+ *    (& it had no births or deaths); the board's totals are the sum over tiles, 64 x 64 cells at a time
+ * 4. Each generation is one record of fieldCount longs in a ring allocated up front; records are only ever added by one thread
+ *    & read by any, which check a record wasn't written over while they read it
+ * 5. While a StatisticsWriter is exporting, adding a record waits for it rather than write over one it hasn't saved yet
+ * Each tile is counted by one stepping thread, so ParallelStepper lines its bands up with the tiles while gathering statistics.
+ */
+class GenerationStatistics {
+    static final int generationField = 0, populationField = 1, birthsField = 2, deathsField = 3;
+    static final int topField = 4, bottomField = 5, leftField = 6, rightField = 7, neighborsField = 8, fieldCount = 17;
+    static final String[] fieldNames = { "generation", "population", "births", "deaths", "top", "bottom", "left", "right",
+	    "generationNeighbors0", "generationNeighbors1", "generationNeighbors2", "generationNeighbors3", "generationNeighbors4", "generationNeighbors5",
+	    "generationNeighbors6", "generationNeighbors7", "generationNeighbors8" };
+
+    private static final int tileShift = ActiveTiles.tileRowShift, tileFields = 8 + 9;
+    // Tile fields: population, births, deaths, stamp, top, bottom, left, right, then the neighbor count histogram
+    private static final int tilePopulation = 0, tileBirths = 1, tileDeaths = 2, tileStamp = 3, tileTop = 4, tileBottom = 5,
+	    tileLeft = 6, tileRight = 7, tileNeighbors = 8;
+
+    private final long[] ring;
+    private final int capacity;
+    private volatile long written = 0, exported = -1;
+
+    // Stepping threads, a tile each: sized for the board being stepped
+    private int gridSize = -1, tileCols;
+    private long[] tiles = new long[0];
+    private long stamp = 1;
+
+    // capacity: records kept, a power of 2
+    GenerationStatistics(int capacity) {
+	this.capacity = capacity;
+	this.ring = new long[capacity * fieldCount];
+    }
+
+    int capacity() {
+	return capacity;
+    }
+
+    // Records added so far: the last capacity of them are still in the ring
+    long written() {
+	return written;
+    }
+
+    /* Before stepping a board: the tiles are made again for a board of another size,
+     * returning true when they were, as every tile must then be stepped before the next record.
+     */
+    boolean prepare(int boardSize) {
+	if (boardSize == gridSize) { return false; }
+
+	gridSize = boardSize;
+	tileCols = (boardSize + 63) >>> 6;
+	tiles = new long[((boardSize + (1 << tileShift) - 1) >>> tileShift) * tileCols * tileFields];
+	return true;
+    }
+
+    /* Stepping thread: one word just stepped, from its bits before & after.
+     * Tiles are started again on their first row, which is always stepped first as the whole tile is stepped or none of it.
+     */
+    void countWord(int row, int word, long alive, long nextWord) {
+	int tile = (((row >>> tileShift) * tileCols) + word) * tileFields;
+
+	if ((row & ((1 << tileShift) - 1)) == 0) {
+	    Arrays.fill(tiles, tile, tile + tileFields, 0L);
+	    tiles[tile + tileStamp] = stamp;
+	    tiles[tile + tileTop] = Long.MAX_VALUE;
+	    tiles[tile + tileLeft] = Long.MAX_VALUE;
+	    tiles[tile + tileBottom] = -1;
+	    tiles[tile + tileRight] = -1;
+	}
+
+	tiles[tile + tilePopulation] += Long.bitCount(nextWord);
+	tiles[tile + tileBirths] += Long.bitCount(nextWord & ~alive);
+	tiles[tile + tileDeaths] += Long.bitCount(alive & ~nextWord);
+
+	if (nextWord != 0) {
+	    tiles[tile + tileTop] = Math.min(tiles[tile + tileTop], row);
+	    tiles[tile + tileBottom] = row;
+	    tiles[tile + tileLeft] = Math.min(tiles[tile + tileLeft], (word << 6) + Long.numberOfTrailingZeros(nextWord));
+	    tiles[tile + tileRight] = Math.max(tiles[tile + tileRight], (word << 6) + 63 - Long.numberOfLeadingZeros(nextWord));
+	}
+    }
+
+    /* Stepping thread, once every row of the new generation is written & its halo filled: the neighbor count histogram of rows
+     * firstRow (inclusive) to lastRow (exclusive), a whole number of tiles, for the tiles countWord started this generation.
+     */
+    void countNeighbors(BitGrid grid, int firstRow, int lastRow) {
+	long[] words = grid.words();
+	int wordsPerRow = grid.wordsPerRow(), rowStride = grid.rowStride();
+
+	for (int row = firstRow; row < lastRow; row++) {
+	    int rowBase = grid.rowBase(row);
+
+	    for (int word = 0; word < wordsPerRow; word++) {
+		int tile = (((row >>> tileShift) * tileCols) + word) * tileFields;
+		if (tiles[tile + tileStamp] != stamp) { continue; }
+
+		long wordMask = (word == wordsPerRow - 1) ? grid.lastWordMask() : -1L;
+		countNeighbors(words, rowBase + word - rowStride, rowBase + word, rowBase + word + rowStride, wordMask, tile + tileNeighbors);
+	    }
+	}
+    }
+
+    // The same adders as BitGrid.nextWord, then one mask per count: cells with no neighbors at all are most of a sparse board
+    private void countNeighbors(long[] current, int above, int middle, int below, long wordMask, int histogram) {
+	long upperLeft = (current[above] << 1) | (current[above - 1] >>> 63);
+	long upper = current[above];
+	long upperRight = (current[above] >>> 1) | (current[above + 1] << 63);
+	long left = (current[middle] << 1) | (current[middle - 1] >>> 63);
+	long right = (current[middle] >>> 1) | (current[middle + 1] << 63);
+	long lowerLeft = (current[below] << 1) | (current[below - 1] >>> 63);
+	long lower = current[below];
+	long lowerRight = (current[below] >>> 1) | (current[below + 1] << 63);
+
+	long upperSum = upperLeft ^ upper ^ upperRight;
+	long upperCarry = (upperLeft & upper) | (upperRight & (upperLeft ^ upper));
+	long middleSum = left ^ right ^ lowerLeft;
+	long middleCarry = (left & right) | (lowerLeft & (left ^ right));
+	long lowerSum = lower ^ lowerRight;
+	long lowerCarry = lower & lowerRight;
+
+	long countBit0 = upperSum ^ middleSum ^ lowerSum;
+	long onesCarry = (upperSum & middleSum) | (lowerSum & (upperSum ^ middleSum));
+	long twosSum = upperCarry ^ middleCarry ^ lowerCarry;
+	long twosCarry = (upperCarry & middleCarry) | (lowerCarry & (upperCarry ^ middleCarry));
+	long countBit1 = twosSum ^ onesCarry;
+	long foursCarry = twosSum & onesCarry;
+	long countBit2 = twosCarry ^ foursCarry;
+	long countBit3 = twosCarry & foursCarry;
+
+	long anyNeighbors = (countBit0 | countBit1 | countBit2 | countBit3) & wordMask;
+	tiles[histogram] += Long.bitCount(~anyNeighbors & wordMask);
+	if (anyNeighbors == 0) { return; }
+
+	for (int count = 1; count <= 8; count++) {
+	    long matches = ((count & 1) != 0 ? countBit0 : ~countBit0) & ((count & 2) != 0 ? countBit1 : ~countBit1)
+		    & ((count & 4) != 0 ? countBit2 : ~countBit2) & ((count & 8) != 0 ? countBit3 : ~countBit3);
+	    tiles[histogram + count] += Long.bitCount(matches & wordMask);
+	}
+    }
+
+    /* Simulation thread, after the step: add the tiles up into the next record.
+     * Waits while an export hasn't saved the record it would write over; returns false, recording nothing, if interrupted meanwhile.
+     */
+    boolean record(long generation) {
+	while ((exported >= 0) && (written - exported >= capacity)) {
+	    if (Thread.currentThread().isInterrupted()) { return false; }
+	    LockSupport.parkNanos(50_000L);
+	}
+
+	int record = (int) (written & (capacity - 1)) * fieldCount;
+	Arrays.fill(ring, record, record + fieldCount, 0L);
+	ring[record + generationField] = generation;
+	ring[record + topField] = Long.MAX_VALUE;
+	ring[record + leftField] = Long.MAX_VALUE;
+	ring[record + bottomField] = -1;
+	ring[record + rightField] = -1;
+
+	for (int tile = 0; tile < tiles.length; tile += tileFields) {
+	    ring[record + populationField] += tiles[tile + tilePopulation];
+
+	    // Tiles not stepped this generation had no births or deaths
+	    if (tiles[tile + tileStamp] == stamp) {
+		ring[record + birthsField] += tiles[tile + tileBirths];
+		ring[record + deathsField] += tiles[tile + tileDeaths];
+	    }
+
+	    if (tiles[tile + tilePopulation] != 0) {
+		ring[record + topField] = Math.min(ring[record + topField], tiles[tile + tileTop]);
+		ring[record + bottomField] = Math.max(ring[record + bottomField], tiles[tile + tileBottom]);
+		ring[record + leftField] = Math.min(ring[record + leftField], tiles[tile + tileLeft]);
+		ring[record + rightField] = Math.max(ring[record + rightField], tiles[tile + tileRight]);
+	    }
+
+	    for (int count = 0; count <= 8; count++) { ring[record + neighborsField + count] += tiles[tile + tileNeighbors + count]; }
+	}
+
+	// An empty board has no bounding box
+	if (ring[record + bottomField] < 0) {
+	    ring[record + topField] = -1;
+	    ring[record + leftField] = -1;
+	}
+
+	stamp++;
+	written = written + 1;
+	return true;
+    }
+
+    /* Any thread: copy record index's fields into values, returning false if it isn't in the ring (any more).
+     * A record written over part way through copying is reported as gone too.
+     */
+    boolean read(long index, long[] values) {
+	if ((index >= written) || (index < written - capacity)) { return false; }
+
+	System.arraycopy(ring, (int) (index & (capacity - 1)) * fieldCount, values, 0, fieldCount);
+	return index >= written - capacity;
+    }
+
+    // Any thread: the last values.length values of one field, oldest first, returning how many there were
+    int recent(int field, long[] values) {
+	long last = written, first = Math.max(Math.max(0, last - capacity + 1), last - values.length);
+	int count = 0;
+
+	for (long index = first; index < last; index++) { values[count++] = ring[(int) (index & (capacity - 1)) * fieldCount + field]; }
+
+	return count;
+    }
+
+    // StatisticsWriter: saving starts from the next record; records are then kept until exported has gone past them
+    void startExport() {
+	exported = written;
+    }
+
+    void exported(long records) {
+	exported = records;
+    }
+
+    void stopExport() {
+	exported = -1;
+    }
+}
@@ -0,0 +1,200 @@
+package gameoflife;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/* Paints the part of a board a Viewport shows through a cached image, instead of one fillRect per cell:
+ * 1. Only the visible cells are ever looked at, so the board can be far bigger than the screen, even the infinite plane
+ * 2. Zoomed in, the image has one pixel per cell & is drawn scaled to the cell size:
+ *    the visible cells are cut out with a 1 cell margin, so neighbor counts at the view's edges come out right,
+ *    and only rows that changed since the last frame are rewritten; in grey & color modes their neighbor rows too,
+ *    as a cell's shade depends on its neighbor count
+ * 3. Zoomed out, each pixel is shaded between the off & on colors by the share of live cells it covers
+ * 4. A new view, palette or shading setting rewrites the whole image; palettes must not be changed once passed in
+ * update also reports the pixels whose color changed, so callers can repaint just that part of the screen;
+ * paint only draws the image as the last update left it, so repainting a small area never goes back over the board.
+ * As on screen, a grid row runs down the image (x = row, y = column).
+ */
+public class GridRenderer {
+    // Shades between off & on used when zoomed out, the first for no live cells at all
+    private static final int densityLevels = 64;
+
+    private BufferedImage image;
+    private int[] pixels;
+    private BitGrid window, shownWindow;
+    private Viewport shownView;
+    private int[] shownPalette;	// Palettes are never changed once built, so the same array means the same colors
+    private int[] densityShades;
+    private boolean shownShaded;
+    private boolean[] changedRows = new boolean[0];
+    private int[] blockCounts = new int[0];
+
+    // The image at (x, y), for the view it was last updated for: nothing before the first update
+    public void paint(Graphics2D g2d, int x, int y) {
+	if (image == null) { return; }
+
+	// Only the clip area is drawn, so partial repaints stay cheap however big the view is
+	int shownPixels = shownView.shownPixels();
+	if (shownView.isZoomedOut()) {
+	    g2d.drawImage(image, x, y, null);
+	}
+	else {
+	    // Leave out the margin cells around the image's edges
+	    g2d.drawImage(image, x, y, x + shownPixels, y + shownPixels, 1, 1, shownView.visibleCells() + 1, shownView.visibleCells() + 1, null);
+	}
+    }
+
+    /* Bring the image up to date with the board.
+     * palette holds the ARGB color for each cell value: 0 for off, 1 to 8 for on.
+     * shaded = false: every live cell has value 1, shaded = true: its neighbor count (at least 1).
+     * Returns the pixels, from the view's top left corner, that may look different since the last update, or null if none.
+     */
+    public Rectangle update(LifeBoard whichBoard, int[] palette, boolean shaded, boolean wrapAround, Viewport view) {
+	boolean redrawAll = !view.equals(shownView) || (palette != shownPalette) || (shaded != shownShaded);
+
+	shownView = view;
+	shownPalette = palette;
+	shownShaded = shaded;
+
+	if (view.isZoomedOut()) { return updateDensity(whichBoard, palette, redrawAll, view); }
+	return updateCells(whichBoard, palette, shaded, wrapAround, redrawAll, view);
+    }
+
+    private Rectangle updateCells(LifeBoard whichBoard, int[] palette, boolean shaded, boolean wrapAround, boolean redrawAll, Viewport view) {
+	int size = view.visibleCells() + 2;
+
+	if ((window == null) || (window.size() != size)) {
+	    image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+	    pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+	    window = new BitGrid(size);
+	    shownWindow = new BitGrid(size);
+	    changedRows = new boolean[size];
+	    redrawAll = true;
+	}
+
+	window.copyWindow(whichBoard, view.originRow() - 1, view.originCol() - 1, wrapAround);
+
+	int firstRow = size, lastRow = -1, firstCol = size, lastCol = -1;
+
+	for (int row = 0; row < size; row++) {
+	    int firstChange = redrawAll ? 0 : window.firstDifference(shownWindow, row);
+
+	    changedRows[row] = (firstChange >= 0);
+	    if (changedRows[row]) {
+		firstRow = Math.min(firstRow, row);
+		lastRow = row;
+		firstCol = Math.min(firstCol, firstChange);
+		lastCol = Math.max(lastCol, redrawAll ? size - 1 : window.lastDifference(shownWindow, row));
+	    }
+	}
+
+	// The margin holds the cells past the view's edges, wrapped ones included, so shades never need to wrap here
+	for (int row = 0; row < size; row++) {
+	    boolean redrawRow = changedRows[row];
+
+	    if (shaded && !redrawRow) {
+		redrawRow = ((row > 0) && changedRows[row - 1]) || ((row < size - 1) && changedRows[row + 1]);
+	    }
+
+	    if (redrawRow) { drawRow(window, row, palette, shaded); }
+	}
+
+	shownWindow.copyFrom(window);
+
+	if (lastRow < 0) { return null; }
+
+	// Neighbors of changed cells change shade too
+	if (shaded) { firstRow--; lastRow++; firstCol--; lastCol++; }
+
+	// From window cells, margin left out, to pixels
+	firstRow = Math.max(firstRow, 1) - 1; lastRow = Math.min(lastRow, size - 2) - 1;
+	firstCol = Math.max(firstCol, 1) - 1; lastCol = Math.min(lastCol, size - 2) - 1;
+	if ((firstRow > lastRow) || (firstCol > lastCol)) { return null; }
+
+	int cellSize = view.cellSize();
+	return new Rectangle(firstRow * cellSize, firstCol * cellSize, (lastRow - firstRow + 1) * cellSize, (lastCol - firstCol + 1) * cellSize);
+    }
+
+    private void drawRow(BitGrid whichGrid, int row, int[] palette, boolean shaded) {
+	int size = whichGrid.size();
+
+	for (int col = 0, pixel = row; col < size; col++, pixel += size) {
+	    int cellValue = 0;
+
+	    if (whichGrid.get(row, col)) {
+		cellValue = shaded ? Math.max(1, whichGrid.countNeighbors(row, col, false)) : 1;
+	    }
+
+	    pixels[pixel] = palette[cellValue];
+	}
+    }
+
+    /* Zoomed out: pixel (x, y) covers the cells from (x, y) * cellsPerPixel on, fewer at the board's far edges.
+     * Live cells are counted a row at a time into blockCounts, then each finished row of blocks becomes a row of pixels.
+     */
+    private Rectangle updateDensity(LifeBoard whichBoard, int[] palette, boolean redrawAll, Viewport view) {
+	int cellsPerPixel = view.cellsPerPixel(), visibleCells = view.visibleCells(), size = view.shownPixels();
+
+	if ((image == null) || (window != null) || (image.getWidth() != size)) {
+	    image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+	    pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+	    window = null;
+	    shownWindow = null;
+	    blockCounts = new int[size];
+	    redrawAll = true;
+	}
+	if (redrawAll) { densityShades = densityShades(palette); }
+
+	int firstX = size, lastX = -1, firstY = size, lastY = -1;
+
+	for (int x = 0; x < size; x++) {
+	    int firstRow = view.originRow() + (x * cellsPerPixel);
+	    int blockRows = Math.min(cellsPerPixel, view.originRow() + visibleCells - firstRow);
+
+	    Arrays.fill(blockCounts, 0);
+	    for (int row = firstRow; row < firstRow + blockRows; row++) {
+		whichBoard.countBlocks(row, view.originCol(), visibleCells, cellsPerPixel, blockCounts);
+	    }
+
+	    for (int y = 0, pixel = x; y < size; y++, pixel += size) {
+		int firstCol = view.originCol() + (y * cellsPerPixel);
+		int blockCells = blockRows * Math.min(cellsPerPixel, view.originCol() + visibleCells - firstCol);
+
+		// Any live cell at all shows up, however few
+		int level = (int) (((long) blockCounts[y] * (densityLevels - 1) + blockCells - 1) / blockCells);
+		int color = densityShades[level];
+
+		if (redrawAll || (pixels[pixel] != color)) {
+		    pixels[pixel] = color;
+		    firstX = Math.min(firstX, x); lastX = x;
+		    firstY = Math.min(firstY, y); lastY = Math.max(lastY, y);
+		}
+	    }
+	}
+
+	if (lastX < 0) { return null; }
+	return new Rectangle(firstX, firstY, lastX - firstX + 1, lastY - firstY + 1);
+    }
+
+    // Blend from the off color (no live cells) to the color of a lone live cell (all live)
+    private static int[] densityShades(int[] palette) {
+	int[] shades = new int[densityLevels];
+	int off = palette[0], on = palette[1];
+
+	for (int level = 0; level < densityLevels; level++) {
+	    int shade = 0xFF000000;
+
+	    for (int shift = 0; shift < 24; shift += 8) {
+		int offPart = (off >>> shift) & 0xFF, onPart = (on >>> shift) & 0xFF;
+		shade |= (offPart + (((onPart - offPart) * level) / (densityLevels - 1))) << shift;
+	    }
+
+	    shades[level] = shade;
+	}
+
+	return shades;
+    }
+}
@@ -0,0 +1,441 @@
+package gameoflife;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/* Hashlife engine for jumping a pattern far ahead in one go:
+ * 1. The plane is a quadtree of canonical nodes: identical squares anywhere in space or time are the same object
+ * 2. Each node remembers the centre of its square after it has been advanced, so repeated work is looked up, not redone
+ * 3. When the node table grows past the memory cap, everything not reachable from the current pattern is dropped:
+ *    between steps, and part way through one, which is then taken again as two steps half as long
+ * The plane is open: cells are not held back by the board edges while a jump runs.
+ * Only rules where empty space stays empty (no birth with 0 neighbors) can be run this way.
+ */
+public class HashLife {
+    // Rough heap cost of a node with its table entry, used to turn the memory cap into a node count
+    private static final int bytesPerNode = 100;
+
+    private static class node {
+	private final node nw, ne, sw, se;
+	private final int level;
+	private final long population;
+	private final int hash;
+
+	// Centre of the square after 2^(level - 2) generations, and after the slower 2^slowStep generations
+	private node fullResult, slowResult;
+	private int slowStep = -1;
+
+	private node(int level, boolean alive) {
+	    this.nw = null; this.ne = null; this.sw = null; this.se = null;
+	    this.level = level;
+	    this.population = alive ? 1 : 0;
+	    this.hash = alive ? 1 : 0;
+	}
+
+	private node(node nw, node ne, node sw, node se) {
+	    this.nw = nw; this.ne = ne; this.sw = sw; this.se = se;
+	    this.level = nw.level + 1;
+	    this.population = nw.population + ne.population + sw.population + se.population;
+	    this.hash = ((((System.identityHashCode(nw) * 31) + System.identityHashCode(ne)) * 31
+		    + System.identityHashCode(sw)) * 31) + System.identityHashCode(se);
+	}
+
+	// Children are canonical, so comparing them by identity is enough
+	@Override
+	public boolean equals(Object other) {
+	    if (!(other instanceof node)) { return false; }
+
+	    node otherNode = (node) other;
+	    return (nw == otherNode.nw) && (ne == otherNode.ne) && (sw == otherNode.sw) && (se == otherNode.se);
+	}
+
+	@Override
+	public int hashCode() {
+	    return hash;
+	}
+    }
+
+    // Thrown out of a step that has grown the node table past its limit; made once, as it only ever unwinds the step
+    private static class memoryCapReached extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	private memoryCapReached() {
+	    super(null, null, false, false);
+	}
+    }
+
+    private static final memoryCapReached capReached = new memoryCapReached();
+
+    private final LifeRule rule;
+    private final long maximumNodes;
+    // The cap, or twice what a pattern bigger than the cap needs, so a step always has room to finish
+    private long nodeLimit;
+    private final node deadCell = new node(0, false), liveCell = new node(0, true);
+    private final node[] emptyNodes = new node[64];
+    private final node[] levelTwoResults = new node[1 << 16];
+    private HashMap<node, node> nodeTable = new HashMap<node, node>();
+
+    // Current pattern, with the board coordinates of its top left corner
+    private node root;
+    private long rootRow, rootCol;
+
+    public HashLife(LifeRule rule, long memoryCapBytes) {
+	if (!isSupported(rule)) { throw new IllegalArgumentException("Hashlife cannot run rules where cells are born with 0 neighbors"); }
+
+	this.rule = rule;
+	this.maximumNodes = Math.max(1024, memoryCapBytes / bytesPerNode);
+	this.nodeLimit = maximumNodes;
+
+	emptyNodes[0] = deadCell;
+	for (int level = 1; level < emptyNodes.length; level++) {
+	    emptyNodes[level] = join(emptyNodes[level - 1], emptyNodes[level - 1], emptyNodes[level - 1], emptyNodes[level - 1]);
+	}
+    }
+
+    // Same test as the constructor, for callers choosing between Hashlife & regular stepping
+    public static boolean isSupported(LifeRule rule) {
+	return !rule.nextState(false, 0);
+    }
+
+    public boolean sameRules(LifeRule rule) {
+	return this.rule.equals(rule);
+    }
+
+    public void load(BitGrid whichGrid) {
+	int level = 2;
+	while ((1 << level) < whichGrid.size()) { level++; }
+
+	root = build(whichGrid, level, 0, 0);
+	rootRow = 0;
+	rootCol = 0;
+    }
+
+    /* The infinite plane is loaded a chunk at a time, bottom up:
+     * each chunk becomes a node, then nodes are joined in fours, one level at a time, until one node holds them all.
+     * Only the chunks in use are visited, however far apart they are.
+     */
+    public void load(ChunkedBoard plane) {
+	int firstChunkRow = Integer.MAX_VALUE, firstChunkCol = Integer.MAX_VALUE;
+	ChunkMap chunks = plane.chunks();
+	for (int slot = 0; slot < chunks.capacity(); slot++) {
+	    if (chunks.value(slot) == null) { continue; }
+
+	    firstChunkRow = Math.min(firstChunkRow, ChunkedBoard.chunkRow(chunks.key(slot)));
+	    firstChunkCol = Math.min(firstChunkCol, ChunkedBoard.chunkCol(chunks.key(slot)));
+	}
+
+	int level = ChunkedBoard.chunkShift;
+	if (chunks.isEmpty()) {
+	    root = emptyNodes[level];
+	    rootRow = 0;
+	    rootCol = 0;
+	    return;
+	}
+
+	// Nodes keyed by their position counted from the first chunk, so every position is 0 or more
+	HashMap<Long, node> levelNodes = new HashMap<Long, node>();
+	for (int slot = 0; slot < chunks.capacity(); slot++) {
+	    if (chunks.value(slot) == null) { continue; }
+
+	    levelNodes.put(ChunkedBoard.chunkKey(ChunkedBoard.chunkRow(chunks.key(slot)) - firstChunkRow,
+		    ChunkedBoard.chunkCol(chunks.key(slot)) - firstChunkCol), buildChunk(chunks.value(slot), level, 0, 0));
+	}
+
+	while ((levelNodes.size() > 1) || !levelNodes.containsKey(ChunkedBoard.chunkKey(0, 0))) {
+	    HashMap<Long, node> parentNodes = new HashMap<Long, node>();
+
+	    for (long key : levelNodes.keySet()) {
+		int parentRow = ChunkedBoard.chunkRow(key) >>> 1, parentCol = ChunkedBoard.chunkCol(key) >>> 1;
+		long parentKey = ChunkedBoard.chunkKey(parentRow, parentCol);
+		if (parentNodes.containsKey(parentKey)) { continue; }
+
+		parentNodes.put(parentKey, join(levelNode(levelNodes, level, parentRow * 2, parentCol * 2),
+			levelNode(levelNodes, level, parentRow * 2, (parentCol * 2) + 1),
+			levelNode(levelNodes, level, (parentRow * 2) + 1, parentCol * 2),
+			levelNode(levelNodes, level, (parentRow * 2) + 1, (parentCol * 2) + 1)));
+	    }
+
+	    levelNodes = parentNodes;
+	    level++;
+	}
+
+	root = levelNodes.get(ChunkedBoard.chunkKey(0, 0));
+	rootRow = (long) firstChunkRow << ChunkedBoard.chunkShift;
+	rootCol = (long) firstChunkCol << ChunkedBoard.chunkShift;
+    }
+
+    private node levelNode(HashMap<Long, node> levelNodes, int level, int row, int col) {
+	node levelNode = levelNodes.get(ChunkedBoard.chunkKey(row, col));
+	return (levelNode == null) ? emptyNodes[level] : levelNode;
+    }
+
+    // Square of a chunk's cells, rows & columns counted from the chunk's corner
+    private node buildChunk(long[] chunk, int level, int row, int col) {
+	int span = 1 << level;
+	long colMask = (span == 64) ? -1L : ((1L << span) - 1) << col;
+	long anyAlive = 0;
+	for (int currentRow = row; currentRow < row + span; currentRow++) { anyAlive |= chunk[currentRow] & colMask; }
+
+	if (anyAlive == 0) { return emptyNodes[level]; }
+	if (level == 0) { return liveCell; }
+
+	int half = span >>> 1;
+	return join(buildChunk(chunk, level - 1, row, col), buildChunk(chunk, level - 1, row, col + half),
+		buildChunk(chunk, level - 1, row + half, col), buildChunk(chunk, level - 1, row + half, col + half));
+    }
+
+    // Write the part of the pattern that lies on the board back into a cleared grid
+    public void store(BitGrid whichGrid) {
+	whichGrid.clear();
+	store(whichGrid, root, rootRow, rootCol);
+    }
+
+    // Write the whole pattern back into a cleared plane
+    public void store(ChunkedBoard plane) {
+	plane.clear();
+	store(plane, root, rootRow, rootCol);
+    }
+
+    public long population() {
+	return root.population;
+    }
+
+    public void advance(long generations) {
+	// One jump of 2^step generations for each bit set in the count
+	for (int step = 0; (generations >>> step) != 0; step++) {
+	    if (((generations >>> step) & 1) != 0) { advanceStep(step); }
+	}
+    }
+
+    // 2^step generations, or twice 2^(step - 1) if the node table outgrows its limit on the way
+    private void advanceStep(int step) {
+	// Need room for the pattern to grow by 2^step cells on every side without reaching the result's edge
+	while ((root.level < step + 3) || (centre(centre(root)).population != root.population)) {
+	    long offset = 1L << (root.level - 1);
+	    root = expand(root);
+	    rootRow -= offset;
+	    rootCol -= offset;
+	}
+
+	node advanced;
+	try {
+	    advanced = result(root, step);
+	}
+	catch (memoryCapReached mcr) {
+	    collectGarbage();
+
+	    if (step > 0) {
+		advanceStep(step - 1);
+		advanceStep(step - 1);
+		return;
+	    }
+
+	    // A single generation can't be split: it's let run past the limit
+	    nodeLimit = Long.MAX_VALUE;
+	    advanced = result(root, step);
+	}
+
+	long offset = 1L << (root.level - 2);
+	root = advanced;
+	rootRow += offset;
+	rootCol += offset;
+
+	if (nodeTable.size() > nodeLimit) { collectGarbage(); }
+    }
+
+    private node join(node nw, node ne, node sw, node se) {
+	node candidate = new node(nw, ne, sw, se);
+	node existing = nodeTable.get(candidate);
+
+	if (existing != null) { return existing; }
+
+	nodeTable.put(candidate, candidate);
+	return candidate;
+    }
+
+    private node build(BitGrid whichGrid, int level, int row, int col) {
+	if ((row >= whichGrid.size()) || (col >= whichGrid.size())) { return emptyNodes[level]; }
+	if (level == 0) { return whichGrid.get(row, col) ? liveCell : deadCell; }
+
+	int half = 1 << (level - 1);
+	return join(build(whichGrid, level - 1, row, col), build(whichGrid, level - 1, row, col + half),
+		build(whichGrid, level - 1, row + half, col), build(whichGrid, level - 1, row + half, col + half));
+    }
+
+    private void store(ChunkedBoard plane, node whichNode, long row, long col) {
+	if (whichNode.population == 0) { return; }
+
+	if (whichNode.level == 0) {
+	    plane.set((int) row, (int) col, true);
+	    return;
+	}
+
+	long half = 1L << (whichNode.level - 1);
+	store(plane, whichNode.nw, row, col);
+	store(plane, whichNode.ne, row, col + half);
+	store(plane, whichNode.sw, row + half, col);
+	store(plane, whichNode.se, row + half, col + half);
+    }
+
+    private void store(BitGrid whichGrid, node whichNode, long row, long col) {
+	long span = 1L << whichNode.level;
+
+	if ((whichNode.population == 0) || (row >= whichGrid.size()) || (col >= whichGrid.size()) || (row + span <= 0) || (col + span <= 0)) {
+	    return;
+	}
+
+	if (whichNode.level == 0) {
+	    whichGrid.set((int) row, (int) col, true);
+	    return;
+	}
+
+	long half = span >>> 1;
+	store(whichGrid, whichNode.nw, row, col);
+	store(whichGrid, whichNode.ne, row, col + half);
+	store(whichGrid, whichNode.sw, row + half, col);
+	store(whichGrid, whichNode.se, row + half, col + half);
+    }
+
+    // Same square one level up, surrounded by empty space
+    private node expand(node whichNode) {
+	node border = emptyNodes[whichNode.level - 1];
+
+	return join(join(border, border, border, whichNode.nw), join(border, border, whichNode.ne, border),
+		join(border, whichNode.sw, border, border), join(whichNode.se, border, border, border));
+    }
+
+    // Centre square, half the size, no time passing
+    private node centre(node whichNode) {
+	return join(whichNode.nw.se, whichNode.ne.sw, whichNode.sw.ne, whichNode.se.nw);
+    }
+
+    // Square straddling the edge between two side by side squares
+    private node horizontalMiddle(node west, node east) {
+	return join(west.ne, east.nw, west.se, east.sw);
+    }
+
+    // Square straddling the edge between two stacked squares
+    private node verticalMiddle(node north, node south) {
+	return join(north.sw, north.se, south.nw, south.ne);
+    }
+
+    // Centre of the square after 2^step generations, or 2^(level - 2) if that is less
+    private node result(node whichNode, int step) {
+	if (whichNode.population == 0) { return emptyNodes[whichNode.level - 1]; }
+	if (nodeTable.size() > nodeLimit) { throw capReached; }
+	if (whichNode.level == 2) { return levelTwoResult(whichNode); }
+
+	boolean fullSpeed = (step >= whichNode.level - 2);
+	if (fullSpeed && (whichNode.fullResult != null)) { return whichNode.fullResult; }
+	if (!fullSpeed && (whichNode.slowStep == step)) { return whichNode.slowResult; }
+
+	// Nine overlapping squares, one level down
+	node n00 = whichNode.nw, n02 = whichNode.ne, n20 = whichNode.sw, n22 = whichNode.se;
+	node n01 = horizontalMiddle(whichNode.nw, whichNode.ne);
+	node n10 = verticalMiddle(whichNode.nw, whichNode.sw);
+	node n11 = centre(whichNode);
+	node n12 = verticalMiddle(whichNode.ne, whichNode.se);
+	node n21 = horizontalMiddle(whichNode.sw, whichNode.se);
+
+	node answer;
+	if (fullSpeed) {
+	    // Two half steps: advance the nine squares, then the four squares built from them
+	    n00 = result(n00, step); n01 = result(n01, step); n02 = result(n02, step);
+	    n10 = result(n10, step); n11 = result(n11, step); n12 = result(n12, step);
+	    n20 = result(n20, step); n21 = result(n21, step); n22 = result(n22, step);
+
+	    answer = join(result(join(n00, n01, n10, n11), step), result(join(n01, n02, n11, n12), step),
+		    result(join(n10, n11, n20, n21), step), result(join(n11, n12, n21, n22), step));
+	    whichNode.fullResult = answer;
+	}
+	else {
+	    // Only the second half step moves time on: the nine squares are just cut down to their centres
+	    n00 = centre(n00); n01 = centre(n01); n02 = centre(n02);
+	    n10 = centre(n10); n11 = centre(n11); n12 = centre(n12);
+	    n20 = centre(n20); n21 = centre(n21); n22 = centre(n22);
+
+	    answer = join(result(join(n00, n01, n10, n11), step), result(join(n01, n02, n11, n12), step),
+		    result(join(n10, n11, n20, n21), step), result(join(n11, n12, n21, n22), step));
+	    whichNode.slowResult = answer;
+	    whichNode.slowStep = step;
+	}
+
+	return answer;
+    }
+
+    // 4 x 4 square: one generation for its 2 x 2 centre, looked up by the 16 cell pattern
+    private node levelTwoResult(node whichNode) {
+	int cells = 0;
+
+	for (int row = 0; row < 4; row++) {
+	    for (int col = 0; col < 4; col++) {
+		if (cellAt(whichNode, row, col)) { cells |= 1 << ((row * 4) + col); }
+	    }
+	}
+
+	node answer = levelTwoResults[cells];
+	if (answer == null) {
+	    answer = join(nextCell(cells, 1, 1) ? liveCell : deadCell, nextCell(cells, 1, 2) ? liveCell : deadCell,
+		    nextCell(cells, 2, 1) ? liveCell : deadCell, nextCell(cells, 2, 2) ? liveCell : deadCell);
+	    levelTwoResults[cells] = answer;
+	}
+
+	return answer;
+    }
+
+    private boolean cellAt(node whichNode, int row, int col) {
+	while (whichNode.level > 0) {
+	    int half = 1 << (whichNode.level - 1);
+
+	    if (row < half) { whichNode = (col < half) ? whichNode.nw : whichNode.ne; }
+	    else { whichNode = (col < half) ? whichNode.sw : whichNode.se; }
+
+	    row %= half;
+	    col %= half;
+	}
+
+	return whichNode.population != 0;
+    }
+
+    private boolean nextCell(int cells, int row, int col) {
+	int howManyActiveNeighbors = 0;
+
+	for (int rowOffset = -1; rowOffset <= 1; rowOffset++) {
+	    for (int colOffset = -1; colOffset <= 1; colOffset++) {
+		if ((rowOffset == 0) && (colOffset == 0)) { continue; }
+		if ((cells & (1 << (((row + rowOffset) * 4) + col + colOffset))) != 0) { howManyActiveNeighbors++; }
+	    }
+	}
+
+	return rule.nextState((cells & (1 << ((row * 4) + col))) != 0, howManyActiveNeighbors);
+    }
+
+    // Keep only the nodes the current pattern is built from, and forget every remembered result
+    private void collectGarbage() {
+	nodeTable = new HashMap<node, node>();
+
+	// The 2 x 2 squares are few enough to keep them all, along with the 4 x 4 lookup that returns them
+	for (node levelOneNode : levelTwoResults) {
+	    if (levelOneNode != null) { keep(levelOneNode); }
+	}
+
+	for (int level = 1; level < emptyNodes.length; level++) { keep(emptyNodes[level]); }
+	keep(root);
+
+	nodeLimit = Math.max(maximumNodes, 2L * nodeTable.size());
+    }
+
+    private void keep(node whichNode) {
+	if ((whichNode.level == 0) || nodeTable.containsKey(whichNode)) { return; }
+
+	whichNode.fullResult = null;
+	whichNode.slowResult = null;
+	whichNode.slowStep = -1;
+
+	keep(whichNode.nw);
+	keep(whichNode.ne);
+	keep(whichNode.sw);
+	keep(whichNode.se);
+	nodeTable.put(whichNode, whichNode);
+    }
+}
@@ -0,0 +1,424 @@
+package gameoflife;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+
+/* Headless batch runner: steps a board for a fixed number of generations without any window.
+ * Uses only the boards, ParallelStepper & LifeRule, so no AWT / Swing classes are ever loaded.
+ *
+ * java -cp target/classes gameoflife.LifeBatch --generations 10000 --size 1024 --min 2 --max 3 --on 6 --off 8 --wrap --pattern glider.cells
+ *
+ * Reports generations per second and the final population on one line, for scripting parameter sweeps.
+ * --infinite steps the pattern on the unbounded ChunkedBoard instead, reporting the chunks in use rather than active tiles.
+ * --mapped keeps the board in a memory-mapped file (MappedGrid), for boards bigger than the heap: a new file is made --size
+ * cells across, an existing one carries on from where the last run left off, with any --pattern stamped on top.
+ * --load starts from a saved game (SavedGame): its board, generation count & settings, as if given before any other options,
+ * so options after it change them; a loaded grid keeps its size, a loaded plane runs as --infinite. --save saves the game at the end.
+ * Either prints how long it took on a line of its own.
+ * --pattern reads RLE, plaintext or Life 1.06 (PatternFile); an RLE file's rule is used when no rule options are given.
+ * --stop-on-cycle stops early once the grid settles into a still life or cycle (CycleDetector), printing the period & the
+ * generation it was first seen at on a line of its own; generations then counts those actually stepped.
+ * --statistics writes the grid's population, births, deaths, bounding box & neighbor counts for every generation stepped
+ * (GenerationStatistics), as text to a .csv file or binary to any other, on a thread of its own (StatisticsWriter).
+ *
+ * Steady state stepping should allocate nothing: the bytes allocated per generation by every thread, after the first tenth
+ * of the generations has warmed things up, are reported too. --max-allocation makes more than that many an error (exit code 1).
+ */
+public class LifeBatch {
+    private static final String usage =
+	    "Usage: java gameoflife.LifeBatch --generations <count> [--size <cells>] [--min <1-8>] [--max <1-8>]\n"
+	    + "                                 [--on <n,n,..>] [--off <n,n,..>] [--wildcards-only] [--wrap]\n"
+	    + "                                 [--mode bw|grey|color] [--threads <count>] [--pattern <file>]\n"
+	    + "                                 [--kernel scalar|vector] [--infinite] [--mapped <file>] [--max-allocation <bytes>]\n"
+	    + "                                 [--load <file>] [--save <file>] [--stop-on-cycle] [--statistics <file>]";
+
+    // Same defaults as the rule panel & main grid
+    private static int gridSize = 360, generations = -1, threads = Runtime.getRuntime().availableProcessors(), maximumAllocation = -1;
+    private static int minimumOnMaximumOff = 2, maximumOnMinimumOff = 3;
+    private static boolean[] wildcardsOn = new boolean[9];
+    private static boolean[] wildcardsOff = new boolean[9];
+    private static boolean wildcardsOnly = false, wrapAround = false, blackWhite = true;
+    private static boolean vectorKernel = ParallelStepper.isVectorSupported(), infinitePlane = false;
+    private static String patternFile, mappedFile, saveFile, statisticsFile;
+    private static SavedGame loadedGame;
+    private static PatternFile pattern;
+    private static boolean ruleOptions = false, stopOnCycle = false;
+    private static int displayMode = SavedGame.blackWhite;
+
+    public static void main(String[] args) {
+	try {
+	    parseArguments(args);
+	}
+	catch (IllegalArgumentException iae) {
+	    System.err.println(iae.getMessage());
+	    System.err.println(usage);
+	    System.exit(2);
+	}
+
+	readPattern();
+	LifeRule rule = LifeRule.fromSettings(minimumOnMaximumOff, maximumOnMinimumOff, wildcardsOnly, wildcardsOn, wildcardsOff, blackWhite);
+
+	// An RLE file's rule, unless the command line or a loaded game gives rule settings of its own
+	if ((pattern != null) && (pattern.getRule() != null) && !ruleOptions) {
+	    rule = pattern.getRule();
+	    if (saveFile != null) { System.err.println("The saved game keeps the rule settings, not the pattern's rule " + rule); }
+	}
+
+	if (mappedFile != null) {
+	    runMapped(rule);
+	    return;
+	}
+
+	// A loaded plane starts from the empty grid, with any pattern, stamped on top
+	BitGrid currentGrid = ((loadedGame != null) && (loadedGame.getBoard() instanceof BitGrid)) ? (BitGrid) loadedGame.getBoard() : new BitGrid(gridSize);
+	gridSize = currentGrid.size();
+	BitGrid nextGrid = new BitGrid(gridSize);
+	loadPattern(currentGrid, gridSize);
+
+	if (infinitePlane) {
+	    runInfinitePlane(currentGrid, rule);
+	    return;
+	}
+
+	ParallelStepper stepper = new ParallelStepper(threads);
+	stepper.setVectorized(vectorKernel);
+	ActiveTiles activeTiles = new ActiveTiles(gridSize);
+	int initialPopulation = currentGrid.population();
+	CycleDetector cycles = stopOnCycle ? new CycleDetector() : null;
+	if (cycles != null) { cycles.sync(currentGrid, loadedGeneration()); }
+	GenerationStatistics statistics = (statisticsFile != null) ? new GenerationStatistics(4096) : null;
+	StatisticsWriter statisticsWriter = (statistics != null) ? openStatistics(statistics, gridSize) : null;
+
+	long startTime = System.nanoTime(), warmAllocation = 0;
+	int steppedGenerations = 0;
+	while (steppedGenerations < generations) {
+	    if (steppedGenerations == warmGenerations()) { warmAllocation = allocatedBytes(); }
+	    stepper.step(currentGrid, nextGrid, wrapAround, rule, activeTiles, statistics);
+	    steppedGenerations++;
+	    if (statistics != null) { statistics.record(loadedGeneration() + steppedGenerations); }
+
+	    BitGrid swapGrid = currentGrid;
+	    currentGrid = nextGrid;
+	    nextGrid = swapGrid;
+
+	    if ((cycles != null) && cycles.update(nextGrid, currentGrid, activeTiles, loadedGeneration() + steppedGenerations)) {
+		System.out.printf("cycle period=%d firstGeneration=%d generation=%d%n", cycles.period(), cycles.firstGeneration(),
+			loadedGeneration() + steppedGenerations);
+		break;
+	    }
+	}
+	long elapsedTime = System.nanoTime() - startTime;
+	double bytesPerGeneration = allocationPerGeneration(warmAllocation, steppedGenerations);
+	stepper.shutdown();
+
+	double seconds = elapsedTime / 1e9;
+	double generationsPerSecond = (seconds > 0) ? steppedGenerations / seconds : 0;
+
+	System.out.printf("size=%d generations=%d threads=%d kernel=%s wrap=%b initialPopulation=%d finalPopulation=%d activeTiles=%d/%d seconds=%.3f generationsPerSecond=%.1f allocatedBytesPerGeneration=%.1f%n",
+		gridSize, steppedGenerations, stepper.getThreads(), stepper.isVectorized() ? "vector" : "scalar", wrapAround, initialPopulation, currentGrid.population(),
+		activeTiles.activeCount(), activeTiles.tileCount(), seconds, generationsPerSecond, bytesPerGeneration);
+	closeStatistics(statisticsWriter);
+	saveGame(currentGrid, loadedGeneration() + steppedGenerations);
+	checkAllocation(bytesPerGeneration);
+    }
+
+    // Every tile is stepped in the first generation, as a new ActiveTiles has them all marked
+    private static StatisticsWriter openStatistics(GenerationStatistics statistics, int boardSize) {
+	statistics.prepare(boardSize);
+
+	try {
+	    return new StatisticsWriter(statistics, Paths.get(statisticsFile));
+	}
+	catch (IOException ioe) {
+	    System.err.println("Cannot write statistics file " + statisticsFile + ": " + ioe.getMessage());
+	    System.exit(1);
+	    return null;
+	}
+    }
+
+    private static void closeStatistics(StatisticsWriter statisticsWriter) {
+	if (statisticsWriter == null) { return; }
+
+	try {
+	    statisticsWriter.close();
+	    System.out.printf("statistics=%s records=%d%n", statisticsFile, statisticsWriter.records());
+	}
+	catch (IOException ioe) {
+	    System.err.println("Cannot write statistics file " + statisticsFile + ": " + ioe.getMessage());
+	    System.exit(1);
+	}
+    }
+
+    // Stepped on the calling thread, streaming rows through the file; the heap only ever holds a few rows of it
+    private static void runMapped(LifeRule rule) {
+	MappedGrid board = null;
+
+	try {
+	    board = MappedGrid.open(Paths.get(mappedFile), gridSize);
+	}
+	catch (IOException ioe) {
+	    System.err.println("Cannot open board file " + mappedFile + ": " + ioe.getMessage());
+	    System.exit(1);
+	}
+
+	loadPattern(board, board.size());
+	ActiveTiles activeTiles = new ActiveTiles(board.size());
+	long startGeneration = board.generation(), initialPopulation = board.population();
+
+	long startTime = System.nanoTime(), warmAllocation = 0;
+	for (int generation = 0; generation < generations; generation++) {
+	    if (generation == warmGenerations()) { warmAllocation = allocatedBytes(); }
+	    board.step(wrapAround, rule, activeTiles);
+	}
+	long elapsedTime = System.nanoTime() - startTime;
+	double bytesPerGeneration = allocationPerGeneration(warmAllocation);
+	board.flush();
+
+	double seconds = elapsedTime / 1e9;
+	double generationsPerSecond = (seconds > 0) ? generations / seconds : 0;
+
+	System.out.printf("mapped=%s size=%d startGeneration=%d generations=%d wrap=%b initialPopulation=%d finalPopulation=%d activeTiles=%d/%d seconds=%.3f generationsPerSecond=%.1f allocatedBytesPerGeneration=%.1f%n",
+		mappedFile, board.size(), startGeneration, generations, wrapAround, initialPopulation, board.population(),
+		activeTiles.activeCount(), activeTiles.tileCount(), seconds, generationsPerSecond, bytesPerGeneration);
+	saveGame(board, board.generation());
+	checkAllocation(bytesPerGeneration);
+    }
+
+    private static long loadedGeneration() {
+	return (loadedGame != null) ? loadedGame.getGeneration() : 0;
+    }
+
+    private static void loadGame(String fileName) {
+	try {
+	    long startTime = System.nanoTime();
+	    loadedGame = SavedGame.load(Paths.get(fileName));
+	    System.out.printf("loaded=%s generation=%d seconds=%.3f%n", fileName, loadedGame.getGeneration(), (System.nanoTime() - startTime) / 1e9);
+	}
+	catch (IOException ioe) {
+	    System.err.println("Cannot load game " + fileName + ": " + ioe.getMessage());
+	    System.exit(1);
+	}
+
+	wrapAround = loadedGame.isWrapAround();
+	minimumOnMaximumOff = loadedGame.getMinimumOnMaximumOff();
+	maximumOnMinimumOff = loadedGame.getMaximumOnMinimumOff();
+	wildcardsOnly = loadedGame.isWildcardsOnly();
+	wildcardsOn = loadedGame.getWildcardsOn();
+	wildcardsOff = loadedGame.getWildcardsOff();
+	displayMode = loadedGame.getDisplayMode();
+	blackWhite = (displayMode == SavedGame.blackWhite);
+	if (loadedGame.getBoard() instanceof ChunkedBoard) { infinitePlane = true; }
+    }
+
+    private static void saveGame(LifeBoard board, long generation) {
+	if (saveFile == null) { return; }
+
+	try {
+	    long startTime = System.nanoTime();
+	    new SavedGame(board, generation, wrapAround, minimumOnMaximumOff, maximumOnMinimumOff, wildcardsOnly, wildcardsOn, wildcardsOff,
+		    displayMode).save(Paths.get(saveFile));
+	    System.out.printf("saved=%s generation=%d seconds=%.3f%n", saveFile, generation, (System.nanoTime() - startTime) / 1e9);
+	}
+	catch (IOException ioe) {
+	    System.err.println("Cannot save game " + saveFile + ": " + ioe.getMessage());
+	    System.exit(1);
+	}
+    }
+
+    private static int warmGenerations() {
+	return generations / 10;
+    }
+
+    // Bytes allocated so far by every live thread, the stepper's pool included
+    private static long allocatedBytes() {
+	com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+	long allocated = 0;
+
+	for (long threadBytes : threadBean.getThreadAllocatedBytes(threadBean.getAllThreadIds())) {
+	    if (threadBytes > 0) { allocated += threadBytes; }
+	}
+
+	return allocated;
+    }
+
+    private static double allocationPerGeneration(long warmAllocation) {
+	return allocationPerGeneration(warmAllocation, generations);
+    }
+
+    // Nothing is measured for a run stopped before it warmed up
+    private static double allocationPerGeneration(long warmAllocation, int steppedGenerations) {
+	int measuredGenerations = steppedGenerations - warmGenerations();
+	return (measuredGenerations > 0) ? (allocatedBytes() - warmAllocation) / (double) measuredGenerations : 0;
+    }
+
+    private static void checkAllocation(double bytesPerGeneration) {
+	if ((maximumAllocation >= 0) && (bytesPerGeneration > maximumAllocation)) {
+	    System.err.printf("Allocated %.1f bytes per generation, more than the %d allowed%n", bytesPerGeneration, maximumAllocation);
+	    System.exit(1);
+	}
+    }
+
+    // The pattern starts where it would on the grid, then has all the room it needs
+    private static void runInfinitePlane(BitGrid startGrid, LifeRule rule) {
+	ChunkedBoard currentPlane = ((loadedGame != null) && (loadedGame.getBoard() instanceof ChunkedBoard)) ? (ChunkedBoard) loadedGame.getBoard() : new ChunkedBoard();
+	ChunkedBoard nextPlane = new ChunkedBoard();
+	currentPlane.copyBlock(startGrid, 0, 0, 0, 0, startGrid.size(), true);
+	long initialPopulation = currentPlane.population();
+
+	long startTime = System.nanoTime(), warmAllocation = 0;
+	for (int generation = 0; generation < generations; generation++) {
+	    if (generation == warmGenerations()) { warmAllocation = allocatedBytes(); }
+	    nextPlane.step(currentPlane, rule);
+
+	    ChunkedBoard swapPlane = currentPlane;
+	    currentPlane = nextPlane;
+	    nextPlane = swapPlane;
+	}
+	long elapsedTime = System.nanoTime() - startTime;
+	double bytesPerGeneration = allocationPerGeneration(warmAllocation);
+
+	double seconds = elapsedTime / 1e9;
+	double generationsPerSecond = (seconds > 0) ? generations / seconds : 0;
+
+	System.out.printf("infinite generations=%d initialPopulation=%d finalPopulation=%d chunks=%d seconds=%.3f generationsPerSecond=%.1f allocatedBytesPerGeneration=%.1f%n",
+		generations, initialPopulation, currentPlane.population(), currentPlane.chunkCount(), seconds, generationsPerSecond, bytesPerGeneration);
+	saveGame(currentPlane, loadedGeneration() + generations);
+	checkAllocation(bytesPerGeneration);
+    }
+
+    private static void parseArguments(String[] args) {
+	for (int index = 0; index < args.length; index++) {
+	    String option = args[index];
+	    if (option.equals("--min") || option.equals("--max") || option.equals("--on") || option.equals("--off")
+		    || option.equals("--wildcards-only") || option.equals("--mode") || option.equals("--load")) { ruleOptions = true; }
+
+	    switch (option) {
+		case "--size":		gridSize = intArgument(args, ++index, option, 3, Integer.MAX_VALUE);
+					break;
+		case "--generations":	generations = intArgument(args, ++index, option, 0, Integer.MAX_VALUE);
+					break;
+		case "--threads":	threads = intArgument(args, ++index, option, 1, 1024);
+					break;
+		case "--min":		minimumOnMaximumOff = intArgument(args, ++index, option, 1, 8);
+					break;
+		case "--max":		maximumOnMinimumOff = intArgument(args, ++index, option, 1, 8);
+					break;
+		case "--on":		wildcardArgument(args, ++index, option, wildcardsOn);
+					break;
+		case "--off":		wildcardArgument(args, ++index, option, wildcardsOff);
+					break;
+		case "--wildcards-only":	wildcardsOnly = true;
+					break;
+		case "--wrap":		wrapAround = true;
+					break;
+		case "--mode":		displayMode = modeArgument(args, ++index, option);
+					blackWhite = (displayMode == SavedGame.blackWhite);
+					break;
+		case "--pattern":	patternFile = stringArgument(args, ++index, option);
+					break;
+		case "--kernel":	vectorKernel = kernelArgument(args, ++index, option);
+					break;
+		case "--infinite":	infinitePlane = true;
+					break;
+		case "--mapped":	mappedFile = stringArgument(args, ++index, option);
+					break;
+		case "--load":		loadGame(stringArgument(args, ++index, option));
+					break;
+		case "--save":		saveFile = stringArgument(args, ++index, option);
+					break;
+		case "--stop-on-cycle":	stopOnCycle = true;
+					break;
+		case "--statistics":	statisticsFile = stringArgument(args, ++index, option);
+					break;
+		case "--max-allocation":	maximumAllocation = intArgument(args, ++index, option, 0, Integer.MAX_VALUE);
+					break;
+		default:		throw new IllegalArgumentException("Unknown option " + option);
+	    }
+	}
+
+	if (generations < 0) { throw new IllegalArgumentException("--generations is required"); }
+	if ((statisticsFile != null) && (infinitePlane || (mappedFile != null))) {
+	    throw new IllegalArgumentException("--statistics is only gathered on the grid, not with --infinite or --mapped");
+	}
+    }
+
+    private static String stringArgument(String[] args, int index, String option) {
+	if (index >= args.length) { throw new IllegalArgumentException(option + " needs a value"); }
+	return args[index];
+    }
+
+    private static int intArgument(String[] args, int index, String option, int minimum, int maximum) {
+	String value = stringArgument(args, index, option);
+	int number;
+
+	try {
+	    number = Integer.parseInt(value);
+	}
+	catch (NumberFormatException nfe) {
+	    throw new IllegalArgumentException(option + " needs a whole number, not " + value);
+	}
+
+	if ((number < minimum) || (number > maximum)) {
+	    throw new IllegalArgumentException(option + " must be between " + minimum + " and " + maximum);
+	}
+
+	return number;
+    }
+
+    // Comma separated neighbor counts 1 through 8, matching the wildcard checkboxes
+    private static void wildcardArgument(String[] args, int index, String option, boolean[] optionList) {
+	for (String count : stringArgument(args, index, option).split(",")) {
+	    String[] single = { count.trim() };
+	    optionList[intArgument(single, 0, option, 1, 8)] = true;
+	}
+    }
+
+    // Only black & white steps differently: grey & color modes keep cells outside the min/max range alive
+    private static int modeArgument(String[] args, int index, String option) {
+	String mode = stringArgument(args, index, option);
+
+	switch (mode) {
+	    case "bw":		return SavedGame.blackWhite;
+	    case "grey":	return SavedGame.greyScale;
+	    case "color":	return SavedGame.colorScale;
+	    default:		throw new IllegalArgumentException(option + " must be bw, grey or color");
+	}
+    }
+
+    // The vector kernel also needs java --add-modules jdk.incubator.vector
+    private static boolean kernelArgument(String[] args, int index, String option) {
+	String kernel = stringArgument(args, index, option);
+
+	switch (kernel) {
+	    case "scalar":	return false;
+	    case "vector":	if (!ParallelStepper.isVectorSupported()) {
+				    throw new IllegalArgumentException(option + " vector needs java --add-modules jdk.incubator.vector");
+				}
+				return true;
+	    default:		throw new IllegalArgumentException(option + " must be scalar or vector");
+	}
+    }
+
+    // Pattern file in any of PatternFile's formats
+    private static void readPattern() {
+	if (patternFile == null) { return; }
+
+	try {
+	    pattern = PatternFile.read(Paths.get(patternFile));
+	}
+	catch (IOException ioe) {
+	    System.err.println("Cannot read pattern file " + patternFile + ": " + ioe.getMessage());
+	    System.exit(1);
+	}
+
+	if ((pattern.getRuleText() != null) && (pattern.getRule() == null)) {
+	    System.err.println("Pattern rule " + pattern.getRuleText() + " isn't a B/S rule, so it's left out");
+	}
+    }
+
+    // Centred on the board, over whatever is there already
+    private static void loadPattern(LifeBoard board, int boardSize) {
+	if (pattern != null) { pattern.stamp(board, (boardSize - pattern.rows()) / 2, (boardSize - pattern.cols()) / 2, boardSize); }
+    }
+}
@@ -0,0 +1,45 @@
+package gameoflife;
+
+/* Board the simulation runs on: the fixed square BitGrid, or the unbounded ChunkedBoard of the infinite plane.
+ * Edits, snapshots & painting go through this, so they work the same on either.
+ * Rows & columns are plain ints: 0 to size - 1 on a BitGrid, anything at all (negatives too) on a ChunkedBoard.
+ */
+public interface LifeBoard {
+    boolean get(int row, int col);
+
+    void set(int row, int col, boolean alive);
+
+    void clear();
+
+    // 64 cells of a row from col on, bit 0 = col: past a BitGrid's edges they wrap around or are dead
+    long cells(int row, int col, boolean wrapAround);
+
+    // Stamp a square block of a grid onto the board, as BitGrid.copyBlock
+    void copyBlock(BitGrid fromGrid, int fromRow, int fromCol, int toRow, int toCol, int blockSize, boolean liveOnly);
+
+    // Separate copy of the board as it is now, for snapshots
+    LifeBoard copy();
+
+    // Same, filling in spareBoard when it's the same kind & size of board, rather than allocating a new one
+    LifeBoard copy(LifeBoard spareBoard);
+
+    /* Live cells in part of a row, counted block by block: count cells from col on, in blocks of blockSize cells (a power of 2),
+     * each block's count added to its entry of blockCounts.
+     * Zoomed out painting adds up the cells behind each pixel this way, a whole word of the row at a time.
+     */
+    default void countBlocks(int row, int col, int count, int blockSize, int[] blockCounts) {
+	int lastCol = col + count, blockShift = Integer.numberOfTrailingZeros(blockSize);
+	long blockMask = (blockSize >= 64) ? -1L : (1L << blockSize) - 1;
+
+	for (int currentCol = col; currentCol < lastCol; currentCol += 64) {
+	    long bits = cells(row, currentCol, false);
+	    if (lastCol - currentCol < 64) { bits &= (1L << (lastCol - currentCol)) - 1; }
+
+	    // Blocks of 64 or more take whole words, smaller ones split each word between them
+	    for (int block = (currentCol - col) >>> blockShift; bits != 0; block++) {
+		blockCounts[block] += Long.bitCount(bits & blockMask);
+		bits = (blockSize >= 64) ? 0 : bits >>> blockSize;
+	    }
+	}
+    }
+}
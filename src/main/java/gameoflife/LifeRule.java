@@ -0,0 +1,174 @@
+package gameoflife;
+
+// Immutable transition table giving the next state of a cell from (alive, neighbor count), compiled from GameOfLife's rule panel settings
+public class LifeRule {
+    // Rule panel defaults: born with 3 neighbors, survives with 2 or 3
+    public static final LifeRule standard = new LifeRule(1 << 3, (1 << 2) | (1 << 3));
+
+    private final int birthRule, survivalRule;
+
+    // Next state indexed by (alive ? 9 : 0) + neighbor count
+    private final boolean[] transitions = new boolean[18];
+
+    /* The same table as BitGrid uses it, one term per neighbor count that turns some cell on:
+     * 4 words flipping the count bitplanes so they all read 1 for that count, then the dead & alive cell masks.
+     */
+    final long[] terms;
+
+    public LifeRule(int birthRule, int survivalRule) {
+	this.birthRule = birthRule & 0x1ff;
+	this.survivalRule = survivalRule & 0x1ff;
+
+	int termCount = 0;
+	for (int howManyActiveNeighbors = 0; howManyActiveNeighbors <= 8; howManyActiveNeighbors++) {
+	    transitions[howManyActiveNeighbors] = (this.birthRule & (1 << howManyActiveNeighbors)) != 0;
+	    transitions[9 + howManyActiveNeighbors] = (this.survivalRule & (1 << howManyActiveNeighbors)) != 0;
+
+	    if (transitions[howManyActiveNeighbors] || transitions[9 + howManyActiveNeighbors]) { termCount++; }
+	}
+
+	terms = new long[termCount * 6];
+	int term = 0;
+	for (int howManyActiveNeighbors = 0; howManyActiveNeighbors <= 8; howManyActiveNeighbors++) {
+	    if (!transitions[howManyActiveNeighbors] && !transitions[9 + howManyActiveNeighbors]) { continue; }
+
+	    for (int countBit = 0; countBit < 4; countBit++) {
+		terms[term + countBit] = ((howManyActiveNeighbors & (1 << countBit)) != 0) ? 0 : -1L;
+	    }
+	    terms[term + 4] = transitions[howManyActiveNeighbors] ? -1L : 0;
+	    terms[term + 5] = transitions[9 + howManyActiveNeighbors] ? -1L : 0;
+	    term += 6;
+	}
+    }
+
+    // Compile the rule panel settings, see birthRule & survivalRule below
+    public static LifeRule fromSettings(int minimumOnMaximumOff, int maximumOnMinimumOff, boolean wildcardsOnly,
+	    boolean[] wildcardsOn, boolean[] wildcardsOff, boolean blackWhite) {
+	return new LifeRule(birthRule(maximumOnMinimumOff, wildcardsOnly, wildcardsOn),
+		survivalRule(minimumOnMaximumOff, maximumOnMinimumOff, wildcardsOnly, wildcardsOff, blackWhite));
+    }
+
+    public int getBirthRule() {
+	return birthRule;
+    }
+
+    public int getSurvivalRule() {
+	return survivalRule;
+    }
+
+    public boolean nextState(boolean alive, int howManyActiveNeighbors) {
+	return transitions[(alive ? 9 : 0) + howManyActiveNeighbors];
+    }
+
+    @Override
+    public boolean equals(Object other) {
+	if (!(other instanceof LifeRule)) { return false; }
+
+	LifeRule otherRule = (LifeRule) other;
+	return (birthRule == otherRule.birthRule) && (survivalRule == otherRule.survivalRule);
+    }
+
+    @Override
+    public int hashCode() {
+	return (birthRule << 9) | survivalRule;
+    }
+
+    // The usual B/S notation, as in pattern files: B3/S23 for the standard rule
+    @Override
+    public String toString() {
+	return "B" + counts(birthRule) + "/S" + counts(survivalRule);
+    }
+
+    /* Read a rule in B/S notation (B3/S23, in either case, either way round) or the older survival/birth notation (23/3).
+     * Anything after a ':' (a pattern file's bounded grid size) is left out.
+     */
+    public static LifeRule parse(String ruleText) {
+	String[] parts = ruleText.split(":", 2)[0].trim().split("/", -1);
+	if (parts.length != 2) { throw new IllegalArgumentException("Not a B/S rule: " + ruleText); }
+
+	int birthRule = 0, survivalRule = 0;
+	boolean lettered = false;
+
+	for (int part = 0; part < 2; part++) {
+	    String counts = parts[part].trim();
+	    char letter = counts.isEmpty() ? ' ' : Character.toUpperCase(counts.charAt(0));
+
+	    if ((letter == 'B') || (letter == 'S')) {
+		lettered = true;
+		if (letter == 'B') { birthRule = countBits(counts.substring(1), ruleText); }
+		else { survivalRule = countBits(counts.substring(1), ruleText); }
+	    }
+	    else if (lettered) { throw new IllegalArgumentException("Not a B/S rule: " + ruleText); }
+	    else if (part == 0) { survivalRule = countBits(counts, ruleText); }
+	    else { birthRule = countBits(counts, ruleText); }
+	}
+
+	return new LifeRule(birthRule, survivalRule);
+    }
+
+    private static int countBits(String counts, String ruleText) {
+	int bits = 0;
+
+	for (int index = 0; index < counts.length(); index++) {
+	    int howManyActiveNeighbors = counts.charAt(index) - '0';
+	    if ((howManyActiveNeighbors < 0) || (howManyActiveNeighbors > 8)) { throw new IllegalArgumentException("Not a B/S rule: " + ruleText); }
+
+	    bits |= (1 << howManyActiveNeighbors);
+	}
+
+	return bits;
+    }
+
+    private static String counts(int bits) {
+	StringBuilder counts = new StringBuilder();
+
+	for (int howManyActiveNeighbors = 0; howManyActiveNeighbors <= 8; howManyActiveNeighbors++) {
+	    if ((bits & (1 << howManyActiveNeighbors)) != 0) { counts.append(howManyActiveNeighbors); }
+	}
+
+	return counts.toString();
+    }
+
+    // Dead cells that turn on, one bit per neighbor count (bit n set = n live neighbors)
+    public static int birthRule(int maximumOnMinimumOff, boolean wildcardsOnly, boolean[] wildcardsOn) {
+	int birthRule = 0;
+
+	for (int howManyActiveNeighbors = 1; howManyActiveNeighbors <= 8; howManyActiveNeighbors++) {
+	    // Basic rule: dead cell with exactly max. on / min. off neighbors turns on
+	    boolean born = (!wildcardsOnly) && (howManyActiveNeighbors == maximumOnMinimumOff);
+
+	    // Additional rules, implemented by wildcard on checkboxes
+	    if (wildcardsOn[howManyActiveNeighbors]) { born = true; }
+
+	    if (born) { birthRule |= (1 << howManyActiveNeighbors); }
+	}
+
+	return birthRule;
+    }
+
+    // Live cells that stay on
+    public static int survivalRule(int minimumOnMaximumOff, int maximumOnMinimumOff, boolean wildcardsOnly, boolean[] wildcardsOff, boolean blackWhite) {
+	int survivalRule = 0;
+
+	for (int howManyActiveNeighbors = 1; howManyActiveNeighbors <= 8; howManyActiveNeighbors++) {
+	    boolean survives = false;
+
+	    if (!wildcardsOnly) {	// Allows more flexibility than always having range of values active
+		if ((howManyActiveNeighbors < minimumOnMaximumOff) || (howManyActiveNeighbors > maximumOnMinimumOff)) {
+		    // Grey & color modes keep the neighbor count as the cell value, so a cell outside the range stays on
+		    survives = !blackWhite;
+		}
+		else if ((howManyActiveNeighbors == minimumOnMaximumOff) || (howManyActiveNeighbors == maximumOnMinimumOff)) {
+		    survives = true;
+		}
+	    }
+
+	    // Additional rules, implemented by wildcard off checkboxes
+	    if (wildcardsOff[howManyActiveNeighbors]) { survives = false; }
+
+	    if (survives) { survivalRule |= (1 << howManyActiveNeighbors); }
+	}
+
+	return survivalRule;
+    }
+}
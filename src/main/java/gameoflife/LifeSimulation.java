@@ -0,0 +1,600 @@
+package gameoflife;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/* Runs generations on its own thread, apart from Swing painting:
+ * 1. Only the simulation thread touches the boards; everything else is sent through the command queue
+ * 2. Generations run as fast as possible, or at most one per target delay
+ * 3. Immutable snapshots are published when the renderer asks for one, so slow painting drops frames, not generations
+ * 4. Snapshots the renderer hands back are filled in again for later ones, so a running board isn't copied into new memory every frame
+ * 5. The fixed grid's last generations & edits are kept in a GenerationHistory, to step back & scrub through
+ * 6. The fixed grid is watched for a still life or cycle by a CycleDetector, which can pause the run when it finds one
+ * 7. Step times, rates & population go into SimulationMetrics, for the overlay & JMX
+ */
+public class LifeSimulation implements Runnable {
+    /* Copy of the board as it was after a given generation.
+     * The board is never written again once published, so it can be painted from any thread.
+     */
+    public static class snapshot {
+	private final LifeBoard board;
+	private final long generation;
+	private final long historyFirst, historyLast, historyPosition;
+	private final long cyclePeriod, cycleFirstGeneration;
+
+	private snapshot(LifeBoard board, long generation, long historyFirst, long historyLast, long historyPosition,
+		long cyclePeriod, long cycleFirstGeneration) {
+	    this.board = board;
+	    this.generation = generation;
+	    this.historyFirst = historyFirst;
+	    this.historyLast = historyLast;
+	    this.historyPosition = historyPosition;
+	    this.cyclePeriod = cyclePeriod;
+	    this.cycleFirstGeneration = cycleFirstGeneration;
+	}
+
+	public LifeBoard getBoard() {
+	    return board;
+	}
+
+	public long getGeneration() {
+	    return generation;
+	}
+
+	// History entries that can be seeked to, first to last: none when last is before first
+	public long getHistoryFirst() {
+	    return historyFirst;
+	}
+
+	public long getHistoryLast() {
+	    return historyLast;
+	}
+
+	// Entry the board is at: the last one, unless it has been stepped back
+	public long getHistoryPosition() {
+	    return historyPosition;
+	}
+
+	// Generations between repeats of the board since it settled, 1 for a still life, or 0 if it hasn't
+	public long getCyclePeriod() {
+	    return cyclePeriod;
+	}
+
+	// First generation the repeating states were seen at, or -1 if the board hasn't settled
+	public long getCycleFirstGeneration() {
+	    return cycleFirstGeneration;
+	}
+    }
+
+    // Rule settings used together for each generation: swapped as a whole so a step never mixes old & new values
+    private static class ruleSet {
+	private final boolean wrapAround;
+	private final LifeRule rule;
+
+	private ruleSet(boolean wrapAround, LifeRule rule) {
+	    this.wrapAround = wrapAround;
+	    this.rule = rule;
+	}
+    }
+
+    // Longest a chunk of a jump stepped a generation at a time holds up commands, & the shortest jump worth Hashlife loading a grid
+    private static final long jumpChunkNanos = 50_000_000L, minimumHashLifeJump = 64;
+
+    private final LinkedBlockingQueue<Runnable> commands = new LinkedBlockingQueue<Runnable>();
+    private final AtomicBoolean snapshotWanted = new AtomicBoolean(true);
+    private final ParallelStepper stepper;
+    private final Thread simulationThread;
+
+    // Board kept in a memory-mapped file instead of the in-heap grids, chosen at startup
+    private final MappedGrid mappedGrid;
+
+    // Simulation thread only: the fixed grids, or the infinite plane's boards when it's switched on
+    private BitGrid gridLeft, gridRight;
+    private ChunkedBoard planeLeft, planeRight;
+    private ActiveTiles activeTiles;
+    private ruleSet steppedRules;
+    private boolean leftFrame = true, running = false;
+    private long generation = 0;
+    private HashLife hashLife;
+    // Generations of a jump still to go
+    private long jumpLeft = 0;
+
+    // Simulation thread only: null when switched off with a budget of 0
+    private final GenerationHistory history;
+    private final CycleDetector cycles = new CycleDetector();
+    private final SimulationMetrics metrics = new SimulationMetrics();
+    private boolean recordingStatistics = false;
+
+    // Shared with other threads
+    private volatile ruleSet rules = new ruleSet(false, LifeRule.standard);
+    private volatile long targetDelayNanos = 0;
+    private volatile boolean pauseOnCycle = false;
+    private volatile snapshot latestSnapshot;
+    private final GenerationStatistics statistics = new GenerationStatistics(4096);
+
+    // Boards of snapshots that will never be painted again, handed back by the renderer
+    private final ArrayBlockingQueue<LifeBoard> spareBoards = new ArrayBlockingQueue<LifeBoard>(2);
+    private volatile long hashLifeMemoryCap = Long.getLong("gameoflife.hashlifeMemoryMB", Runtime.getRuntime().maxMemory() / (4 << 20)) << 20;
+
+    public LifeSimulation(int gridSize, ParallelStepper stepper) {
+	this(gridSize, null, stepper);
+    }
+
+    /* Run a board kept in a memory-mapped file, for boards too big for the heap:
+     * it carries on from the generation stored in the file, & always stays on the file (no infinite plane, no Hashlife).
+     */
+    public LifeSimulation(MappedGrid mappedGrid, ParallelStepper stepper) {
+	this(mappedGrid.size(), mappedGrid, stepper);
+    }
+
+    private LifeSimulation(int gridSize, MappedGrid mappedGrid, ParallelStepper stepper) {
+	this.stepper = stepper;
+	this.mappedGrid = mappedGrid;
+
+	long historyBytes = Long.getLong("gameoflife.historyMB", 32) << 20;
+	history = (historyBytes > 0) ? new GenerationHistory(historyBytes) : null;
+
+	if (mappedGrid == null) {
+	    gridLeft = new BitGrid(gridSize);
+	    gridRight = new BitGrid(gridSize);
+	}
+	else { generation = mappedGrid.generation(); }
+
+	activeTiles = new ActiveTiles(gridSize);
+	recordHistory();
+	publishSnapshot();
+
+	simulationThread = new Thread(this, "Life simulation");
+	simulationThread.setDaemon(true);
+    }
+
+    public void start() {
+	simulationThread.start();
+    }
+
+    public boolean isMapped() {
+	return mappedGrid != null;
+    }
+
+    // Shared with the renderer, which adds its own paint times
+    public SimulationMetrics getMetrics() {
+	return metrics;
+    }
+
+    // Recorded into while recordingStatistics is on, for the sparkline & StatisticsWriter
+    GenerationStatistics getStatistics() {
+	return statistics;
+    }
+
+    /* Record statistics on each generation stepped from now on: only on the fixed grid,
+     * as the infinite plane & the mapped board are stepped without BitGrid's scalar kernel.
+     */
+    public void setRecordingStatistics(final boolean recording) {
+	commands.add(new Runnable() {
+	    public void run() {
+		recordingStatistics = recording;
+	    }
+	});
+    }
+
+    public void shutdown() {
+	simulationThread.interrupt();
+    }
+
+    // Apply an edit to the current board on the simulation thread, between generations
+    public void edit(final Consumer<LifeBoard> boardEdit) {
+	commands.add(new Runnable() {
+	    public void run() {
+		boardEdit.accept(currentBoard());
+	    }
+	});
+    }
+
+    /* Switch between the fixed grid and the infinite plane, keeping the cells:
+     * 1. Going infinite, the grid becomes the part of the plane from (0, 0) to (size - 1, size - 1)
+     * 2. Going back, only the cells in that part are kept
+     */
+    public void setInfinitePlane(final boolean infinitePlane) {
+	commands.add(new Runnable() {
+	    public void run() {
+		if ((mappedGrid != null) || (infinitePlane == (planeLeft != null))) { return; }
+
+		if (infinitePlane) {
+		    BitGrid currentGrid = currentGrid();
+		    planeLeft = new ChunkedBoard();
+		    planeRight = new ChunkedBoard();
+		    planeLeft.copyBlock(currentGrid, 0, 0, 0, 0, currentGrid.size(), true);
+		}
+		else {
+		    gridLeft.copyWindow(currentBoard(), 0, 0, false);
+		    planeLeft = null;
+		    planeRight = null;
+		}
+
+		leftFrame = true;
+	    }
+	});
+    }
+
+    public void setRunning(final boolean shouldRun) {
+	commands.add(new Runnable() {
+	    public void run() {
+		running = shouldRun;
+		if (!shouldRun) { jumpLeft = 0; }
+	    }
+	});
+    }
+
+    public void step() {
+	commands.add(new Runnable() {
+	    public void run() {
+		nextFrame();
+	    }
+	});
+    }
+
+    // Undo the last generation or edit, back to the history's first entry
+    public void stepBack() {
+	commands.add(new Runnable() {
+	    public void run() {
+		if ((history != null) && !history.isEmpty()) { seek(history.position() - 1); }
+	    }
+	});
+    }
+
+    /* Put the board back to a history entry, as numbered by the snapshots: stepping on from an earlier one
+     * drops the entries after it, as the board takes another course from there.
+     */
+    public void seekHistory(final long entry) {
+	commands.add(new Runnable() {
+	    public void run() {
+		if ((history != null) && !history.isEmpty()) { seek(entry); }
+	    }
+	});
+    }
+
+    /* Jump a long way ahead, a chunk at a time between commands, so edits & Stop needn't wait for the whole jump:
+     * 1. Hashlife on the infinite plane, all of the way in one chunk
+     * 2. Hashlife on a grid that doesn't wrap, as far at a time as its pattern is from the nearest edge:
+     *    no cell can reach past an edge before then, so Hashlife's open plane gives the same board as stepping would
+     * 3. One generation at a time otherwise: near an edge, on a wrapped board, which Hashlife's plane can't represent,
+     *    and on a mapped board, whose cells could never fit in Hashlife's node tables
+     * Stopping the simulation drops whatever is left of the jump.
+     */
+    public void jump(final long generations) {
+	commands.add(new Runnable() {
+	    public void run() {
+		jumpLeft += generations;
+	    }
+	});
+    }
+
+    // Node table size at which Hashlife drops everything the current pattern doesn't need
+    public void setHashLifeMemoryCap(long memoryCapBytes) {
+	hashLifeMemoryCap = memoryCapBytes;
+    }
+
+    public void clear() {
+	commands.add(new Runnable() {
+	    public void run() {
+		if (mappedGrid != null) { mappedGrid.clear(); }
+		else {
+		    gridLeft.clear();
+		    gridRight.clear();
+		}
+		if (planeLeft != null) {
+		    planeLeft.clear();
+		    planeRight.clear();
+		}
+		generation = 0;
+	    }
+	});
+    }
+
+    // Replace the board with empty grids of a new size; the generation count carries on. A mapped board keeps its size.
+    public void resize(final int gridSize) {
+	commands.add(new Runnable() {
+	    public void run() {
+		if (mappedGrid != null) { return; }
+
+		gridLeft = new BitGrid(gridSize);
+		gridRight = new BitGrid(gridSize);
+		activeTiles = new ActiveTiles(gridSize);
+	    }
+	});
+    }
+
+    /* Carry on from a loaded board & generation count, such as a SavedGame's: the board is taken over, not copied.
+     * 1. A BitGrid becomes the fixed grid, which takes on its size, and the infinite plane is switched off
+     * 2. A ChunkedBoard becomes the infinite plane, switching it on; the fixed grid is left as it was, for switching back
+     * A mapped board stays on its file & ignores this.
+     */
+    public void load(final LifeBoard board, final long savedGeneration) {
+	commands.add(new Runnable() {
+	    public void run() {
+		if (mappedGrid != null) { return; }
+
+		if (board instanceof ChunkedBoard) {
+		    planeLeft = (ChunkedBoard) board;
+		    planeRight = new ChunkedBoard();
+		}
+		else {
+		    BitGrid loadedGrid = (BitGrid) board;
+		    if (loadedGrid.size() != gridLeft.size()) {
+			gridRight = new BitGrid(loadedGrid.size());
+			activeTiles = new ActiveTiles(loadedGrid.size());
+		    }
+		    gridLeft = loadedGrid;
+		    planeLeft = null;
+		    planeRight = null;
+		}
+
+		leftFrame = true;
+		generation = savedGeneration;
+	    }
+	});
+    }
+
+    // Stop running once the board settles into a still life or cycle, rather than only reporting it in the snapshots
+    public void setPauseOnCycle(boolean pause) {
+	pauseOnCycle = pause;
+    }
+
+    // Between generations, as replacing the stepper's pool shuts down the one a step in progress is using
+    public void setThreads(final int threads) {
+	commands.add(new Runnable() {
+	    public void run() {
+		stepper.setThreads(threads);
+	    }
+	});
+    }
+
+    // Minimum time between generations while running: 0 = as fast as possible
+    public void setTargetDelay(long delayMillis) {
+	targetDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+    }
+
+    // Swapped in whole: the simulation thread picks the new rules up at the start of its next generation
+    public void setRules(boolean wrapAround, LifeRule rule) {
+	ruleSet currentRules = rules;
+
+	if ((currentRules.wrapAround != wrapAround) || !currentRules.rule.equals(rule)) {
+	    rules = new ruleSet(wrapAround, rule);
+	}
+    }
+
+    // Called by the renderer once per display frame: the next generation (or edit) will publish a fresh snapshot
+    public void requestSnapshot() {
+	snapshotWanted.set(true);
+    }
+
+    public snapshot getSnapshot() {
+	return latestSnapshot;
+    }
+
+    // Only for a snapshot that's done with for good, as its board will be overwritten by a later one
+    public void recycle(snapshot oldSnapshot) {
+	if ((oldSnapshot != null) && (oldSnapshot != latestSnapshot)) { spareBoards.offer(oldSnapshot.board); }
+    }
+
+    @Override
+    public void run() {
+	long nextDue = System.nanoTime();
+
+	try {
+	    while (!Thread.currentThread().isInterrupted()) {
+		if (jumpLeft > 0) {
+		    Runnable command = commands.poll();
+		    if (command != null) { runCommands(command); }
+		    if (jumpLeft > 0) { jumpAhead(); }
+		    // The end of a jump always shows, as nothing may come after it to publish it
+		    if (jumpLeft == 0) { publishSnapshot(); }
+
+		    nextDue = System.nanoTime();
+		    continue;
+		}
+
+		if (!running) {
+		    // Nothing to do until a command arrives
+		    runCommands(commands.take());
+		    nextDue = System.nanoTime();
+		    continue;
+		}
+
+		long delay = targetDelayNanos;
+		long waitTime = nextDue - System.nanoTime();
+
+		if ((delay > 0) && (waitTime > 0)) {
+		    // Handle edits while waiting for the next generation to fall due
+		    Runnable command = commands.poll(waitTime, TimeUnit.NANOSECONDS);
+		    if (command != null) { runCommands(command); }
+		    continue;
+		}
+
+		Runnable command = commands.poll();
+		if (command != null) { runCommands(command); }
+		if (!running) { continue; }
+
+		nextFrame();
+
+		// Don't try to catch up on generations missed while falling behind
+		long now = System.nanoTime();
+		nextDue = Math.max(nextDue + delay, now - delay);
+	    }
+	}
+	catch (InterruptedException ie) {
+	    // Shutting down
+	}
+    }
+
+    private BitGrid currentGrid() {
+	return leftFrame ? gridLeft : gridRight;
+    }
+
+    private LifeBoard currentBoard() {
+	if (mappedGrid != null) { return mappedGrid; }
+	if (planeLeft != null) { return leftFrame ? planeLeft : planeRight; }
+	return currentGrid();
+    }
+
+    private void runCommands(Runnable firstCommand) {
+	Runnable command = firstCommand;
+
+	while (command != null) {
+	    // Commands may change the board behind the stepper's back, so the next step covers every tile
+	    activeTiles.markAll();
+	    command.run();
+	    command = commands.poll();
+	}
+
+	boardChanged();
+    }
+
+    // After anything but a step: the board may be different anywhere
+    private void boardChanged() {
+	// Edits, loads & jumps go into the history like generations, so they can be stepped back over too
+	recordHistory();
+	metrics.jumped(0, generation);
+	metrics.edited();
+	if ((mappedGrid != null) || (planeLeft != null)) { cycles.reset(); }
+	else { cycles.sync(currentGrid(), generation); }
+
+	// Edits always show straight away, even when the renderer hasn't asked yet
+	publishSnapshot();
+    }
+
+    private void nextFrame() {
+	ruleSet currentRules = rules;
+
+	// New rules can change any cell, stable or not, & send a settled board on again
+	if (currentRules != steppedRules) {
+	    activeTiles.markAll();
+	    cycles.reset();
+	    steppedRules = currentRules;
+	}
+
+	// Cells gone over: whole tiles on the grids, whole chunks around the live ones on the plane
+	long cellsStepped = ((long) ((planeLeft != null) ? ((ChunkedBoard) currentBoard()).chunkCount() : activeTiles.activeCount())) << 12;
+	SimulationMetrics.stepEvent stepEvent = SimulationMetrics.beginStep();
+	long stepStart = System.nanoTime();
+
+	// The mapped board steps from one half of its file to the other
+	if (mappedGrid != null) { mappedGrid.step(currentRules.wrapAround, currentRules.rule, activeTiles); }
+	// The plane has no edges to wrap around
+	else if (planeLeft != null) {
+	    if (leftFrame) { planeRight.step(planeLeft, currentRules.rule); }
+	    else { planeLeft.step(planeRight, currentRules.rule); }
+	}
+	// Skipped tiles hold the same cells in both grids, so neither grid ever needs clearing
+	else if (!recordingStatistics) {
+	    if (leftFrame) { stepper.step(gridLeft, gridRight, currentRules.wrapAround, currentRules.rule, activeTiles); }
+	    else { stepper.step(gridRight, gridLeft, currentRules.wrapAround, currentRules.rule, activeTiles); }
+	}
+	else {
+	    // Every tile is counted once before skipped tiles can go on with their old counts
+	    if (statistics.prepare(gridLeft.size())) { activeTiles.markAll(); }
+
+	    if (leftFrame) { stepper.step(gridLeft, gridRight, currentRules.wrapAround, currentRules.rule, activeTiles, statistics); }
+	    else { stepper.step(gridRight, gridLeft, currentRules.wrapAround, currentRules.rule, activeTiles, statistics); }
+	}
+
+	if (leftFrame) { leftFrame = false; }
+	else { leftFrame = true; }
+
+	generation++;
+	metrics.stepped(stepEvent, System.nanoTime() - stepStart, cellsStepped, generation);
+	if (recordingStatistics && (mappedGrid == null) && (planeLeft == null)) { statistics.record(generation); }
+	recordHistory();
+
+	// Shown straight away: once paused, no more generations would publish it
+	if ((mappedGrid == null) && (planeLeft == null) && cycles.update(leftFrame ? gridRight : gridLeft, currentGrid(), activeTiles, generation)) {
+	    if (pauseOnCycle) { running = false; }
+	    snapshotWanted.set(true);
+	}
+
+	if (snapshotWanted.getAndSet(false)) { publishSnapshot(); }
+    }
+
+    // One chunk of a jump
+    private void jumpAhead() {
+	ruleSet currentRules = rules;
+
+	boolean wrapped = currentRules.wrapAround && (planeLeft == null);
+	if (wrapped || (mappedGrid != null) || !HashLife.isSupported(currentRules.rule)) {
+	    stepAhead();
+	    return;
+	}
+
+	// Close to an edge, Hashlife can't go far enough at a time to be worth loading the grid for
+	long generations = (planeLeft != null) ? jumpLeft : Math.min(jumpLeft, currentGrid().liveMargin());
+	if (generations < minimumHashLifeJump) {
+	    stepAhead();
+	    return;
+	}
+
+	// Keep the engine, and everything it remembers, for as long as the rules stay the same
+	if ((hashLife == null) || !hashLife.sameRules(currentRules.rule)) {
+	    hashLife = new HashLife(currentRules.rule, hashLifeMemoryCap);
+	}
+
+	// On the plane nothing is cut off: the whole pattern comes back, however far it has spread
+	if (planeLeft != null) {
+	    ChunkedBoard currentPlane = (ChunkedBoard) currentBoard();
+	    hashLife.load(currentPlane);
+	    hashLife.advance(generations);
+	    hashLife.store(currentPlane);
+	}
+	else {
+	    hashLife.load(currentGrid());
+	    hashLife.advance(generations);
+	    hashLife.store(currentGrid());
+	}
+	jumpLeft -= generations;
+	generation += generations;
+	metrics.jumped(generations, generation);
+
+	activeTiles.markAll();
+	boardChanged();
+    }
+
+    // Generations one at a time, for up to a chunk's worth of time
+    private void stepAhead() {
+	long chunkStart = System.nanoTime();
+
+	do {
+	    nextFrame();
+	    jumpLeft--;
+	} while ((jumpLeft > 0) && (System.nanoTime() - chunkStart < jumpChunkNanos));
+    }
+
+    // Only the fixed grid has a history: the plane & a mapped board start again from nothing when they're left
+    private void recordHistory() {
+	if (history == null) { return; }
+
+	if ((mappedGrid != null) || (planeLeft != null)) { history.reset(); }
+	// After a step, the tiles marked for the next one take in every cell it changed; after commands, every tile is marked
+	else { history.record(currentGrid(), generation, activeTiles); }
+    }
+
+    private void seek(long entry) {
+	if ((mappedGrid != null) || (planeLeft != null)) { return; }
+
+	generation = history.seek(currentGrid(), entry);
+    }
+
+    private void publishSnapshot() {
+	LifeBoard board = currentBoard().copy(spareBoards.poll());
+	metrics.published(board);
+
+	if ((history == null) || history.isEmpty()) {
+	    latestSnapshot = new snapshot(board, generation, 0, -1, -1, cycles.period(), cycles.firstGeneration());
+	    return;
+	}
+
+	latestSnapshot = new snapshot(board, generation, history.firstEntry(), history.lastEntry(), history.position(),
+		cycles.period(), cycles.firstGeneration());
+    }
+}
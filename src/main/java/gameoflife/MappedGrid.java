@@ -0,0 +1,314 @@
+package gameoflife;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/* Square board kept off the heap in a memory-mapped file, for boards far bigger than the heap:
+ * 1. Same bit layout as BitGrid without the halo: one bit per cell, 64 per long, each row padded to whole words
+ * 2. The file holds a header & both generations, one half each; stepping reads one half & writes the other,
+ *    then the header is switched over, so the board (with its generation count) carries on after a restart
+ * 3. Stepping streams the rows through a window of 3 rows on the heap, with BitGrid's word kernel:
+ *    the heap needed is a few rows, whatever the board's size, and the OS pages the file in & out as it goes
+ * 4. Each half is mapped in regions of whole rows, as one mapping can't be larger than 2GB
+ * Tiles skipped by ActiveTiles are left as they are in both halves, like the in-heap grids, so stable areas aren't rewritten.
+ * Everything is read & written by index, never through a buffer's position, so snapshot views can read from other threads.
+ */
+public class MappedGrid implements LifeBoard {
+    private static final long magic = 0x4C49464547524944L;	// "LIFEGRID"
+    private static final int headerBytes = 64, maximumRegionBytes = 1 << 30;
+    private static final int sizeOffset = 8, halfOffset = 12, generationOffset = 16;
+
+    private final Path file;
+    private final int size, wordsPerRow, rowsPerRegion, lastBit;
+    private final long lastWordMask;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[][] mappings;
+    private final LongBuffer[][] halves;
+
+    // Generation's half for a snapshot view, -1 for the board itself, which follows the header
+    private final int viewHalf;
+
+    // Stepping only: the rows above, at & below the row being stepped, each with a halo word either side
+    private long[] window;
+    private int[] windowRows;
+
+    /* Open a board file, or create a new empty board of the given size when there isn't one yet:
+     * an existing file keeps the size it was made with.
+     */
+    public static MappedGrid open(Path file, int newSize) throws IOException {
+	try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+	    boolean newFile = (channel.size() == 0);
+	    MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, headerBytes);
+	    header.order(ByteOrder.LITTLE_ENDIAN);
+
+	    if (newFile) {
+		if (newSize < 3) { throw new IOException("Board size must be at least 3, not " + newSize); }
+
+		header.putLong(0, magic);
+		header.putInt(sizeOffset, newSize);
+		header.putInt(halfOffset, 0);
+		header.putLong(generationOffset, 0);
+	    }
+	    else if ((channel.size() < headerBytes) || (header.getLong(0) != magic)) {
+		throw new IOException(file + " is not a board file");
+	    }
+
+	    // The mappings stay valid once the channel is closed; a new file's halves start out as zeros, without being written
+	    return new MappedGrid(file, channel, header);
+	}
+    }
+
+    private MappedGrid(Path file, FileChannel channel, MappedByteBuffer header) throws IOException {
+	this.file = file;
+	this.header = header;
+	this.size = header.getInt(sizeOffset);
+	this.wordsPerRow = (size + 63) >>> 6;
+	this.rowsPerRegion = Math.max(1, maximumRegionBytes / (wordsPerRow * 8));
+	this.lastBit = (size - 1) & 63;
+	this.lastWordMask = ((size & 63) == 0) ? -1L : (1L << (size & 63)) - 1;
+	this.viewHalf = -1;
+
+	long halfBytes = (long) size * wordsPerRow * 8;
+	int regions = (size + rowsPerRegion - 1) / rowsPerRegion;
+	mappings = new MappedByteBuffer[2][regions];
+	halves = new LongBuffer[2][regions];
+
+	for (int half = 0; half < 2; half++) {
+	    for (int region = 0; region < regions; region++) {
+		int regionRows = Math.min(rowsPerRegion, size - (region * rowsPerRegion));
+		long position = headerBytes + (half * halfBytes) + ((long) region * rowsPerRegion * wordsPerRow * 8);
+
+		mappings[half][region] = channel.map(FileChannel.MapMode.READ_WRITE, position, (long) regionRows * wordsPerRow * 8);
+		halves[half][region] = mappings[half][region].order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+	    }
+	}
+    }
+
+    // Read only view of one generation's half, sharing the mappings
+    private MappedGrid(MappedGrid board, int viewHalf) {
+	this.file = board.file;
+	this.header = board.header;
+	this.size = board.size;
+	this.wordsPerRow = board.wordsPerRow;
+	this.rowsPerRegion = board.rowsPerRegion;
+	this.lastBit = board.lastBit;
+	this.lastWordMask = board.lastWordMask;
+	this.mappings = board.mappings;
+	this.halves = board.halves;
+	this.viewHalf = viewHalf;
+    }
+
+    public int size() {
+	return size;
+    }
+
+    public Path file() {
+	return file;
+    }
+
+    // Generations stepped since the board was created or last cleared, across restarts
+    public long generation() {
+	return header.getLong(generationOffset);
+    }
+
+    private int currentHalf() {
+	return (viewHalf >= 0) ? viewHalf : header.getInt(halfOffset);
+    }
+
+    // Region of a half holding a row, & the row's first word in it
+    private LongBuffer region(int half, int row) {
+	return halves[half][row / rowsPerRegion];
+    }
+
+    private int rowIndex(int row) {
+	return (row % rowsPerRegion) * wordsPerRow;
+    }
+
+    private long word(int half, int row, int word) {
+	return region(half, row).get(rowIndex(row) + word);
+    }
+
+    public boolean get(int row, int col) {
+	return (word(currentHalf(), row, col >>> 6) & (1L << col)) != 0;
+    }
+
+    public void set(int row, int col, boolean alive) {
+	if (viewHalf >= 0) { throw new UnsupportedOperationException("Snapshot views of a mapped board are read only"); }
+
+	int half = currentHalf();
+	LongBuffer region = region(half, row);
+	int index = rowIndex(row) + (col >>> 6);
+
+	if (alive) { region.put(index, region.get(index) | (1L << col)); }
+	else { region.put(index, region.get(index) & ~(1L << col)); }
+    }
+
+    // Clears the current generation only: stepping after a clear must cover every tile, as after any other edit
+    public void clear() {
+	if (viewHalf >= 0) { throw new UnsupportedOperationException("Snapshot views of a mapped board are read only"); }
+
+	int half = currentHalf();
+	long[] emptyRow = new long[wordsPerRow];
+
+	for (int row = 0; row < size; row++) { region(half, row).put(rowIndex(row), emptyRow, 0, wordsPerRow); }
+	header.putLong(generationOffset, 0);
+    }
+
+    public long population() {
+	int half = currentHalf();
+	long[] rowWords = new long[wordsPerRow];
+	long howManyAlive = 0;
+
+	for (int row = 0; row < size; row++) {
+	    region(half, row).get(rowIndex(row), rowWords, 0, wordsPerRow);
+	    for (long rowWord : rowWords) { howManyAlive += Long.bitCount(rowWord); }
+	}
+
+	return howManyAlive;
+    }
+
+    // Same as BitGrid.cells: cells off the board wrap around or are dead
+    public long cells(int row, int col, boolean wrapAround) {
+	if (wrapAround) { row = Math.floorMod(row, size); }
+	else if ((row < 0) || (row >= size)) { return 0; }
+
+	int half = currentHalf(), word = col >> 6, shift = col & 63;
+
+	// Whole span inside the row's words: the padding past the last column stands for dead cells
+	if ((col >= 0) && ((col + 64 <= size) || (!wrapAround && (col + 64 <= (wordsPerRow << 6))))) {
+	    long bits = word(half, row, word) >>> shift;
+	    if (shift != 0) { bits |= word(half, row, word + 1) << (64 - shift); }
+	    return bits;
+	}
+
+	long bits = 0;
+	for (int bit = 0; bit < 64; bit++) {
+	    int currentCol = col + bit;
+
+	    if (wrapAround) { currentCol = Math.floorMod(currentCol, size); }
+	    else if ((currentCol < 0) || (currentCol >= size)) { continue; }
+
+	    if ((word(half, row, currentCol >>> 6) & (1L << currentCol)) != 0) { bits |= 1L << bit; }
+	}
+
+	return bits;
+    }
+
+    // Stamp a block of a grid onto the board, as BitGrid.copyBlock: cells past the board's edges are skipped
+    public void copyBlock(BitGrid fromGrid, int fromRow, int fromCol, int toRow, int toCol, int blockSize, boolean liveOnly) {
+	int rowLimit = Math.min(blockSize, Math.min(fromGrid.size() - fromRow, size - toRow));
+	int colLimit = Math.min(blockSize, Math.min(fromGrid.size() - fromCol, size - toCol));
+
+	for (int currentRow = 0; currentRow < rowLimit; currentRow++) {
+	    for (int currentCol = 0; currentCol < colLimit; currentCol++) {
+		boolean alive = fromGrid.get(fromRow + currentRow, fromCol + currentCol);
+
+		if (alive || !liveOnly) { set(toRow + currentRow, toCol + currentCol, alive); }
+	    }
+	}
+    }
+
+    /* The board is far too big to copy for every snapshot, so this is a view of the current generation's half instead.
+     * It holds that generation until the next step but one writes over the half: painting may then mix in newer cells.
+     */
+    public MappedGrid copy() {
+	return new MappedGrid(this, currentHalf());
+    }
+
+    public MappedGrid copy(LifeBoard spareBoard) {
+	return copy();
+    }
+
+    // Write the board back to the file now, rather than whenever the OS gets round to it
+    public void flush() {
+	header.force();
+	for (MappedByteBuffer[] half : mappings) {
+	    for (MappedByteBuffer region : half) { region.force(); }
+	}
+    }
+
+    /* Replace the board with its next generation under the given rule, one row at a time:
+     * rows are read from the current half into the window, stepped & written into the other half.
+     * With activeTiles, bands of rows without any active tile are skipped, & so is reading the rows only they needed.
+     */
+    public void step(boolean wrapAround, LifeRule rule, ActiveTiles activeTiles) {
+	if (viewHalf >= 0) { throw new UnsupportedOperationException("Snapshot views of a mapped board are read only"); }
+
+	int rowStride = wordsPerRow + 2;
+	if (window == null) {
+	    window = new long[3 * rowStride];
+	    windowRows = new int[3];
+	}
+	Arrays.fill(windowRows, Integer.MIN_VALUE);
+
+	int currentHalf = currentHalf(), nextHalf = 1 - currentHalf;
+	boolean bandActive = true;
+
+	for (int row = 0; row < size; row++) {
+	    if ((activeTiles != null) && ((row & ((1 << ActiveTiles.tileRowShift) - 1)) == 0)) { bandActive = activeTiles.isBandActive(row); }
+	    if (!bandActive) { continue; }
+
+	    // Rows live in the window slot of their row number mod 3, so moving down a row only reads the row below
+	    int aboveBase = loadRow(currentHalf, row - 1, wrapAround) + 1;
+	    int rowBase = loadRow(currentHalf, row, wrapAround) + 1;
+	    int belowBase = loadRow(currentHalf, row + 1, wrapAround) + 1;
+
+	    LongBuffer nextRegion = region(nextHalf, row);
+	    int nextIndex = rowIndex(row);
+
+	    for (int word = 0; word < wordsPerRow; word++) {
+		if ((activeTiles != null) && !activeTiles.isActive(row, word)) { continue; }
+
+		// Only the last word has padding bits, which may hold a wrapped copy of the first column
+		long wordMask = (word == wordsPerRow - 1) ? lastWordMask : -1L;
+		long alive = window[rowBase + word] & wordMask;
+		long nextWord = BitGrid.nextWord(window, aboveBase + word, rowBase + word, belowBase + word, rule.terms) & wordMask;
+
+		nextRegion.put(nextIndex + word, nextWord);
+
+		if ((activeTiles != null) && (nextWord != alive)) { activeTiles.markChanged(row, word, wrapAround); }
+	    }
+	}
+
+	header.putInt(halfOffset, nextHalf);
+	header.putLong(generationOffset, header.getLong(generationOffset) + 1);
+	if (activeTiles != null) { activeTiles.nextGeneration(); }
+    }
+
+    /* Bring a row into its window slot, unless it's there already, returning the slot's first index.
+     * Like BitGrid's halo: rows past the edges are the wrapped rows or empty, and the words either side of a row
+     * hold the wrapped columns or nothing.
+     */
+    private int loadRow(int half, int row, boolean wrapAround) {
+	int rowStride = wordsPerRow + 2, slot = Math.floorMod(row, 3), slotBase = slot * rowStride;
+	if (windowRows[slot] == row) { return slotBase; }
+	windowRows[slot] = row;
+
+	int boardRow = wrapAround ? Math.floorMod(row, size) : row;
+	if ((boardRow < 0) || (boardRow >= size)) {
+	    Arrays.fill(window, slotBase, slotBase + rowStride, 0L);
+	    return slotBase;
+	}
+
+	int first = slotBase + 1, last = first + wordsPerRow - 1;
+	region(half, boardRow).get(rowIndex(boardRow), window, first, wordsPerRow);
+	window[last] &= lastWordMask;
+	window[slotBase] = 0;
+	window[last + 1] = 0;
+
+	if (wrapAround) {
+	    // Last column goes to the top bit of the west halo word, first column just past the last column
+	    window[slotBase] = ((window[last] >>> lastBit) & 1L) << 63;
+	    if (lastBit == 63) { window[last + 1] = window[first] & 1L; }
+	    else { window[last] |= (window[first] & 1L) << (lastBit + 1); }
+	}
+
+	return slotBase;
+    }
+}
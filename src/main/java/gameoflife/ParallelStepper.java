@@ -0,0 +1,197 @@
+package gameoflife;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/* Steps a BitGrid generation across several threads:
+ * 1. The grid is split into bands of rows, each band handled by one ForkJoinPool task
+ * 2. Every row only reads the current grid & writes its own row of the next grid, so bands need no locking
+ * 3. A single thread (or a grid too small to be worth splitting) steps on the calling thread
+ * 4. The band tasks are built once for each grid size & thread count, then reused every generation, so stepping allocates nothing
+ *    Steps must therefore come one at a time, as they do from the simulation thread, & setThreads must come between them,
+ *    as it shuts down the pool a step in progress is using
+ * 5. The calling thread steps the first band itself, then yields until the rest are done rather than blocking,
+ *    as a thread outside the pool that blocks on a task gets a new wait node every time
+ * Rows are stepped by the scalar kernel in BitGrid, or by VectorKernel when vectorized & jdk.incubator.vector is present.
+ * Gathering GenerationStatistics always takes the scalar kernel, with bands a whole number of tiles high,
+ * & a second pass of the same bands over the new generation, with its halo filled, for its neighbor counts.
+ */
+public class ParallelStepper {
+    // Below this many rows per band the task overhead outweighs the work
+    private static final int minimumBandRows = 16;
+
+    // Incubator modules are only there when asked for: java --add-modules jdk.incubator.vector
+    private static final boolean vectorSupported = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private ForkJoinPool pool;
+    private int threads;
+    private volatile boolean vectorized = vectorSupported;
+
+    // Reused band tasks for the grid size & band height they were built for
+    private bandTask[] bands = new bandTask[0];
+    private int bandsGridSize, bandsRows;
+
+    public ParallelStepper(int threads) {
+	setThreads(threads);
+    }
+
+    public int getThreads() {
+	return threads;
+    }
+
+    public synchronized void setThreads(int threads) {
+	if (threads < 1) { threads = 1; }
+	if ((pool != null) && (threads == this.threads)) { return; }
+
+	if (pool != null) { pool.shutdown(); }
+	pool = (threads > 1) ? new ForkJoinPool(threads) : null;
+	this.threads = threads;
+    }
+
+    public static boolean isVectorSupported() {
+	return vectorSupported;
+    }
+
+    public boolean isVectorized() {
+	return vectorized;
+    }
+
+    // On by default whenever the Vector API is available; asking for it without the module keeps the scalar kernel
+    public void setVectorized(boolean vectorized) {
+	this.vectorized = vectorized && vectorSupported;
+    }
+
+    public void step(BitGrid currentGrid, BitGrid nextGrid, boolean wrapAround, LifeRule rule) {
+	step(currentGrid, nextGrid, wrapAround, rule, null);
+    }
+
+    // Same, stepping only the tiles that can still change (activeTiles == null: step every tile)
+    public void step(BitGrid currentGrid, BitGrid nextGrid, boolean wrapAround, LifeRule rule, ActiveTiles activeTiles) {
+	step(currentGrid, nextGrid, wrapAround, rule, activeTiles, null);
+    }
+
+    // Same, gathering statistics on the new generation as it's stepped (null: none gathered)
+    void step(BitGrid currentGrid, BitGrid nextGrid, boolean wrapAround, LifeRule rule, ActiveTiles activeTiles, GenerationStatistics statistics) {
+	ForkJoinPool stepPool;
+	int bandRows;
+
+	synchronized (this) {
+	    stepPool = pool;
+	    // A few bands per thread evens out the load when some threads start late
+	    bandRows = Math.max(minimumBandRows, currentGrid.size() / (threads * 4));
+	}
+
+	// Each tile's statistics are added up by the one band holding all of it
+	if (statistics != null) { bandRows = ((bandRows + (1 << ActiveTiles.tileRowShift) - 1) >>> ActiveTiles.tileRowShift) << ActiveTiles.tileRowShift; }
+
+	boolean useVector = vectorized && (statistics == null);
+
+	// The halo is filled once for all bands, as they only read the current grid
+	currentGrid.fillHalo(wrapAround);
+
+	boolean singleBand = (stepPool == null) || (currentGrid.size() <= bandRows);
+	bandTask[] stepBands = singleBand ? null : bands(currentGrid.size(), bandRows);
+
+	if (singleBand) {
+	    stepRows(currentGrid, nextGrid, 0, currentGrid.size(), wrapAround, rule, activeTiles, statistics, useVector);
+	}
+	else {
+	    // Bands only ever set tiles active, so marks from neighboring bands can't undo each other
+	    for (bandTask band : stepBands) { band.prepare(currentGrid, nextGrid, wrapAround, rule, activeTiles, statistics, useVector); }
+	    runBands(stepPool, stepBands);
+	}
+
+	currentGrid.clearHalo(wrapAround);
+
+	// Neighbor counts read the new generation all round each cell, so only once every band has written it
+	if (statistics != null) {
+	    nextGrid.fillHalo(wrapAround);
+
+	    if (singleBand) { statistics.countNeighbors(nextGrid, 0, nextGrid.size()); }
+	    else {
+		for (bandTask band : stepBands) { band.prepareCounting(); }
+		runBands(stepPool, stepBands);
+	    }
+
+	    nextGrid.clearHalo(wrapAround);
+	}
+
+	if (activeTiles != null) { activeTiles.nextGeneration(); }
+    }
+
+    private static void runBands(ForkJoinPool stepPool, bandTask[] stepBands) {
+	for (int band = 1; band < stepBands.length; band++) { stepPool.execute(stepBands[band]); }
+	stepBands[0].invoke();
+
+	for (bandTask band : stepBands) {
+	    while (!band.isDone()) { Thread.yield(); }
+	}
+    }
+
+    private static void stepRows(BitGrid currentGrid, BitGrid nextGrid, int firstRow, int lastRow, boolean wrapAround, LifeRule rule, ActiveTiles activeTiles,
+	    GenerationStatistics statistics, boolean useVector) {
+	if (useVector) { VectorKernel.stepRows(currentGrid, nextGrid, firstRow, lastRow, wrapAround, rule, activeTiles); }
+	else { nextGrid.stepRows(currentGrid, firstRow, lastRow, wrapAround, rule, activeTiles, statistics); }
+    }
+
+    private bandTask[] bands(int gridSize, int bandRows) {
+	if ((gridSize != bandsGridSize) || (bandRows != bandsRows)) {
+	    bands = new bandTask[(gridSize + bandRows - 1) / bandRows];
+	    for (int band = 0; band < bands.length; band++) {
+		bands[band] = new bandTask(band * bandRows, Math.min(gridSize, (band + 1) * bandRows));
+	    }
+
+	    bandsGridSize = gridSize;
+	    bandsRows = bandRows;
+	}
+
+	return bands;
+    }
+
+    public synchronized void shutdown() {
+	if (pool != null) { pool.shutdown(); }
+	pool = null;
+    }
+
+    // One band of rows, given the grids & rule afresh each generation
+    private static class bandTask extends RecursiveAction {
+	private static final long serialVersionUID = 1L;
+
+	private final int firstRow, lastRow;
+	private BitGrid currentGrid, nextGrid;
+	private boolean wrapAround, useVector, counting;
+	private LifeRule rule;
+	private ActiveTiles activeTiles;
+	private GenerationStatistics statistics;
+
+	bandTask(int firstRow, int lastRow) {
+	    this.firstRow = firstRow;
+	    this.lastRow = lastRow;
+	}
+
+	void prepare(BitGrid currentGrid, BitGrid nextGrid, boolean wrapAround, LifeRule rule, ActiveTiles activeTiles, GenerationStatistics statistics,
+		boolean useVector) {
+	    this.currentGrid = currentGrid;
+	    this.nextGrid = nextGrid;
+	    this.wrapAround = wrapAround;
+	    this.rule = rule;
+	    this.activeTiles = activeTiles;
+	    this.statistics = statistics;
+	    this.useVector = useVector;
+	    counting = false;
+	    reinitialize();
+	}
+
+	// Run again, for the neighbor counts of the band's rows of the new generation
+	void prepareCounting() {
+	    counting = true;
+	    reinitialize();
+	}
+
+	@Override
+	protected void compute() {
+	    if (counting) { statistics.countNeighbors(nextGrid, firstRow, lastRow); }
+	    else { stepRows(currentGrid, nextGrid, firstRow, lastRow, wrapAround, rule, activeTiles, statistics, useVector); }
+	}
+    }
+}
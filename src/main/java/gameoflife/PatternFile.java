@@ -0,0 +1,403 @@
+package gameoflife;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/* Life patterns in the community's file formats, read onto a board of their own & written out from any board:
+ * 1. RLE (.rle): # comment lines, a "x = 3, y = 3, rule = B3/S23" header, then runs of b (dead) & o (live) cells,
+ *    $ ending each line of cells and ! the pattern
+ * 2. Plaintext (.cells): ! comment lines, then a line of text per line of cells, O or * for live cells
+ * 3. Life 1.06 (.lif or .life): a #Life 1.06 line, then an "x y" line per live cell
+ * Reading goes through the file a buffer full of bytes at a time, setting live cells as it comes to them:
+ * the format is told from the first line, and nothing is built per cell or per line, so big patterns load in one pass.
+ * As on screen and in LifeBatch, a file's x runs along the board's rows & its y along the columns.
+ */
+public class PatternFile {
+    private static final int bufferBytes = 1 << 16, maximumRun = 1 << 24, rleLineLength = 70;
+
+    // Live cells where the file puts them, with the smallest box around them all
+    private final ChunkedBoard cells = new ChunkedBoard();
+    private int firstRow = Integer.MAX_VALUE, firstCol = Integer.MAX_VALUE, lastRow = Integer.MIN_VALUE, lastCol = Integer.MIN_VALUE;
+    private String ruleText;
+    private LifeRule rule;
+
+    // Chunk the last live cell went in: runs along a line stay in the same chunk for up to 64 cells
+    private long lastChunkKey;
+    private long[] lastChunk;
+
+    // Reading only: the bytes read ahead of the parser, each one character as all three formats are plain ASCII
+    private final InputStream input;
+    private final byte[] buffer;
+    private int position, limit;
+
+    private PatternFile(InputStream input) {
+	this.input = input;
+	this.buffer = new byte[bufferBytes];
+    }
+
+    public static PatternFile read(Path file) throws IOException {
+	try (InputStream input = Files.newInputStream(file)) {
+	    PatternFile pattern = new PatternFile(input);
+	    pattern.parse();
+	    return pattern;
+	}
+    }
+
+    // Cells between the first & last rows, and columns, holding live cells: 0 when there are none
+    public int rows() {
+	return (lastRow < firstRow) ? 0 : lastRow - firstRow + 1;
+    }
+
+    public int cols() {
+	return (lastCol < firstCol) ? 0 : lastCol - firstCol + 1;
+    }
+
+    public long population() {
+	return cells.population();
+    }
+
+    // The RLE header's rule as given, or null when there wasn't one
+    public String getRuleText() {
+	return ruleText;
+    }
+
+    // Same rule, or null when there wasn't one or it isn't a B/S rule, such as a Generations or non-totalistic rule
+    public LifeRule getRule() {
+	return rule;
+    }
+
+    /* Set the pattern's live cells on a board, the top left of the box around them at (toRow, toCol).
+     * Only the live cells are set, over whatever is there. On a bounded board boardSize cells across, cells past its edges are left off;
+     * boardSize = 0 for the infinite plane.
+     */
+    public void stamp(LifeBoard board, int toRow, int toCol, int boardSize) {
+	ChunkMap chunks = cells.chunks();
+
+	for (int slot = 0; slot < chunks.capacity(); slot++) {
+	    long[] chunk = chunks.value(slot);
+	    if (chunk == null) { continue; }
+
+	    int chunkFirstRow = (ChunkedBoard.chunkRow(chunks.key(slot)) << ChunkedBoard.chunkShift) - firstRow + toRow;
+	    int chunkFirstCol = (ChunkedBoard.chunkCol(chunks.key(slot)) << ChunkedBoard.chunkShift) - firstCol + toCol;
+
+	    for (int chunkRow = 0; chunkRow < ChunkedBoard.chunkSize; chunkRow++) {
+		int row = chunkFirstRow + chunkRow;
+		if ((boardSize > 0) && ((row < 0) || (row >= boardSize))) { continue; }
+
+		for (long bits = chunk[chunkRow]; bits != 0; bits &= bits - 1) {
+		    int col = chunkFirstCol + Long.numberOfTrailingZeros(bits);
+		    if ((boardSize == 0) || ((col >= 0) && (col < boardSize))) { board.set(row, col, true); }
+		}
+	    }
+	}
+    }
+
+    private void live(int row, int col) {
+	int chunkRow = row >> ChunkedBoard.chunkShift, chunkCol = col >> ChunkedBoard.chunkShift;
+	long chunkKey = ChunkedBoard.chunkKey(chunkRow, chunkCol);
+
+	if ((lastChunk == null) || (chunkKey != lastChunkKey)) {
+	    lastChunk = cells.chunk(chunkRow, chunkCol);
+	    if (lastChunk == null) {
+		lastChunk = cells.putChunk(chunkRow, chunkCol);
+		Arrays.fill(lastChunk, 0L);
+	    }
+	    lastChunkKey = chunkKey;
+	}
+	lastChunk[row & (ChunkedBoard.chunkSize - 1)] |= (1L << col);
+
+	firstRow = Math.min(firstRow, row);
+	lastRow = Math.max(lastRow, row);
+	firstCol = Math.min(firstCol, col);
+	lastCol = Math.max(lastCol, col);
+    }
+
+    private void parse() throws IOException {
+	int first = peek();
+
+	if (first == '#') {
+	    String firstLine = readLine();
+
+	    if (firstLine.startsWith("#Life 1.06")) { parseLife106(); }
+	    else if (firstLine.startsWith("#Life")) { throw new IOException("Only Life 1.06 is read of the #Life formats, not " + firstLine.substring(1)); }
+	    else {
+		rleComment(firstLine);
+		parseRle();
+	    }
+	}
+	else if (first == 'x') { parseRle(); }
+	else { parsePlaintext(); }
+    }
+
+    private void parseRle() throws IOException {
+	while (peek() == '#') { rleComment(readLine()); }
+
+	// x & y are left to the live cells themselves, as they don't always match them
+	String header = readLine();
+	if (!header.trim().startsWith("x")) { throw new IOException("RLE pattern without an x = .., y = .. line"); }
+
+	for (String setting : header.split(",")) {
+	    String[] nameValue = setting.split("=", 2);
+	    if ((nameValue.length == 2) && nameValue[0].trim().equals("rule")) { setRule(nameValue[1].trim()); }
+	}
+
+	int x = 0, y = 0, count = 0;
+
+	// A buffer full at a time, in local variables, as this loop sees every character of what may be a very big file
+	while ((position < limit) || fill()) {
+	    byte[] bytes = buffer;
+	    int end = limit;
+
+	    for (int index = position; index < end; index++) {
+		int next = bytes[index];
+
+		if ((next >= '0') && (next <= '9')) {
+		    count = (count * 10) + (next - '0');
+		    if (count > maximumRun) { throw new IOException("RLE run longer than " + maximumRun + " cells"); }
+		    continue;
+		}
+		// Line breaks & spaces can come anywhere between runs
+		if ((next == '\n') || (next == '\r') || (next == ' ') || (next == '\t')) { continue; }
+
+		int run = Math.max(1, count);
+		count = 0;
+
+		if ((next == 'b') || (next == '.')) { x += run; }
+		else if (next == '$') {
+		    x = 0;
+		    y += run;
+		}
+		else if (next == '!') {
+		    position = index + 1;
+		    return;
+		}
+		// Multi-state patterns mark live cells with other letters: every state but 0 is alive here
+		else if (((next >= 'A') && (next <= 'Z')) || ((next >= 'a') && (next <= 'z'))) {
+		    for (int cell = 0; cell < run; cell++) { live(x + cell, y); }
+		    x += run;
+		}
+	    }
+
+	    position = end;
+	}
+    }
+
+    // Comments may hold the rule too (#r B3/S23), for files with no rule in the header
+    private void rleComment(String comment) {
+	if (comment.startsWith("#r ") && (ruleText == null)) { setRule(comment.substring(3).trim()); }
+    }
+
+    private void setRule(String text) {
+	ruleText = text;
+
+	try {
+	    rule = LifeRule.parse(text);
+	}
+	catch (IllegalArgumentException iae) {
+	    rule = null;
+	}
+    }
+
+    private void parsePlaintext() throws IOException {
+	int x = 0, y = 0;
+	boolean lineStart = true;
+
+	for (int next = read(); next >= 0; next = read()) {
+	    if (lineStart && (next == '!')) {
+		skipLine();
+		continue;
+	    }
+
+	    lineStart = (next == '\n');
+	    if (next == '\n') {
+		x = 0;
+		y++;
+	    }
+	    else if (next == '\r') { continue; }
+	    else {
+		if ((next == 'O') || (next == '*')) { live(x, y); }
+		x++;
+	    }
+	}
+    }
+
+    // Pairs of whole numbers, each pair a live cell; further # lines are comments
+    private void parseLife106() throws IOException {
+	while (true) {
+	    int next = skipSpace();
+	    if (next < 0) { return; }
+	    if (next == '#') {
+		skipLine();
+		continue;
+	    }
+
+	    int x = readNumber();
+	    if (skipSpace() < 0) { throw new IOException("Life 1.06 cell with only an x"); }
+	    live(x, readNumber());
+	}
+    }
+
+    // Next character that isn't white space, left unread, or -1 at the end
+    private int skipSpace() throws IOException {
+	int next = peek();
+
+	while ((next >= 0) && Character.isWhitespace(next)) {
+	    read();
+	    next = peek();
+	}
+
+	return next;
+    }
+
+    private int readNumber() throws IOException {
+	boolean negative = (peek() == '-');
+	if (negative || (peek() == '+')) { read(); }
+
+	long number = 0;
+	int digits = 0;
+
+	for (int next = peek(); (next >= '0') && (next <= '9'); next = peek()) {
+	    number = (number * 10) + (read() - '0');
+	    if (number > Integer.MAX_VALUE) { throw new IOException("Life 1.06 cell too far out"); }
+	    digits++;
+	}
+
+	if (digits == 0) { throw new IOException("Life 1.06 cell that isn't a pair of numbers"); }
+	return (int) (negative ? -number : number);
+    }
+
+    // Header & comment lines are short, so they alone are read as strings
+    private String readLine() throws IOException {
+	StringBuilder line = new StringBuilder();
+
+	for (int next = read(); (next >= 0) && (next != '\n'); next = read()) {
+	    if (next != '\r') { line.append((char) next); }
+	}
+
+	return line.toString();
+    }
+
+    private void skipLine() throws IOException {
+	for (int next = read(); (next >= 0) && (next != '\n'); next = read()) { }
+    }
+
+    private int peek() throws IOException {
+	if ((position == limit) && !fill()) { return -1; }
+	return buffer[position] & 0xFF;
+    }
+
+    private int read() throws IOException {
+	if ((position == limit) && !fill()) { return -1; }
+	return buffer[position++] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+	limit = input.read(buffer, 0, buffer.length);
+	position = 0;
+
+	if (limit <= 0) {
+	    limit = 0;
+	    return false;
+	}
+	return true;
+    }
+
+    /* Write the live part of a board's square area (rows & columns from (fromRow, fromCol), size cells across) to a pattern file,
+     * in the format its name calls for: .rle (with rule in the header), .lif or .life for Life 1.06, anything else plaintext.
+     * Written a line at a time, trimmed to the box around the live cells.
+     */
+    public static void write(Path file, LifeBoard board, int fromRow, int fromCol, int size, LifeRule rule) throws IOException {
+	int firstRow = Integer.MAX_VALUE, firstCol = Integer.MAX_VALUE, lastRow = -1, lastCol = -1;
+
+	for (int row = 0; row < size; row++) {
+	    for (int col = 0; col < size; col++) {
+		if (!board.get(fromRow + row, fromCol + col)) { continue; }
+
+		firstRow = Math.min(firstRow, row);
+		lastRow = Math.max(lastRow, row);
+		firstCol = Math.min(firstCol, col);
+		lastCol = Math.max(lastCol, col);
+	    }
+	}
+
+	if (lastRow < 0) { firstRow = lastRow = firstCol = lastCol = 0; }
+	int rows = lastRow - firstRow + 1, cols = lastCol - firstCol + 1;
+	String name = file.getFileName().toString().toLowerCase();
+
+	try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.ISO_8859_1)) {
+	    if (name.endsWith(".rle")) { writeRle(writer, board, fromRow + firstRow, fromCol + firstCol, rows, cols, rule); }
+	    else if (name.endsWith(".lif") || name.endsWith(".life")) { writeLife106(writer, board, fromRow + firstRow, fromCol + firstCol, rows, cols); }
+	    else { writePlaintext(writer, board, fromRow + firstRow, fromCol + firstCol, rows, cols, file.getFileName().toString()); }
+	}
+    }
+
+    // Runs along each line of cells, lines of the file kept to 70 characters; runs of empty lines become a single n$
+    private static void writeRle(Writer writer, LifeBoard board, int firstRow, int firstCol, int rows, int cols, LifeRule rule) throws IOException {
+	writer.write("x = " + rows + ", y = " + cols + ", rule = " + rule + "\n");
+
+	int lineLength = 0, pendingLines = 0;
+
+	for (int y = 0; y < cols; y++) {
+	    int x = 0;
+
+	    while (x < rows) {
+		boolean alive = board.get(firstRow + x, firstCol + y);
+		int run = 1;
+		while ((x + run < rows) && (board.get(firstRow + x + run, firstCol + y) == alive)) { run++; }
+
+		// Dead cells at the end of a line are left to the $
+		if (alive || (x + run < rows)) {
+		    if (pendingLines > 0) {
+			lineLength = rleToken(writer, lineLength, pendingLines, '$');
+			pendingLines = 0;
+		    }
+		    lineLength = rleToken(writer, lineLength, run, alive ? 'o' : 'b');
+		}
+		x += run;
+	    }
+
+	    pendingLines++;
+	}
+
+	rleToken(writer, lineLength, 1, '!');
+	writer.write('\n');
+    }
+
+    private static int rleToken(Writer writer, int lineLength, int run, char tag) throws IOException {
+	String token = (run > 1) ? Integer.toString(run) + tag : String.valueOf(tag);
+
+	if (lineLength + token.length() > rleLineLength) {
+	    writer.write('\n');
+	    lineLength = 0;
+	}
+
+	writer.write(token);
+	return lineLength + token.length();
+    }
+
+    private static void writePlaintext(Writer writer, LifeBoard board, int firstRow, int firstCol, int rows, int cols, String name) throws IOException {
+	writer.write("!Name: " + name + "\n");
+	char[] line = new char[rows + 1];
+	line[rows] = '\n';
+
+	for (int y = 0; y < cols; y++) {
+	    for (int x = 0; x < rows; x++) { line[x] = board.get(firstRow + x, firstCol + y) ? 'O' : '.'; }
+	    writer.write(line);
+	}
+    }
+
+    private static void writeLife106(Writer writer, LifeBoard board, int firstRow, int firstCol, int rows, int cols) throws IOException {
+	writer.write("#Life 1.06\n");
+
+	for (int y = 0; y < cols; y++) {
+	    for (int x = 0; x < rows; x++) {
+		if (board.get(firstRow + x, firstCol + y)) { writer.write(x + " " + y + "\n"); }
+	    }
+	}
+    }
+}
@@ -0,0 +1,273 @@
+package gameoflife;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/* Whole game saved to one binary file & read back: the board, its generation count, the rule panel, wrap & display mode.
+ * 1. Little-endian: a 64 byte header, then the cells bit-packed as in BitGrid, 64 per long, each row padded to whole words
+ * 2. A grid is saved row after row; the infinite plane chunk by chunk, each chunk's key then its 64 rows,
+ *    so only the chunks in use are saved, however far apart they are
+ * 3. Saving writes whole rows at a time through a FileChannel; loading maps the file & copies the rows straight into the board,
+ *    so neither looks at single cells
+ * Only the current generation is saved: the simulation's other grid is filled in again by the first step after loading.
+ */
+public class SavedGame {
+    // Display modes, as the Display Mode buttons
+    public static final int blackWhite = 0, greyScale = 1, colorScale = 2;
+
+    private static final long magic = 0x4C49464553415645L;	// "LIFESAVE"
+    private static final int version = 1, headerBytes = 64, bufferBytes = 1 << 20, maximumRegionBytes = 1 << 30;
+    private static final int gridBoard = 0, planeBoard = 1;
+    private static final int chunkBytes = (ChunkedBoard.chunkSize + 1) * 8;
+
+    private final LifeBoard board;
+    private final long generation;
+    private final boolean wrapAround, wildcardsOnly;
+    private final int minimumOnMaximumOff, maximumOnMinimumOff, displayMode;
+    private final boolean[] wildcardsOn, wildcardsOff;
+
+    /* board: a BitGrid, ChunkedBoard or MappedGrid that nothing else writes to while it's saved, such as a snapshot's board.
+     * The wildcard arrays are indexed by neighbor count, 1 through 8, like the rule panel's.
+     */
+    public SavedGame(LifeBoard board, long generation, boolean wrapAround, int minimumOnMaximumOff, int maximumOnMinimumOff,
+	    boolean wildcardsOnly, boolean[] wildcardsOn, boolean[] wildcardsOff, int displayMode) {
+	this.board = board;
+	this.generation = generation;
+	this.wrapAround = wrapAround;
+	this.minimumOnMaximumOff = minimumOnMaximumOff;
+	this.maximumOnMinimumOff = maximumOnMinimumOff;
+	this.wildcardsOnly = wildcardsOnly;
+	this.wildcardsOn = wildcardsOn.clone();
+	this.wildcardsOff = wildcardsOff.clone();
+	this.displayMode = displayMode;
+    }
+
+    // Loaded board: a BitGrid, or a ChunkedBoard for the infinite plane
+    public LifeBoard getBoard() {
+	return board;
+    }
+
+    public long getGeneration() {
+	return generation;
+    }
+
+    public boolean isWrapAround() {
+	return wrapAround;
+    }
+
+    public int getMinimumOnMaximumOff() {
+	return minimumOnMaximumOff;
+    }
+
+    public int getMaximumOnMinimumOff() {
+	return maximumOnMinimumOff;
+    }
+
+    public boolean isWildcardsOnly() {
+	return wildcardsOnly;
+    }
+
+    public boolean[] getWildcardsOn() {
+	return wildcardsOn.clone();
+    }
+
+    public boolean[] getWildcardsOff() {
+	return wildcardsOff.clone();
+    }
+
+    public int getDisplayMode() {
+	return displayMode;
+    }
+
+    public void save(Path file) throws IOException {
+	try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+	    ByteBuffer bytes = ByteBuffer.allocateDirect(bufferBytes).order(ByteOrder.LITTLE_ENDIAN);
+	    boolean plane = (board instanceof ChunkedBoard);
+
+	    bytes.putLong(magic);
+	    bytes.putInt(version);
+	    bytes.putInt(plane ? planeBoard : gridBoard);
+	    bytes.putInt(plane ? ((ChunkedBoard) board).chunkCount() : boardSize(board));
+	    bytes.putInt((wrapAround ? 1 : 0) | (wildcardsOnly ? 2 : 0));
+	    bytes.putLong(generation);
+	    bytes.putInt(minimumOnMaximumOff);
+	    bytes.putInt(maximumOnMinimumOff);
+	    bytes.putInt(wildcardBits(wildcardsOn));
+	    bytes.putInt(wildcardBits(wildcardsOff));
+	    bytes.putInt(displayMode);
+	    bytes.position(headerBytes);
+	    bytes.flip();
+	    while (bytes.hasRemaining()) { channel.write(bytes); }
+
+	    // Then the cells, a buffer full at a time
+	    bytes.clear();
+	    LongBuffer words = bytes.asLongBuffer();
+	    if (plane) { savePlane(channel, bytes, words, (ChunkedBoard) board); }
+	    else { saveGrid(channel, bytes, words, board); }
+	    write(channel, bytes, words);
+	}
+    }
+
+    private static void saveGrid(FileChannel channel, ByteBuffer bytes, LongBuffer words, LifeBoard grid) throws IOException {
+	int size = boardSize(grid), wordsPerRow = (size + 63) >>> 6;
+
+	for (int row = 0; row < size; row++) {
+	    if (grid instanceof BitGrid) {
+		BitGrid bitGrid = (BitGrid) grid;
+		put(channel, bytes, words, bitGrid.words(), bitGrid.rowBase(row), wordsPerRow);
+		continue;
+	    }
+
+	    for (int word = 0; word < wordsPerRow; word++) {
+		if (!words.hasRemaining()) { write(channel, bytes, words); }
+		words.put(grid.cells(row, word << 6, false));
+	    }
+	}
+    }
+
+    private static void savePlane(FileChannel channel, ByteBuffer bytes, LongBuffer words, ChunkedBoard plane) throws IOException {
+	ChunkMap chunks = plane.chunks();
+
+	for (int slot = 0; slot < chunks.capacity(); slot++) {
+	    long[] chunk = chunks.value(slot);
+	    if (chunk == null) { continue; }
+
+	    if (words.remaining() < ChunkedBoard.chunkSize + 1) { write(channel, bytes, words); }
+	    words.put(chunks.key(slot));
+	    words.put(chunk);
+	}
+    }
+
+    // Words that don't fit in what's left of the buffer are put in after writing it out, as many times as it takes
+    private static void put(FileChannel channel, ByteBuffer bytes, LongBuffer words, long[] from, int index, int count) throws IOException {
+	while (count > 0) {
+	    if (!words.hasRemaining()) { write(channel, bytes, words); }
+
+	    int length = Math.min(count, words.remaining());
+	    words.put(from, index, length);
+	    index += length;
+	    count -= length;
+	}
+    }
+
+    // Write out the words put so far, leaving the buffer empty
+    private static void write(FileChannel channel, ByteBuffer bytes, LongBuffer words) throws IOException {
+	bytes.limit(words.position() * 8);
+	while (bytes.hasRemaining()) { channel.write(bytes); }
+
+	bytes.clear();
+	words.clear();
+    }
+
+    /* Read a saved game back, checking it really is one: the cells are copied from the mapped file into a new board,
+     * which belongs to the caller.
+     */
+    public static SavedGame load(Path file) throws IOException {
+	try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+	    if (channel.size() < headerBytes) { throw new IOException(file + " is not a saved game"); }
+
+	    ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerBytes).order(ByteOrder.LITTLE_ENDIAN);
+	    if (header.getLong(0) != magic) { throw new IOException(file + " is not a saved game"); }
+	    if (header.getInt(8) != version) { throw new IOException(file + " was saved by a different version, " + header.getInt(8)); }
+
+	    int boardKind = header.getInt(12), count = header.getInt(16), flags = header.getInt(20);
+	    LifeBoard board;
+
+	    if (boardKind == planeBoard) { board = loadPlane(file, channel, count); }
+	    else if (boardKind == gridBoard) { board = loadGrid(file, channel, count); }
+	    else { throw new IOException(file + " holds an unknown kind of board, " + boardKind); }
+
+	    // A display mode this version doesn't know, such as one added later, is shown in black & white
+	    int displayMode = header.getInt(48);
+	    if ((displayMode < blackWhite) || (displayMode > colorScale)) { displayMode = blackWhite; }
+
+	    return new SavedGame(board, header.getLong(24), (flags & 1) != 0, header.getInt(32), header.getInt(36), (flags & 2) != 0,
+		    wildcards(header.getInt(40)), wildcards(header.getInt(44)), displayMode);
+	}
+    }
+
+    // Mapped a region of whole rows at a time, as one mapping can't be larger than 2GB
+    private static BitGrid loadGrid(Path file, FileChannel channel, int size) throws IOException {
+	if (size < 3) { throw new IOException(file + " holds a board of size " + size); }
+
+	int wordsPerRow = (size + 63) >>> 6, rowsPerRegion = Math.max(1, maximumRegionBytes / (wordsPerRow * 8));
+	checkLength(file, channel, (long) size * wordsPerRow * 8);
+
+	BitGrid grid = new BitGrid(size);
+	long[] gridWords = grid.words();
+
+	for (int firstRow = 0; firstRow < size; firstRow += rowsPerRegion) {
+	    int regionRows = Math.min(rowsPerRegion, size - firstRow);
+	    LongBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, headerBytes + ((long) firstRow * wordsPerRow * 8),
+		    (long) regionRows * wordsPerRow * 8).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+
+	    for (int row = firstRow; row < firstRow + regionRows; row++) {
+		int rowBase = grid.rowBase(row);
+		region.get(gridWords, rowBase, wordsPerRow);
+
+		// Padding bits must stay clear, whatever the file holds
+		gridWords[rowBase + wordsPerRow - 1] &= grid.lastWordMask();
+	    }
+	}
+
+	return grid;
+    }
+
+    private static ChunkedBoard loadPlane(Path file, FileChannel channel, int chunkCount) throws IOException {
+	if (chunkCount < 0) { throw new IOException(file + " holds " + chunkCount + " chunks"); }
+	checkLength(file, channel, (long) chunkCount * chunkBytes);
+
+	ChunkedBoard plane = new ChunkedBoard();
+	int chunksPerRegion = maximumRegionBytes / chunkBytes;
+
+	for (int firstChunk = 0; firstChunk < chunkCount; firstChunk += chunksPerRegion) {
+	    int regionChunks = Math.min(chunksPerRegion, chunkCount - firstChunk);
+	    LongBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, headerBytes + ((long) firstChunk * chunkBytes),
+		    (long) regionChunks * chunkBytes).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+
+	    for (int chunk = 0; chunk < regionChunks; chunk++) {
+		long key = region.get();
+		region.get(plane.putChunk(ChunkedBoard.chunkRow(key), ChunkedBoard.chunkCol(key)));
+	    }
+	}
+
+	return plane;
+    }
+
+    private static void checkLength(Path file, FileChannel channel, long cellBytes) throws IOException {
+	if (channel.size() != headerBytes + cellBytes) { throw new IOException(file + " is cut short or has been changed"); }
+    }
+
+    // Only bounded boards have a size
+    private static int boardSize(LifeBoard board) {
+	if (board instanceof BitGrid) { return ((BitGrid) board).size(); }
+	if (board instanceof MappedGrid) { return ((MappedGrid) board).size(); }
+	throw new IllegalArgumentException("Cannot save a " + board.getClass().getSimpleName());
+    }
+
+    // Bit n set = wildcard n ticked
+    private static int wildcardBits(boolean[] wildcards) {
+	int bits = 0;
+
+	for (int howManyActiveNeighbors = 1; howManyActiveNeighbors <= 8; howManyActiveNeighbors++) {
+	    if (wildcards[howManyActiveNeighbors]) { bits |= (1 << howManyActiveNeighbors); }
+	}
+
+	return bits;
+    }
+
+    private static boolean[] wildcards(int bits) {
+	boolean[] wildcards = new boolean[9];
+
+	for (int howManyActiveNeighbors = 1; howManyActiveNeighbors <= 8; howManyActiveNeighbors++) {
+	    wildcards[howManyActiveNeighbors] = (bits & (1 << howManyActiveNeighbors)) != 0;
+	}
+
+	return wildcards;
+    }
+}
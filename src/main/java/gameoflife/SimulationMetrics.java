@@ -0,0 +1,240 @@
+package gameoflife;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/* Live measurements of the simulation & the renderer, to tell which of them is holding the other up:
+ * 1. The simulation thread & Swing thread only add to counters & rings of recent times, which never allocates or locks
+ * 2. Rates are worked out when read, at most once per window, by whichever reader comes first (the overlay, JMX)
+ * 3. Population is counted by the simulation thread from the next snapshot it publishes after a window, not every generation
+ * Steps & paints are also JFR events, made only while a recording has them switched on:
+ * java -XX:StartFlightRecording=filename=life.jfr ... then look for the Game of Life category.
+ */
+public class SimulationMetrics implements SimulationMetricsMBean {
+    public static final String objectName = "gameoflife:type=SimulationMetrics";
+    public static final int sampleCount = 1024;
+
+    private static final long windowNanos = 500_000_000L;
+
+    // Last sampleCount durations of one kind, in nanoseconds: added to by one thread, read by any
+    private static class durations {
+	private final AtomicLongArray samples = new AtomicLongArray(sampleCount);
+	private volatile long count = 0;
+
+	private void add(long nanos) {
+	    samples.lazySet((int) (count & (sampleCount - 1)), nanos);
+	    count = count + 1;
+	}
+
+	// percentile 0 to 100, of the samples there are so far: 0 if there are none
+	private double millis(double percentile) {
+	    int available = (int) Math.min(count, sampleCount);
+	    if (available == 0) { return 0; }
+
+	    long[] sorted = new long[available];
+	    for (int sample = 0; sample < available; sample++) { sorted[sample] = samples.get(sample); }
+	    Arrays.sort(sorted);
+
+	    return sorted[(int) Math.min(available - 1, Math.floor((percentile / 100) * available))] / 1e6;
+	}
+    }
+
+    @Name("gameoflife.Step")
+    @Label("Step")
+    @Category("Game of Life")
+    static class stepEvent extends Event {
+	@Label("Generation")
+	long generation;
+
+	@Label("Cells Stepped")
+	long cellsStepped;
+    }
+
+    @Name("gameoflife.Paint")
+    @Label("Paint")
+    @Category("Game of Life")
+    static class paintEvent extends Event {
+	@Label("Generation")
+	long generation;
+    }
+
+    private static final EventType stepEventType = EventType.getEventType(stepEvent.class);
+    private static final EventType paintEventType = EventType.getEventType(paintEvent.class);
+
+    private final durations stepTimes = new durations(), renderTimes = new durations(), paintTimes = new durations();
+
+    // Simulation thread writes, anything reads
+    private volatile long generation = 0, generationsStepped = 0, cellsStepped = 0, population = -1;
+    private final AtomicBoolean populationWanted = new AtomicBoolean(true);
+
+    // Worked out once per window, under the lock
+    private long windowStart = System.nanoTime(), windowGenerations = 0, windowCells = 0, windowAllocated = allocatedBytes();
+    private double generationsPerSecond = 0, cellsSteppedPerSecond = 0, allocatedBytesPerSecond = 0;
+
+    // A JFR event to begin before a step, or null when no recording wants one
+    static stepEvent beginStep() {
+	if (!stepEventType.isEnabled()) { return null; }
+
+	stepEvent event = new stepEvent();
+	event.begin();
+	return event;
+    }
+
+    static paintEvent beginPaint() {
+	if (!paintEventType.isEnabled()) { return null; }
+
+	paintEvent event = new paintEvent();
+	event.begin();
+	return event;
+    }
+
+    // Simulation thread: a generation stepped, going over the given number of cells
+    void stepped(stepEvent event, long nanos, long cells, long newGeneration) {
+	stepTimes.add(nanos);
+	generationsStepped = generationsStepped + 1;
+	cellsStepped = cellsStepped + cells;
+	generation = newGeneration;
+
+	if (event != null) {
+	    event.generation = newGeneration;
+	    event.cellsStepped = cells;
+	    event.commit();
+	}
+    }
+
+    // Simulation thread: generations gone by without single steps, jumps & loads
+    void jumped(long generationsJumped, long newGeneration) {
+	if (generationsJumped > 0) { generationsStepped = generationsStepped + generationsJumped; }
+	generation = newGeneration;
+    }
+
+    // Simulation thread: a board just copied for a snapshot, counted if a window has gone by since the last count
+    void published(LifeBoard board) {
+	if (!populationWanted.get()) { return; }
+
+	populationWanted.set(false);
+	if (board instanceof BitGrid) { population = ((BitGrid) board).population(); }
+	else if (board instanceof ChunkedBoard) { population = ((ChunkedBoard) board).population(); }
+	else { population = -1; }
+    }
+
+    // Simulation thread: the board changed outside of stepping, so the next snapshot is counted however soon it comes
+    void edited() {
+	populationWanted.set(true);
+    }
+
+    // Swing thread
+    void rendered(long nanos) {
+	renderTimes.add(nanos);
+    }
+
+    void painted(paintEvent event, long nanos, long paintedGeneration) {
+	paintTimes.add(nanos);
+
+	if (event != null) {
+	    event.generation = paintedGeneration;
+	    event.commit();
+	}
+    }
+
+    private synchronized void refresh() {
+	long now = System.nanoTime();
+	if (now - windowStart < windowNanos) { return; }
+
+	long generations = generationsStepped, cells = cellsStepped, allocated = allocatedBytes();
+	double seconds = (now - windowStart) / 1e9;
+
+	generationsPerSecond = (generations - windowGenerations) / seconds;
+	cellsSteppedPerSecond = (cells - windowCells) / seconds;
+	allocatedBytesPerSecond = Math.max(0, allocated - windowAllocated) / seconds;
+
+	windowStart = now;
+	windowGenerations = generations;
+	windowCells = cells;
+	windowAllocated = allocated;
+	populationWanted.set(true);
+    }
+
+    // Bytes allocated so far by every live thread: threads that have ended drop out, so a window can come out short
+    static long allocatedBytes() {
+	com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+	long allocated = 0;
+
+	for (long threadBytes : threadBean.getThreadAllocatedBytes(threadBean.getAllThreadIds())) {
+	    if (threadBytes > 0) { allocated += threadBytes; }
+	}
+
+	return allocated;
+    }
+
+    @Override
+    public long getGeneration() {
+	return generation;
+    }
+
+    @Override
+    public synchronized double getGenerationsPerSecond() {
+	refresh();
+	return generationsPerSecond;
+    }
+
+    @Override
+    public synchronized double getCellsSteppedPerSecond() {
+	refresh();
+	return cellsSteppedPerSecond;
+    }
+
+    @Override
+    public long getPopulation() {
+	return population;
+    }
+
+    @Override
+    public synchronized double getAllocatedBytesPerSecond() {
+	refresh();
+	return allocatedBytesPerSecond;
+    }
+
+    @Override
+    public double getStepMillisMedian() {
+	return stepTimes.millis(50);
+    }
+
+    @Override
+    public double getStepMillis99thPercentile() {
+	return stepTimes.millis(99);
+    }
+
+    @Override
+    public double getStepMillisMaximum() {
+	return stepTimes.millis(100);
+    }
+
+    @Override
+    public double getRenderMillisMedian() {
+	return renderTimes.millis(50);
+    }
+
+    @Override
+    public double getRenderMillis99thPercentile() {
+	return renderTimes.millis(99);
+    }
+
+    @Override
+    public double getPaintMillisMedian() {
+	return paintTimes.millis(50);
+    }
+
+    @Override
+    public double getPaintMillis99thPercentile() {
+	return paintTimes.millis(99);
+    }
+}
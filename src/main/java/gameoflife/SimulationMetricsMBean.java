@@ -0,0 +1,35 @@
+package gameoflife;
+
+/* What SimulationMetrics shows over JMX, under SimulationMetrics.objectName: rates are over the last half second or so,
+ * times in milliseconds over the last SimulationMetrics.sampleCount steps or paints.
+ */
+public interface SimulationMetricsMBean {
+    long getGeneration();
+
+    double getGenerationsPerSecond();
+
+    // Cells the stepper went over, whole active tiles or chunks at a time, whether or not they changed
+    double getCellsSteppedPerSecond();
+
+    // Live cells in a recent snapshot, or -1 for a mapped board, which is too big to count as it runs
+    long getPopulation();
+
+    // By every thread: simulation, stepper pool & Swing alike
+    double getAllocatedBytesPerSecond();
+
+    double getStepMillisMedian();
+
+    double getStepMillis99thPercentile();
+
+    double getStepMillisMaximum();
+
+    // Drawing the changed cells of a new snapshot into the board image, on the Swing thread
+    double getRenderMillisMedian();
+
+    double getRenderMillis99thPercentile();
+
+    // Painting the panel from the board image, on the Swing thread
+    double getPaintMillisMedian();
+
+    double getPaintMillis99thPercentile();
+}
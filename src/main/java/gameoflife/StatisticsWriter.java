@@ -0,0 +1,133 @@
+package gameoflife;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+/* Streams GenerationStatistics records to a file on a thread of its own, from the one they're recorded on onwards:
+ * 1. A file ending in .csv gets a header line of field names, then a line of numbers per generation, all of them about that generation's board
+ *    (version 1 files had the neighbor counts of the generation before)
+ * 2. Any other file is binary & little-endian: "LIFESTAT", the version & field count as ints, then each record's fields as longs
+ * 3. Records are written into one buffer & the buffer to the file when it fills, or when there are no new records to write,
+ *    numbers turned into digits by hand, so writing allocates nothing however long the run
+ * The recording thread waits for the writer rather than write over a record it hasn't saved, so none are ever dropped.
+ */
+class StatisticsWriter implements Runnable {
+    private static final long magic = 0x4C49464553544154L;	// "LIFESTAT"
+    private static final int version = 2, bufferBytes = 1 << 16, maximumRecordBytes = GenerationStatistics.fieldCount * 21;
+
+    private final GenerationStatistics statistics;
+    private final FileChannel channel;
+    private final boolean csv;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(bufferBytes).order(ByteOrder.LITTLE_ENDIAN);
+    private final long[] values = new long[GenerationStatistics.fieldCount];
+    private final Thread writerThread;
+    private volatile boolean closing = false;
+    private long nextRecord, firstRecord;
+    private IOException failure;
+
+    StatisticsWriter(GenerationStatistics statistics, Path file) throws IOException {
+	this.statistics = statistics;
+	this.csv = file.getFileName().toString().toLowerCase().endsWith(".csv");
+	this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+	if (csv) { buffer.put(String.join(",", GenerationStatistics.fieldNames).concat("\n").getBytes(StandardCharsets.US_ASCII)); }
+	else {
+	    buffer.putLong(magic);
+	    buffer.putInt(version);
+	    buffer.putInt(GenerationStatistics.fieldCount);
+	}
+
+	statistics.startExport();
+	firstRecord = statistics.written();
+	nextRecord = firstRecord;
+	writerThread = new Thread(this, "Statistics writer");
+	writerThread.setDaemon(true);
+	writerThread.start();
+    }
+
+    // Records written to the file so far
+    long records() {
+	return nextRecord - firstRecord;
+    }
+
+    // Write out every record there is by now, then close the file
+    void close() throws IOException {
+	closing = true;
+	LockSupport.unpark(writerThread);
+
+	try {
+	    writerThread.join();
+	}
+	catch (InterruptedException ie) {
+	    Thread.currentThread().interrupt();
+	}
+
+	statistics.stopExport();
+	channel.close();
+	if (failure != null) { throw failure; }
+    }
+
+    @Override
+    public void run() {
+	try {
+	    while (true) {
+		// Read before the records, so every record added before closing gets written
+		boolean lastPass = closing;
+
+		while (nextRecord < statistics.written()) {
+		    if (buffer.remaining() < maximumRecordBytes) { flush(); }
+
+		    statistics.read(nextRecord, values);
+		    if (csv) { putCsv(); }
+		    else { for (long value : values) { buffer.putLong(value); } }
+
+		    nextRecord++;
+		    statistics.exported(nextRecord);
+		}
+
+		flush();
+		if (lastPass) { return; }
+
+		LockSupport.parkNanos(1_000_000L);
+	    }
+	}
+	catch (IOException ioe) {
+	    failure = ioe;
+	    // Don't hold the simulation up for a file that can't be written
+	    statistics.stopExport();
+	}
+    }
+
+    private void putCsv() {
+	for (int field = 0; field < values.length; field++) {
+	    if (field > 0) { buffer.put((byte) ','); }
+	    putDigits(values[field]);
+	}
+	buffer.put((byte) '\n');
+    }
+
+    // Decimal digits straight into the buffer, most significant first: fields are counts, rows & columns, or -1 for none
+    private void putDigits(long value) {
+	if (value < 0) {
+	    buffer.put((byte) '-');
+	    value = -value;
+	}
+
+	long divisor = 1;
+	while (divisor <= value / 10) { divisor *= 10; }
+
+	for (; divisor > 0; divisor /= 10) { buffer.put((byte) ('0' + ((value / divisor) % 10))); }
+    }
+
+    private void flush() throws IOException {
+	buffer.flip();
+	while (buffer.hasRemaining()) { channel.write(buffer); }
+	buffer.clear();
+    }
+}
@@ -0,0 +1,135 @@
+package gameoflife;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/* Same step as BitGrid.stepWords, a whole vector of words at a time, using the incubating Vector API:
+ * 1. Each lane holds one 64 cell word, so a 512 bit vector steps 512 cells of a row at once
+ * 2. The halo lets the west & east neighbor words be loaded as the same vector one word either side
+ * 3. Words left over at the end of a row, fewer than a vector, go through the scalar kernel
+ * 4. The rule terms & last word mask are broadcast into vectors once per rule & grid, then reused by every band & generation
+ * Only loaded when jdk.incubator.vector is present (java --add-modules jdk.incubator.vector), see ParallelStepper.
+ */
+final class VectorKernel {
+    private static final VectorSpecies<Long> species = LongVector.SPECIES_PREFERRED;
+    private static final LongVector allCells = LongVector.broadcast(species, -1L);
+
+    // The vectors for the last rule & grid stepped, replaced whole so bands on other threads always see a matching set
+    private static volatile ruleVectors lastVectors;
+
+    private VectorKernel() {
+    }
+
+    static void stepRows(BitGrid currentGrid, BitGrid nextGrid, int firstRow, int lastRow, boolean wrapAround, LifeRule rule, ActiveTiles activeTiles) {
+	long[] current = currentGrid.words(), next = nextGrid.words();
+	int wordsPerRow = currentGrid.wordsPerRow(), rowStride = currentGrid.rowStride();
+	int lanes = species.length(), vectorWords = wordsPerRow - (wordsPerRow % lanes);
+
+	ruleVectors vectors = lastVectors;
+	if ((vectors == null) || (vectors.rule != rule) || (vectors.lastWordMask != currentGrid.lastWordMask())) {
+	    vectors = new ruleVectors(rule, currentGrid.lastWordMask());
+	    lastVectors = vectors;
+	}
+
+	LongVector[] terms = vectors.terms;
+	LongVector lastMask = vectors.lastMask;
+
+	for (int row = firstRow; row < lastRow; row++) {
+	    int rowBase = currentGrid.rowBase(row);
+	    int aboveBase = rowBase - rowStride;
+	    int belowBase = rowBase + rowStride;
+
+	    for (int word = 0; word < vectorWords; word += lanes) {
+		if ((activeTiles != null) && !anyActive(activeTiles, row, word, lanes)) { continue; }
+
+		// A block that ends the row holds the last word, along with its padding bits
+		LongVector wordMask = (word + lanes == wordsPerRow) ? lastMask : allCells;
+
+		// The eight neighbors, counted inline: as a method of its own it's too big for the JIT to inline, & its vectors would be boxed
+		LongVector upper = LongVector.fromArray(species, current, aboveBase + word);
+		LongVector upperLeft = upper.lanewise(VectorOperators.LSHL, 1).or(LongVector.fromArray(species, current, aboveBase + word - 1).lanewise(VectorOperators.LSHR, 63));
+		LongVector upperRight = upper.lanewise(VectorOperators.LSHR, 1).or(LongVector.fromArray(species, current, aboveBase + word + 1).lanewise(VectorOperators.LSHL, 63));
+		LongVector middle = LongVector.fromArray(species, current, rowBase + word);
+		LongVector left = middle.lanewise(VectorOperators.LSHL, 1).or(LongVector.fromArray(species, current, rowBase + word - 1).lanewise(VectorOperators.LSHR, 63));
+		LongVector right = middle.lanewise(VectorOperators.LSHR, 1).or(LongVector.fromArray(species, current, rowBase + word + 1).lanewise(VectorOperators.LSHL, 63));
+		LongVector lower = LongVector.fromArray(species, current, belowBase + word);
+		LongVector lowerLeft = lower.lanewise(VectorOperators.LSHL, 1).or(LongVector.fromArray(species, current, belowBase + word - 1).lanewise(VectorOperators.LSHR, 63));
+		LongVector lowerRight = lower.lanewise(VectorOperators.LSHR, 1).or(LongVector.fromArray(species, current, belowBase + word + 1).lanewise(VectorOperators.LSHL, 63));
+
+		// Same full & half adders as BitGrid.nextWord
+		LongVector upperSum = upperLeft.lanewise(VectorOperators.XOR, upper).lanewise(VectorOperators.XOR, upperRight);
+		LongVector upperCarry = upperLeft.and(upper).or(upperRight.and(upperLeft.lanewise(VectorOperators.XOR, upper)));
+		LongVector middleSum = left.lanewise(VectorOperators.XOR, right).lanewise(VectorOperators.XOR, lowerLeft);
+		LongVector middleCarry = left.and(right).or(lowerLeft.and(left.lanewise(VectorOperators.XOR, right)));
+		LongVector lowerSum = lower.lanewise(VectorOperators.XOR, lowerRight);
+		LongVector lowerCarry = lower.and(lowerRight);
+
+		LongVector countBit0 = upperSum.lanewise(VectorOperators.XOR, middleSum).lanewise(VectorOperators.XOR, lowerSum);
+		LongVector onesCarry = upperSum.and(middleSum).or(lowerSum.and(upperSum.lanewise(VectorOperators.XOR, middleSum)));
+
+		LongVector twosSum = upperCarry.lanewise(VectorOperators.XOR, middleCarry).lanewise(VectorOperators.XOR, lowerCarry);
+		LongVector twosCarry = upperCarry.and(middleCarry).or(lowerCarry.and(upperCarry.lanewise(VectorOperators.XOR, middleCarry)));
+		LongVector countBit1 = twosSum.lanewise(VectorOperators.XOR, onesCarry);
+		LongVector foursCarry = twosSum.and(onesCarry);
+
+		LongVector countBit2 = twosCarry.lanewise(VectorOperators.XOR, foursCarry);
+		LongVector countBit3 = twosCarry.and(foursCarry);
+
+		LongVector dead = middle.not();
+		LongVector nextWords = LongVector.zero(species);
+
+		for (int term = 0; term < terms.length; term += 6) {
+		    LongVector matches = countBit0.lanewise(VectorOperators.XOR, terms[term]).and(countBit1.lanewise(VectorOperators.XOR, terms[term + 1]))
+			    .and(countBit2.lanewise(VectorOperators.XOR, terms[term + 2])).and(countBit3.lanewise(VectorOperators.XOR, terms[term + 3]));
+
+		    nextWords = nextWords.or(matches.and(dead.and(terms[term + 4]).or(middle.and(terms[term + 5]))));
+		}
+
+		LongVector alive = middle.and(wordMask);
+		nextWords = nextWords.and(wordMask);
+		nextWords.intoArray(next, rowBase + word);
+
+		/* Inactive tiles stepped along with active ones come out unchanged, so they are never marked.
+		 * Changed words are found from the arrays, as comparing vectors into a mask allocates it.
+		 */
+		if ((activeTiles != null) && (nextWords.lanewise(VectorOperators.XOR, alive).reduceLanes(VectorOperators.OR) != 0)) {
+		    for (int lane = 0; lane < lanes; lane++) {
+			long laneMask = (word + lane == wordsPerRow - 1) ? currentGrid.lastWordMask() : -1L;
+			if (((next[rowBase + word + lane] ^ current[rowBase + word + lane]) & laneMask) != 0) { activeTiles.markChanged(row, word + lane, wrapAround); }
+		    }
+		}
+	    }
+
+	    if (vectorWords < wordsPerRow) {
+		nextGrid.stepWords(currentGrid, row, vectorWords, wordsPerRow, wrapAround, rule, activeTiles, null);
+	    }
+	}
+    }
+
+    // The rule terms & the padding mask of the last word, as vectors
+    private static class ruleVectors {
+	final LifeRule rule;
+	final long lastWordMask;
+	final LongVector[] terms;
+	final LongVector lastMask;
+
+	ruleVectors(LifeRule rule, long lastWordMask) {
+	    this.rule = rule;
+	    this.lastWordMask = lastWordMask;
+
+	    terms = new LongVector[rule.terms.length];
+	    for (int term = 0; term < terms.length; term++) { terms[term] = LongVector.broadcast(species, rule.terms[term]); }
+
+	    lastMask = allCells.withLane(species.length() - 1, lastWordMask);
+	}
+    }
+
+    private static boolean anyActive(ActiveTiles activeTiles, int row, int firstWord, int lanes) {
+	for (int word = firstWord; word < firstWord + lanes; word++) {
+	    if (activeTiles.isActive(row, word)) { return true; }
+	}
+
+	return false;
+    }
+}
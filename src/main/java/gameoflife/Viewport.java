@@ -0,0 +1,163 @@
+package gameoflife;
+
+/* Part of the board shown on screen, kept apart from the board itself so boards can be far bigger than the window:
+ * 1. The view is a square of viewPixels on screen, with the cell at (originRow, originCol) in its top left corner
+ * 2. Zoomed in, each cell is cellSize x cellSize pixels
+ * 3. Zoomed out past 1 pixel per cell, each pixel covers cellsPerPixel x cellsPerPixel cells, shaded by how many are alive
+ * 4. A board size of 0 is the infinite plane: the view goes anywhere, negative rows & columns too, & zooms out to maximumCellsPerPixel
+ * Viewports never change once built: zooming & panning return a new one, so renderers can tell when the view moved.
+ */
+public class Viewport {
+    public static final int maximumCellSize = 32, maximumCellsPerPixel = 256;
+
+    private final int boardSize, viewPixels, cellSize, cellsPerPixel, originRow, originCol;
+
+    // Whole board from its top left corner, cellSize pixels per cell: boardSize 0 for the infinite plane
+    public Viewport(int boardSize, int viewPixels, int cellSize) {
+	this(boardSize, viewPixels, cellSize, 1, 0, 0);
+    }
+
+    private Viewport(int boardSize, int viewPixels, int cellSize, int cellsPerPixel, int originRow, int originCol) {
+	this.boardSize = boardSize;
+	this.viewPixels = viewPixels;
+	this.cellSize = cellSize;
+	this.cellsPerPixel = cellsPerPixel;
+
+	// Keep the view on the board: a board smaller than the view stays in the top left corner
+	if (isUnbounded()) {
+	    this.originRow = originRow;
+	    this.originCol = originCol;
+	}
+	else {
+	    int lastOrigin = boardSize - visibleCells();
+	    this.originRow = Math.max(0, Math.min(originRow, lastOrigin));
+	    this.originCol = Math.max(0, Math.min(originCol, lastOrigin));
+	}
+    }
+
+    public int boardSize() {
+	return boardSize;
+    }
+
+    public boolean isUnbounded() {
+	return boardSize == 0;
+    }
+
+    public int viewPixels() {
+	return viewPixels;
+    }
+
+    // Pixels per cell, 1 when zoomed out
+    public int cellSize() {
+	return cellSize;
+    }
+
+    // Cells per pixel across, 1 when zoomed in
+    public int cellsPerPixel() {
+	return cellsPerPixel;
+    }
+
+    public boolean isZoomedOut() {
+	return cellsPerPixel > 1;
+    }
+
+    public int originRow() {
+	return originRow;
+    }
+
+    public int originCol() {
+	return originCol;
+    }
+
+    // Cells shown across the view (the same both ways): whole cells only, never more than the board
+    public int visibleCells() {
+	int viewCells = isZoomedOut() ? viewPixels * cellsPerPixel : viewPixels / cellSize;
+	return isUnbounded() ? viewCells : Math.min(boardSize, viewCells);
+    }
+
+    // Pixels across taken up by the visible cells
+    public int shownPixels() {
+	if (isZoomedOut()) { return (visibleCells() + cellsPerPixel - 1) / cellsPerPixel; }
+	return visibleCells() * cellSize;
+    }
+
+    // Whether a pixel of the view is on the visible cells
+    public boolean shows(int x, int y) {
+	return (x >= 0) && (y >= 0) && (x < shownPixels()) && (y < shownPixels());
+    }
+
+    // Board row or column under a pixel of the view: only meaningful where the view shows cells
+    public int rowAt(int x) {
+	return originRow + cellsAcross(x, cellSize, cellsPerPixel);
+    }
+
+    public int colAt(int y) {
+	return originCol + cellsAcross(y, cellSize, cellsPerPixel);
+    }
+
+    // Pixels across for a number of cells, at least 1
+    public int pixelsFor(int cells) {
+	if (isZoomedOut()) { return Math.max(1, cells / cellsPerPixel); }
+	return cells * cellSize;
+    }
+
+    public Viewport withCellSize(int newCellSize) {
+	return zoomedTo(Math.max(1, Math.min(maximumCellSize, newCellSize)), 1, viewPixels / 2, viewPixels / 2);
+    }
+
+    // Zoomed out no further than needed to fit the whole of the new board
+    public Viewport resizedBoard(int newBoardSize) {
+	int newCellsPerPixel = cellsPerPixel;
+	while ((newBoardSize > 0) && (newCellsPerPixel > 1) && (newBoardSize <= viewPixels * (newCellsPerPixel / 2))) { newCellsPerPixel /= 2; }
+
+	return new Viewport(newBoardSize, viewPixels, cellSize, newCellsPerPixel, originRow, originCol);
+    }
+
+    /* One step in or out, keeping the cell under (x, y) where it is:
+     * cell sizes double up to maximumCellSize, cells per pixel double until the whole board fits in the view
+     * or, on the infinite plane, up to maximumCellsPerPixel.
+     */
+    public Viewport zoomedIn(int x, int y) {
+	if (isZoomedOut()) { return zoomedTo(1, cellsPerPixel / 2, x, y); }
+	return zoomedTo(Math.min(maximumCellSize, cellSize * 2), 1, x, y);
+    }
+
+    public Viewport zoomedOut(int x, int y) {
+	if (!isZoomedOut() && (cellSize > 1)) { return zoomedTo(cellSize / 2, 1, x, y); }
+	if (isUnbounded() ? (cellsPerPixel >= maximumCellsPerPixel) : (visibleCells() >= boardSize)) { return this; }
+	return zoomedTo(1, cellsPerPixel * 2, x, y);
+    }
+
+    private Viewport zoomedTo(int newCellSize, int newCellsPerPixel, int x, int y) {
+	int row = originRow + cellsAcross(x, cellSize, cellsPerPixel);
+	int col = originCol + cellsAcross(y, cellSize, cellsPerPixel);
+
+	return new Viewport(boardSize, viewPixels, newCellSize, newCellsPerPixel,
+		row - cellsAcross(x, newCellSize, newCellsPerPixel), col - cellsAcross(y, newCellSize, newCellsPerPixel));
+    }
+
+    // Move the board under the view by a number of pixels, as when it's dragged
+    public Viewport pannedBy(int xPixels, int yPixels) {
+	return new Viewport(boardSize, viewPixels, cellSize, cellsPerPixel,
+		originRow - cellsAcross(xPixels, cellSize, cellsPerPixel), originCol - cellsAcross(yPixels, cellSize, cellsPerPixel));
+    }
+
+    private static int cellsAcross(int pixels, int cellSize, int cellsPerPixel) {
+	return (cellsPerPixel > 1) ? pixels * cellsPerPixel : pixels / cellSize;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+	if (!(other instanceof Viewport)) { return false; }
+
+	Viewport otherView = (Viewport) other;
+	return (boardSize == otherView.boardSize) && (viewPixels == otherView.viewPixels) && (cellSize == otherView.cellSize)
+		&& (cellsPerPixel == otherView.cellsPerPixel) && (originRow == otherView.originRow) && (originCol == otherView.originCol);
+    }
+
+    @Override
+    public int hashCode() {
+	int hash = (((boardSize * 31) + viewPixels) * 31) + cellSize;
+	return (((((hash * 31) + cellsPerPixel) * 31) + originRow) * 31) + originCol;
+    }
+}
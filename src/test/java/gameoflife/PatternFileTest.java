@@ -0,0 +1,117 @@
+package gameoflife;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/* Patterns written out read back the same, in every format, & rules are read from RLE files:
+ * 1. Random boards, sparse to dense & empty, are written as RLE, plaintext & Life 1.06, read back & stamped where they came from
+ * 2. An RLE file's rule comes from its header or a #r comment; one that isn't a B/S rule is kept as text, with no LifeRule
+ */
+class PatternFileTest {
+    private static final String[] extensions = { ".rle", ".cells", ".lif" };
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void randomBoardsRoundTrip() throws IOException {
+	Random random = new Random(20);
+
+	for (int trial = 0; trial < 60; trial++) {
+	    int size = 3 + random.nextInt(150), density = (trial == 0) ? 0 : 1 + random.nextInt(12);
+	    BitGrid board = new BitGrid(size);
+	    for (int row = 0; row < size; row++) {
+		for (int col = 0; col < size; col++) { board.set(row, col, (density > 0) && (random.nextInt(density) == 0)); }
+	    }
+
+	    for (String extension : extensions) { assertRoundTrip(board, folder.resolve("trial" + trial + extension)); }
+	}
+    }
+
+    @Test
+    void ruleWrittenToRleHeader() throws IOException {
+	BitGrid board = new BitGrid(10);
+	board.set(2, 3, true);
+	board.set(2, 4, true);
+
+	Path file = folder.resolve("rule.rle");
+	LifeRule highLife = LifeRule.parse("B36/S23");
+	PatternFile.write(file, board, 0, 0, 10, highLife);
+
+	PatternFile pattern = PatternFile.read(file);
+	assertEquals(highLife, pattern.getRule());
+	assertEquals("B36/S23", pattern.getRuleText());
+    }
+
+    // A glider, the file's x running along the rows & its y along the columns, with its rule in a comment rather than the header
+    @Test
+    void ruleReadFromRleComment() throws IOException {
+	PatternFile pattern = readText("comment.rle", "#N Glider\n#r B36/S23\nx = 3, y = 3\nbo$2bo$3o!\n");
+
+	assertEquals(LifeRule.parse("B36/S23"), pattern.getRule());
+	assertEquals("B36/S23", pattern.getRuleText());
+	assertEquals(5, pattern.population());
+
+	BitGrid board = new BitGrid(3);
+	pattern.stamp(board, 0, 0, 3);
+	int[][] cells = { { 1, 0 }, { 2, 1 }, { 0, 2 }, { 1, 2 }, { 2, 2 } };
+	for (int[] cell : cells) { assertTrue(board.get(cell[0], cell[1]), "cell (" + cell[0] + ", " + cell[1] + ")"); }
+	assertEquals(5, board.population());
+    }
+
+    @Test
+    void otherRulesKeptAsText() throws IOException {
+	PatternFile generations = readText("generations.rle", "x = 3, y = 1, rule = 23/3/3\n3o!\n");
+	assertNull(generations.getRule());
+	assertEquals("23/3/3", generations.getRuleText());
+	assertEquals(3, generations.population());
+
+	PatternFile nonTotalistic = readText("isotropic.rle", "#r B2ci3/S23-k\nx = 2, y = 1\n2o!\n");
+	assertNull(nonTotalistic.getRule());
+	assertEquals("B2ci3/S23-k", nonTotalistic.getRuleText());
+
+	PatternFile noRule = readText("none.rle", "x = 1, y = 1\no!\n");
+	assertNull(noRule.getRule());
+	assertNull(noRule.getRuleText());
+	assertEquals(1, noRule.population());
+    }
+
+    private PatternFile readText(String name, String text) throws IOException {
+	Path file = folder.resolve(name);
+	Files.write(file, text.getBytes(StandardCharsets.US_ASCII));
+	return PatternFile.read(file);
+    }
+
+    // Written from the whole board, read back & stamped at the box the live cells were in: every cell must come back as it was
+    private static void assertRoundTrip(BitGrid board, Path file) throws IOException {
+	int size = board.size(), firstRow = size, firstCol = size;
+	for (int row = 0; row < size; row++) {
+	    for (int col = 0; col < size; col++) {
+		if (!board.get(row, col)) { continue; }
+
+		firstRow = Math.min(firstRow, row);
+		firstCol = Math.min(firstCol, col);
+	    }
+	}
+
+	PatternFile.write(file, board, 0, 0, size, LifeRule.standard);
+	PatternFile pattern = PatternFile.read(file);
+	assertEquals(board.population(), pattern.population(), file.getFileName() + ": population");
+
+	BitGrid readBoard = new BitGrid(size);
+	pattern.stamp(readBoard, firstRow, firstCol, size);
+	for (int row = 0; row < size; row++) { assertEquals(-1, readBoard.firstDifference(board, row), file.getFileName() + ": row " + row); }
+
+	if (file.getFileName().toString().endsWith(".rle")) { assertEquals(LifeRule.standard, pattern.getRule(), file.getFileName() + ": rule"); }
+    }
+}
@@ -0,0 +1,117 @@
+package gameoflife;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/* A saved game loads back as it was saved:
+ * 1. A grid with a partial last word & an infinite plane spread over chunks either side of the origin, cell for cell
+ * 2. The rule panel settings, generation count, wrap & display mode
+ * 3. The 64 byte header, read back little-endian at the offsets the format gives them
+ * 4. A display mode this version doesn't know loads as black & white
+ */
+class SavedGameTest {
+    @TempDir
+    Path folder;
+
+    @Test
+    void gridRoundTrip() throws IOException {
+	int size = 130;
+	BitGrid grid = new BitGrid(size);
+	Random random = new Random(19);
+	for (int row = 0; row < size; row++) {
+	    for (int col = 0; col < size; col++) { grid.set(row, col, random.nextInt(3) == 0); }
+	}
+
+	boolean[] wildcardsOn = new boolean[9], wildcardsOff = new boolean[9];
+	wildcardsOn[6] = true;
+	wildcardsOff[8] = true;
+
+	Path file = folder.resolve("grid.life");
+	new SavedGame(grid, 1234567890123L, true, 2, 3, true, wildcardsOn, wildcardsOff, SavedGame.greyScale).save(file);
+	SavedGame loaded = SavedGame.load(file);
+
+	assertTrue(loaded.getBoard() instanceof BitGrid);
+	BitGrid loadedGrid = (BitGrid) loaded.getBoard();
+	assertEquals(size, loadedGrid.size());
+	for (int row = 0; row < size; row++) { assertEquals(-1, loadedGrid.firstDifference(grid, row), "row " + row); }
+	assertEquals(grid.population(), loadedGrid.population());
+
+	assertEquals(1234567890123L, loaded.getGeneration());
+	assertTrue(loaded.isWrapAround());
+	assertEquals(2, loaded.getMinimumOnMaximumOff());
+	assertEquals(3, loaded.getMaximumOnMinimumOff());
+	assertTrue(loaded.isWildcardsOnly());
+	assertArrayEquals(wildcardsOn, loaded.getWildcardsOn());
+	assertArrayEquals(wildcardsOff, loaded.getWildcardsOff());
+	assertEquals(SavedGame.greyScale, loaded.getDisplayMode());
+
+	// Header fields, then whole words per row
+	ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+	assertEquals(64 + (size * 3 * 8), header.capacity());
+	assertEquals(0x4C49464553415645L, header.getLong(0));
+	assertEquals(1, header.getInt(8));
+	assertEquals(0, header.getInt(12));
+	assertEquals(size, header.getInt(16));
+	assertEquals(1 | 2, header.getInt(20));
+	assertEquals(1234567890123L, header.getLong(24));
+	assertEquals(2, header.getInt(32));
+	assertEquals(3, header.getInt(36));
+	assertEquals(1 << 6, header.getInt(40));
+	assertEquals(1 << 8, header.getInt(44));
+	assertEquals(SavedGame.greyScale, header.getInt(48));
+    }
+
+    @Test
+    void planeRoundTrip() throws IOException {
+	ChunkedBoard plane = new ChunkedBoard();
+	int[][] cells = { { 0, 0 }, { -1, -1 }, { 63, 64 }, { -65, 200 }, { 1000000, -1000000 }, { 5, 6 } };
+	for (int[] cell : cells) { plane.set(cell[0], cell[1], true); }
+
+	Path file = folder.resolve("plane.life");
+	new SavedGame(plane, 42, false, 2, 3, false, new boolean[9], new boolean[9], SavedGame.colorScale).save(file);
+	SavedGame loaded = SavedGame.load(file);
+
+	assertTrue(loaded.getBoard() instanceof ChunkedBoard);
+	ChunkedBoard loadedPlane = (ChunkedBoard) loaded.getBoard();
+	assertEquals(plane.chunkCount(), loadedPlane.chunkCount());
+	assertEquals(cells.length, loadedPlane.population());
+	for (int[] cell : cells) { assertTrue(loadedPlane.get(cell[0], cell[1]), "cell (" + cell[0] + ", " + cell[1] + ")"); }
+
+	assertEquals(42, loaded.getGeneration());
+	assertFalse(loaded.isWrapAround());
+	assertFalse(loaded.isWildcardsOnly());
+	assertEquals(SavedGame.colorScale, loaded.getDisplayMode());
+    }
+
+    @Test
+    void unknownDisplayModeLoadsBlackWhite() throws IOException {
+	BitGrid grid = new BitGrid(10);
+	grid.set(4, 5, true);
+
+	Path file = folder.resolve("mode.life");
+	new SavedGame(grid, 0, false, 2, 3, false, new boolean[9], new boolean[9], SavedGame.colorScale).save(file);
+
+	// As saved by a later version with a fourth display mode
+	try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+	    channel.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, 3), 48);
+	}
+
+	SavedGame loaded = SavedGame.load(file);
+	assertEquals(SavedGame.blackWhite, loaded.getDisplayMode());
+	assertTrue(((BitGrid) loaded.getBoard()).get(4, 5));
+    }
+}
@@ -0,0 +1,144 @@
+package gameoflife;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import org.junit.jupiter.api.Test;
+
+/* Steady state stepping allocates nothing, on each path the simulation thread steps by:
+ * 1. A board is stepped until the JIT has compiled the kernels & every pool has grown to fit it
+ * 2. It's then stepped some more, & the bytes allocated by the stepping threads must not change
+ * The parallel path counts the pool's threads as well as the calling one.
+ */
+class StepAllocationTest {
+    private static final int warmupGenerations = 20000;
+    private static final int measuredGenerations = 1000;
+
+    private static final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void scalarStepAllocatesNothing() {
+	assertSteppingAllocatesNothing(1, false);
+    }
+
+    @Test
+    void parallelStepAllocatesNothing() {
+	assertSteppingAllocatesNothing(4, false);
+    }
+
+    @Test
+    void vectorStepAllocatesNothing() {
+	assumeTrue(ParallelStepper.isVectorSupported(), "jdk.incubator.vector isn't loaded");
+	assertSteppingAllocatesNothing(1, true);
+    }
+
+    @Test
+    void planeStepAllocatesNothing() {
+	// Blinkers inside chunks & across their edges & corners, so missing neighbors are stepped too
+	ChunkedBoard currentBoard = new ChunkedBoard(), nextBoard = new ChunkedBoard();
+	int[][] blinkers = { { 10, 10 }, { 63, 100 }, { 127, 63 }, { -1, -1 }, { 200, 300 } };
+	for (int[] blinker : blinkers) {
+	    for (int col = -1; col <= 1; col++) { currentBoard.set(blinker[0], blinker[1] + col, true); }
+	}
+
+	for (int generation = 0; generation < warmupGenerations; generation++) {
+	    nextBoard.step(currentBoard, LifeRule.standard);
+	    ChunkedBoard steppedBoard = currentBoard;
+	    currentBoard = nextBoard;
+	    nextBoard = steppedBoard;
+	}
+
+	long[] threadIds = { Thread.currentThread().getId() };
+	long measuring = measuringBytes(threadIds);
+	long before = allocatedBytes(threadIds);
+
+	for (int generation = 0; generation < measuredGenerations; generation++) {
+	    nextBoard.step(currentBoard, LifeRule.standard);
+	    ChunkedBoard steppedBoard = currentBoard;
+	    currentBoard = nextBoard;
+	    nextBoard = steppedBoard;
+	}
+
+	assertEquals(0, allocatedBytes(threadIds) - before - measuring, "bytes allocated stepping the plane");
+	assertEquals(15, currentBoard.population());
+    }
+
+    // A random soup on a wrapped grid wide enough for whole vectors, stepped with active tiles as the simulation does
+    private static void assertSteppingAllocatesNothing(int threads, boolean vectorized) {
+	ParallelStepper stepper = new ParallelStepper(threads);
+	stepper.setVectorized(vectorized);
+
+	try {
+	    int gridSize = 512;
+	    BitGrid currentGrid = new BitGrid(gridSize), nextGrid = new BitGrid(gridSize);
+	    ActiveTiles activeTiles = new ActiveTiles(gridSize);
+	    Random random = new Random(42);
+
+	    for (int row = 0; row < gridSize; row++) {
+		for (int col = 0; col < gridSize; col++) { currentGrid.set(row, col, random.nextInt(3) == 0); }
+	    }
+
+	    for (int generation = 0; generation < warmupGenerations; generation++) {
+		// Every few generations the whole board is stepped, as after an edit
+		if ((generation % 64) == 0) { activeTiles.markAll(); }
+
+		stepper.step(currentGrid, nextGrid, true, LifeRule.standard, activeTiles);
+		BitGrid steppedGrid = currentGrid;
+		currentGrid = nextGrid;
+		nextGrid = steppedGrid;
+	    }
+
+	    long[] threadIds = threadIds();
+	    long measuring = measuringBytes(threadIds);
+	    long before = allocatedBytes(threadIds);
+
+	    for (int generation = 0; generation < measuredGenerations; generation++) {
+		if ((generation % 64) == 0) { activeTiles.markAll(); }
+
+		stepper.step(currentGrid, nextGrid, true, LifeRule.standard, activeTiles);
+		BitGrid steppedGrid = currentGrid;
+		currentGrid = nextGrid;
+		nextGrid = steppedGrid;
+	    }
+
+	    assertEquals(0, allocatedBytes(threadIds) - before - measuring, "bytes allocated stepping with " + threads + " threads, vectorized " + vectorized);
+	}
+	finally {
+	    stepper.shutdown();
+	}
+    }
+
+    // The calling thread & the stepper's pool threads, which have all started by the end of the warmup
+    private static long[] threadIds() {
+	ArrayList<Long> threadIds = new ArrayList<>();
+	threadIds.add(Thread.currentThread().getId());
+
+	for (Thread thread : Thread.getAllStackTraces().keySet()) {
+	    if ((thread instanceof ForkJoinWorkerThread) && (((ForkJoinWorkerThread) thread).getPool() != ForkJoinPool.commonPool())) { threadIds.add(thread.getId()); }
+	}
+
+	long[] ids = new long[threadIds.size()];
+	for (int index = 0; index < ids.length; index++) { ids[index] = threadIds.get(index); }
+
+	return ids;
+    }
+
+    private static long allocatedBytes(long[] threadIds) {
+	long bytes = 0;
+	for (long allocated : threadBean.getThreadAllocatedBytes(threadIds)) { bytes += Math.max(0, allocated); }
+
+	return bytes;
+    }
+
+    // What one call to allocatedBytes allocates itself, taken off the measurement
+    private static long measuringBytes(long[] threadIds) {
+	long before = allocatedBytes(threadIds);
+	return allocatedBytes(threadIds) - before;
+    }
+}
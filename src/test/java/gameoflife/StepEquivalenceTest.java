@@ -0,0 +1,220 @@
+package gameoflife;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/* Stepping matches the cell by cell rules it replaced, bit for bit:
+ * 1. The reference counts each cell's neighbors one at a time, wrapping or stopping at the edges, & looks the cell up in LifeRule.nextState
+ * 2. Random boards of random sizes from 3 cells up, most of them not a multiple of 64, are stepped under random rule panel settings, wildcards included,
+ *    in wrapped & bounded mode, with & without ActiveTiles, & compared with the reference after every generation
+ * 3. The vector kernel gets the same boards, & widths that end a row on every lane count up to 8 lanes: 8 words with a partial last word,
+ *    so the last vector holds the masked last word, & 9 words, leaving a word over for the scalar kernel
+ * 4. A few hand checked patterns at the corners & edges, where the halo stands in for the old edge by edge neighbor tests
+ */
+class StepEquivalenceTest {
+    private static final int trials = 24, generations = 32;
+    private static final int[] vectorWidths = { 8 * 64 - 13, 9 * 64 - 30, 8 * 64, 100 };
+    // Hand checked boards: within a word, exactly one word & with a partial last word
+    private static final int[] edgeSizes = { 8, 64, 70 };
+
+    @Test
+    void parallelStepMatchesReference() {
+	for (int threads = 1; threads <= 4; threads++) { assertStepsMatchReference(threads, false, new Random(threads)); }
+    }
+
+    @Test
+    void vectorStepMatchesReference() {
+	assumeTrue(ParallelStepper.isVectorSupported(), "jdk.incubator.vector isn't loaded");
+
+	for (int threads = 1; threads <= 3; threads += 2) {
+	    Random random = new Random(10 + threads);
+	    assertStepsMatchReference(threads, true, random);
+
+	    ParallelStepper stepper = new ParallelStepper(threads);
+	    stepper.setVectorized(true);
+
+	    try {
+		for (int size : vectorWidths) {
+		    for (int mode = 0; mode < 4; mode++) { assertStepsMatchReference(stepper, size, (mode & 1) != 0, (mode & 2) != 0, randomRule(random), random); }
+		}
+	    }
+	    finally {
+		stepper.shutdown();
+	    }
+	}
+    }
+
+    // A glider heading down & right from the bottom right corner comes out whole at the top left, 4 cells on
+    @Test
+    void gliderCrossesWrappedCorner() {
+	for (int size : edgeSizes) {
+	    BitGrid grid = edgeGrid(size, new int[][] { { -3, -2 }, { -2, -1 }, { -1, -3 }, { -1, -2 }, { -1, -1 } });
+
+	    grid = stepEdges(grid, true, 4);
+	    assertEdgeCells(size, new int[][] { { -2, -1 }, { -1, 0 }, { 0, -2 }, { 0, -1 }, { 0, 0 } }, grid, "glider across the corner");
+
+	    grid = stepEdges(grid, true, 4);
+	    assertEdgeCells(size, new int[][] { { -1, 0 }, { 0, 1 }, { 1, -1 }, { 1, 0 }, { 1, 1 } }, grid, "glider across the corner");
+
+	    grid = stepEdges(grid, true, 4);
+	    assertEdgeCells(size, new int[][] { { 0, 1 }, { 1, 2 }, { 2, 0 }, { 2, 1 }, { 2, 2 } }, grid, "glider past the corner");
+	}
+    }
+
+    // Blinkers along the top & right edges: cut in half & dying out when bounded, blinking across the edge when wrapped
+    @Test
+    void blinkerAgainstEdge() {
+	int[][] topBlinker = { { 0, 4 }, { 0, 5 }, { 0, 6 } }, rightBlinker = { { 3, -1 }, { 4, -1 }, { 5, -1 } };
+
+	for (int size : edgeSizes) {
+	    BitGrid grid = stepEdges(edgeGrid(size, topBlinker), false, 1);
+	    assertEdgeCells(size, new int[][] { { 0, 5 }, { 1, 5 } }, grid, "bounded top blinker");
+	    assertEdgeCells(size, new int[0][], stepEdges(grid, false, 1), "bounded top blinker");
+
+	    grid = stepEdges(edgeGrid(size, topBlinker), true, 1);
+	    assertEdgeCells(size, new int[][] { { -1, 5 }, { 0, 5 }, { 1, 5 } }, grid, "wrapped top blinker");
+	    assertEdgeCells(size, topBlinker, stepEdges(grid, true, 1), "wrapped top blinker");
+
+	    grid = stepEdges(edgeGrid(size, rightBlinker), false, 1);
+	    assertEdgeCells(size, new int[][] { { 4, -2 }, { 4, -1 } }, grid, "bounded right blinker");
+	    assertEdgeCells(size, new int[0][], stepEdges(grid, false, 1), "bounded right blinker");
+
+	    grid = stepEdges(edgeGrid(size, rightBlinker), true, 1);
+	    assertEdgeCells(size, new int[][] { { 4, -2 }, { 4, -1 }, { 4, 0 } }, grid, "wrapped right blinker");
+	    assertEdgeCells(size, rightBlinker, stepEdges(grid, true, 1), "wrapped right blinker");
+	}
+    }
+
+    // Cells given as (row, col), negative ones counting back from the bottom or right edge
+    private static BitGrid edgeGrid(int size, int[][] cells) {
+	BitGrid grid = new BitGrid(size);
+	for (int[] cell : cells) { grid.set((cell[0] + size) % size, (cell[1] + size) % size, true); }
+
+	return grid;
+    }
+
+    private static BitGrid stepEdges(BitGrid grid, boolean wrapAround, int generations) {
+	for (int generation = 0; generation < generations; generation++) {
+	    BitGrid nextGrid = new BitGrid(grid.size());
+	    nextGrid.step(grid, wrapAround, LifeRule.standard);
+	    grid = nextGrid;
+	}
+
+	return grid;
+    }
+
+    private static void assertEdgeCells(int size, int[][] cells, BitGrid grid, String message) {
+	boolean[][] expected = new boolean[size][size];
+	for (int[] cell : cells) { expected[(cell[0] + size) % size][(cell[1] + size) % size] = true; }
+
+	assertGridMatches(expected, grid, message + ", size " + size);
+    }
+
+    private static void assertStepsMatchReference(int threads, boolean vectorized, Random random) {
+	ParallelStepper stepper = new ParallelStepper(threads);
+	stepper.setVectorized(vectorized);
+
+	try {
+	    for (int trial = 0; trial < trials; trial++) {
+		// Every fourth board a whole number of words wide, the rest with a partial last word
+		int size = ((trial & 3) == 3) ? 64 * (1 + random.nextInt(4)) : 3 + random.nextInt(298);
+		boolean wrapAround = (trial & 1) != 0, tiled = (trial & 2) != 0;
+		assertStepsMatchReference(stepper, size, wrapAround, tiled, randomRule(random), random);
+	    }
+	}
+	finally {
+	    stepper.shutdown();
+	}
+    }
+
+    private static void assertStepsMatchReference(ParallelStepper stepper, int size, boolean wrapAround, boolean tiled, LifeRule rule, Random random) {
+	boolean[][] cells = new boolean[size][size];
+	int density = 2 + random.nextInt(6);
+	BitGrid currentGrid = new BitGrid(size), nextGrid = new BitGrid(size);
+	ActiveTiles activeTiles = tiled ? new ActiveTiles(size) : null;
+
+	for (int row = 0; row < size; row++) {
+	    for (int col = 0; col < size; col++) {
+		cells[row][col] = random.nextInt(density) == 0;
+		currentGrid.set(row, col, cells[row][col]);
+	    }
+	}
+
+	for (int generation = 1; generation <= generations; generation++) {
+	    cells = referenceStep(cells, wrapAround, rule);
+	    stepper.step(currentGrid, nextGrid, wrapAround, rule, activeTiles);
+
+	    BitGrid steppedGrid = currentGrid;
+	    currentGrid = nextGrid;
+	    nextGrid = steppedGrid;
+
+	    assertGridMatches(cells, currentGrid, "threads " + stepper.getThreads() + ", vectorized " + stepper.isVectorized() + ", size " + size
+		    + ", wrap " + wrapAround + ", tiles " + tiled + ", rule " + rule + ", generation " + generation);
+	}
+    }
+
+    // Rule panel settings as a user could pick them: min. / max., wildcards on & off, wildcards only & display mode
+    private static LifeRule randomRule(Random random) {
+	boolean[] wildcardsOn = new boolean[9], wildcardsOff = new boolean[9];
+	for (int howManyActiveNeighbors = 1; howManyActiveNeighbors <= 8; howManyActiveNeighbors++) {
+	    wildcardsOn[howManyActiveNeighbors] = random.nextInt(5) == 0;
+	    wildcardsOff[howManyActiveNeighbors] = random.nextInt(5) == 0;
+	}
+
+	int minimum = 1 + random.nextInt(8), maximum = minimum + random.nextInt(9 - minimum);
+	return LifeRule.fromSettings(minimum, maximum, random.nextInt(4) == 0, wildcardsOn, wildcardsOff, random.nextBoolean());
+    }
+
+    // One generation, a cell at a time
+    static boolean[][] referenceStep(boolean[][] cells, boolean wrapAround, LifeRule rule) {
+	int size = cells.length;
+	boolean[][] nextCells = new boolean[size][size];
+
+	for (int row = 0; row < size; row++) {
+	    for (int col = 0; col < size; col++) {
+		int howManyActiveNeighbors = 0;
+
+		for (int rowOffset = -1; rowOffset <= 1; rowOffset++) {
+		    for (int colOffset = -1; colOffset <= 1; colOffset++) {
+			if ((rowOffset == 0) && (colOffset == 0)) { continue; }
+
+			int neighborRow = row + rowOffset, neighborCol = col + colOffset;
+
+			if (wrapAround) {
+			    neighborRow = (neighborRow + size) % size;
+			    neighborCol = (neighborCol + size) % size;
+			}
+			else if ((neighborRow < 0) || (neighborRow >= size) || (neighborCol < 0) || (neighborCol >= size)) {
+			    continue;
+			}
+
+			if (cells[neighborRow][neighborCol]) { howManyActiveNeighbors++; }
+		    }
+		}
+
+		nextCells[row][col] = rule.nextState(cells[row][col], howManyActiveNeighbors);
+	    }
+	}
+
+	return nextCells;
+    }
+
+    // Every cell, & the population too, which would count any bits left set in the padding or halo
+    static void assertGridMatches(boolean[][] cells, BitGrid grid, String message) {
+	long population = 0;
+
+	for (int row = 0; row < cells.length; row++) {
+	    for (int col = 0; col < cells.length; col++) {
+		if (grid.get(row, col) != cells[row][col]) { fail(message + ": cell (" + row + ", " + col + ") should be " + cells[row][col]); }
+		if (cells[row][col]) { population++; }
+	    }
+	}
+
+	assertEquals(population, grid.population(), message + ": population");
+    }
+}